@@ -0,0 +1,143 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.bulk.LinkBulkService;
+import br.com.fatec.api_links_uteis.model.BulkImportResult;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Benchmark JMH da importação e da exportação em lote.
+ *
+ * Gera "quantidade" links em NDJSON ou em CSV na memória. importar lê o
+ * arquivo inteiro num LinkStore novo pelo LinkBulkService; exportar escreve o
+ * catálogo (importado uma vez no início) numa saída que só conta os bytes.
+ * Não passa por HTTP: mede o parser, os lotes e o LinkStore.
+ *
+ * O resultado principal é em arquivos inteiros por segundo; os contadores
+ * auxiliares "links" e "bytes" dão a vazão em links/s e bytes/s.
+ *
+ * Só é compilado com o profile benchmark (veja o pom.xml):
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkBulkBenchmark"
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkBulkBenchmark.importar -p formato=csv"
+ */
+@State(Scope.Benchmark) // o arquivo e o catálogo exportado são só lidos, por todas as threads
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LinkBulkBenchmark {
+
+    @Param({ "1000000" })
+    public int quantidade;
+
+    @Param({ "ndjson", "csv" })
+    public String formato;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] arquivo;
+    private LinkStore catalogo;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        arquivo = gerar(quantidade, formato.equals("csv"));
+        catalogo = new LinkStore();
+        importar(new LinkBulkService(catalogo, objectMapper));
+    }
+
+    // links e bytes processados; o JMH divide pelo tempo da iteração (links/s, bytes/s)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Vazao {
+        public long links;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void zerar() {
+            links = 0;
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    public BulkImportResult importar(Vazao vazao) throws IOException {
+        BulkImportResult resultado = importar(new LinkBulkService(new LinkStore(), objectMapper));
+        vazao.links += resultado.importados();
+        vazao.bytes += arquivo.length;
+        return resultado;
+    }
+
+    @Benchmark
+    public long exportar(Vazao vazao) throws IOException {
+        LinkBulkService servico = new LinkBulkService(catalogo, objectMapper);
+        ContadorDeBytes saida = new ContadorDeBytes();
+        if (formato.equals("csv")) {
+            servico.exportarCsv(saida);
+        } else {
+            servico.exportarNdjson(saida);
+        }
+        vazao.links += catalogo.size();
+        vazao.bytes += saida.bytes;
+        return saida.bytes;
+    }
+
+    private BulkImportResult importar(LinkBulkService servico) throws IOException {
+        return formato.equals("csv")
+                ? servico.importarCsv(new ByteArrayInputStream(arquivo))
+                : servico.importarNdjson(new ByteArrayInputStream(arquivo));
+    }
+
+    private static byte[] gerar(int quantidade, boolean emCsv) {
+        StringBuilder texto = new StringBuilder(quantidade * 64);
+        if (emCsv) {
+            texto.append("titulo,url\n");
+        }
+        for (int i = 1; i <= quantidade; i++) {
+            String url = "https://exemplo" + (i % 1000) + ".com/pagina/" + i;
+            if (emCsv) {
+                texto.append("Link ").append(i).append(',').append(url).append('\n');
+            } else {
+                texto.append("{\"titulo\":\"Link ").append(i).append("\",\"url\":\"").append(url).append("\"}\n");
+            }
+        }
+        return texto.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // saída que descarta os bytes e só conta quantos foram escritos
+    private static final class ContadorDeBytes extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.ApiLinksUteisApplication;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Benchmark JMH de carga do cluster com 1, 2, 3 e 4 nós.
+ *
+ * Antes da medição sobe "nos" instâncias neste processo (cada uma com o seu
+ * Tomcat e o seu LinkStore, em portas diferentes), cria LINKS links por POST
+ * espalhados entre elas e dispara "clientes" clientes em laço fechado:
+ * 9 de cada 10 requisições são GET /api/links/{id} e 1 é PATCH, sempre num nó
+ * sorteado. Com N nós, (N-1)/N das requisições chegam a um nó que não é o dono
+ * e são repassadas por HTTP.
+ *
+ * Cada thread do JMH é mais um cliente com a mesma mistura, e o JMH mede a
+ * latência das requisições dela (SampleTime: p50, p99...). Os contadores
+ * auxiliares mostram as respostas por segundo de todos os clientes, os erros
+ * por iteração e quantos links ficaram no nó com menos e no nó com mais links
+ * (um POST cria o link no nó que o recebeu, com um ID daquele nó; como os
+ * POSTs se alternam entre os nós, a divisão é igual).
+ *
+ * Todos os nós dividem os mesmos núcleos da máquina: o número mostra o custo
+ * do repasse e o equilíbrio da divisão, não o ganho de máquinas separadas.
+ * Para isso, suba cada nó numa máquina (ou contêiner com CPUs reservadas,
+ * veja docker-compose.cluster.yml) e aponte um gerador de carga externo.
+ *
+ * Só é compilado com o profile benchmark (veja o pom.xml):
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkClusterBenchmark"
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkClusterBenchmark -p nos=1,4 -p clientes=128"
+ */
+@State(Scope.Benchmark) // um cluster e uma carga para todas as threads do JMH
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 4, time = 5)
+@Fork(1)
+public class LinkClusterBenchmark {
+    private static final int LINKS = 10_000;
+    private static final int PATCH_A_CADA = 10;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Param({ "1", "2", "3", "4" })
+    public int nos;
+
+    @Param({ "64" })
+    public int clientes;
+
+    private final List<ConfigurableApplicationContext> instancias = new ArrayList<>();
+    private List<String> enderecos;
+    private int[] ids;
+    private ExecutorService carga;
+    private volatile boolean parar;
+    private final LongAdder respostas = new LongAdder();
+    private final LongAdder erros = new LongAdder();
+    private long inicioIteracao;
+
+    @Setup(Level.Trial)
+    public void subir() throws Exception {
+        enderecos = new ArrayList<>();
+        for (int i = 0; i < nos; i++) {
+            enderecos.add("http://127.0.0.1:" + portaLivre());
+        }
+        for (String endereco : enderecos) {
+            // argumentos de linha de comando têm prioridade sobre o application.properties
+            instancias.add(new SpringApplicationBuilder(ApiLinksUteisApplication.class)
+                    .run("--server.port=" + URI.create(endereco).getPort(),
+                            "--links.cluster.enabled=" + (nos > 1),
+                            "--links.cluster.nodes=" + String.join(",", enderecos),
+                            "--links.cluster.self=" + endereco,
+                            "--links.seed.enabled=false",
+                            "--logging.level.root=warn"));
+        }
+        criarLinks();
+        carga = Executors.newVirtualThreadPerTaskExecutor();
+        for (int c = 0; c < clientes; c++) {
+            carga.submit(this::cliente);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void zerarContadores() {
+        respostas.reset();
+        erros.reset();
+        inicioIteracao = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void derrubar() {
+        parar = true;
+        carga.close();
+        instancias.forEach(ConfigurableApplicationContext::close);
+    }
+
+    /**
+     * Contadores auxiliares de uma thread do JMH: respostas por segundo de
+     * todos os clientes, erros na iteração e links no menor e no maior nó,
+     * publicados no fim de cada iteração (veja ValorMedio).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sonda {
+        public double respostasPorSegundo;
+        public double erros;
+        public double linksNoMenorNo;
+        public double linksNoMaiorNo;
+
+        private LinkClusterBenchmark cluster;
+        private int requisicao;
+
+        @TearDown(Level.Iteration)
+        public void publicar(BenchmarkParams benchmark, IterationParams iteracao) {
+            if (cluster == null) {
+                return;
+            }
+            double peso = ValorMedio.peso(benchmark, iteracao);
+            double segundos = (System.nanoTime() - cluster.inicioIteracao) / 1e9;
+            respostasPorSegundo = cluster.respostas.sum() / segundos * peso;
+            erros = cluster.erros.sum() * peso;
+            int menor = Integer.MAX_VALUE;
+            int maior = 0;
+            for (ConfigurableApplicationContext no : cluster.instancias) {
+                int links = no.getBean(LinkStore.class).size();
+                menor = Math.min(menor, links);
+                maior = Math.max(maior, links);
+            }
+            linksNoMenorNo = menor * peso;
+            linksNoMaiorNo = maior * peso;
+        }
+    }
+
+    @Benchmark
+    public void requisicao(Sonda sonda) {
+        sonda.cluster = this;
+        enviarUma(sonda.requisicao++);
+    }
+
+    // cria os links pelos POSTs em todos os nós e guarda os IDs entregues
+    private void criarLinks() throws Exception {
+        ids = new int[LINKS];
+        for (int i = 0; i < LINKS; i++) {
+            HttpResponse<byte[]> criado = enviar("POST", enderecos.get(i % enderecos.size()) + "/api/links",
+                    "{\"titulo\":\"Link " + i + "\",\"url\":\"https://exemplo.com/" + i + "\"}");
+            ids[i] = objectMapper.readValue(criado.body(), Link.class).id();
+        }
+    }
+
+    // laço de um cliente da carga, até o fim do benchmark
+    private void cliente() {
+        for (int i = 0; !parar; i++) {
+            enviarUma(i);
+        }
+    }
+
+    // a i-ésima requisição de um cliente, num nó e num link sorteados: um PATCH a cada 10, senão um GET
+    private void enviarUma(int i) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        String no = enderecos.get(aleatorio.nextInt(enderecos.size()));
+        String uri = no + "/api/links/" + ids[aleatorio.nextInt(ids.length)];
+        try {
+            HttpResponse<byte[]> resposta = i % PATCH_A_CADA == 0
+                    ? enviar("PATCH", uri, "{\"titulo\":\"Alterado " + i + "\"}")
+                    : enviar("GET", uri, null);
+            if (resposta.statusCode() == 200) {
+                respostas.increment();
+            } else {
+                erros.increment();
+            }
+        } catch (IOException e) {
+            erros.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            erros.increment();
+        }
+    }
+
+    private static HttpResponse<byte[]> enviar(String metodo, String uri, String corpo)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(uri))
+                .method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corpo));
+        if (corpo != null) {
+            requisicao.header("Content-Type", "application/json");
+        }
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
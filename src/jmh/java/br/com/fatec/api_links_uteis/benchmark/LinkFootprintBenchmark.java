@@ -0,0 +1,121 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Benchmark JMH de memória: quantos bytes de heap cada link ocupa no catálogo.
+ *
+ * Compara o formato antigo (um HashMap com as chaves "id", "titulo" e "url",
+ * com o ID convertido para String) com o record Link, usando a mesma estrutura
+ * do LinkStore (ConcurrentSkipListMap com chave Integer).
+ *
+ * Cada iteração preenche um catálogo novo (o tempo é o resultado principal) e,
+ * no fim, mede o heap ocupado depois de System.gc(): o contador auxiliar
+ * bytesPorLink é esse heap menos o de antes do preenchimento, dividido pelos
+ * links. Roda só com 1 thread: o pom.xml o deixa fora da rodada com -t max.
+ *
+ * Só é compilado com o profile benchmark (veja o pom.xml). Com 10M links o
+ * formato antigo precisa de um heap de vários gigabytes (-Xmx8g no fork):
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkFootprintBenchmark -p quantidade=1000000"
+ */
+@State(Scope.Thread) // cada thread monta o seu catálogo
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LinkFootprintBenchmark {
+
+    @Param({ "1000000", "10000000" })
+    public int quantidade;
+
+    @Param({ "HashMap", "record" })
+    public String formato;
+
+    private IntFunction<Object> fabrica;
+
+    @Setup(Level.Trial)
+    public void escolherFormato() {
+        fabrica = formato.equals("record") ? LinkFootprintBenchmark::linkComoRecord
+                : LinkFootprintBenchmark::linkComoMapa;
+    }
+
+    // bytes de heap por link, medidos no fim de cada iteração com o catálogo ainda vivo (veja ValorMedio)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memoria {
+        public double bytesPorLink;
+
+        private Map<Integer, Object> catalogo;
+        private long heapAntes;
+
+        // o catálogo anterior só é descartado aqui, antes de medir o heap vazio
+        @Setup(Level.Iteration)
+        public void medirAntes() {
+            catalogo = null;
+            heapAntes = heapUsadoAposGc();
+        }
+
+        @TearDown(Level.Iteration)
+        public void medirDepois(BenchmarkParams benchmark, IterationParams iteracao) {
+            long links = Long.parseLong(benchmark.getParam("quantidade")) * benchmark.getThreads();
+            bytesPorLink = (heapUsadoAposGc() - heapAntes) / (double) links * ValorMedio.peso(benchmark, iteracao);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Object> preencher(Memoria memoria) {
+        ConcurrentSkipListMap<Integer, Object> catalogo = new ConcurrentSkipListMap<>();
+        for (int id = 1; id <= quantidade; id++) {
+            catalogo.put(id, fabrica.apply(id));
+        }
+        memoria.catalogo = catalogo;
+        return catalogo;
+    }
+
+    // formato anterior ao record: um HashMap por link, com o ID também em texto
+    private static Object linkComoMapa(int id) {
+        Map<String, String> link = new HashMap<>();
+        link.put("id", String.valueOf(id));
+        link.put("titulo", "Link " + id);
+        link.put("url", "https://exemplo" + (id % 1000) + ".com/pagina/" + id);
+        return link;
+    }
+
+    private static Object linkComoRecord(int id) {
+        return new Link(id, "Link " + id, "https://exemplo" + (id % 1000) + ".com/pagina/" + id, id);
+    }
+
+    private static long heapUsadoAposGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -0,0 +1,144 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.HeapLinkTable;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.LinkTable;
+import br.com.fatec.api_links_uteis.store.MappedLinkTable;
+
+/**
+ * Benchmark JMH dos motores de armazenamento: heap (HeapLinkTable) x arquivo
+ * mapeado (MappedLinkTable), com catálogos de tamanhos crescentes.
+ *
+ * Antes da medição preenche um LinkStore com "quantidade" links por create()
+ * no "motor" escolhido. O JMH mede as buscas por ID sorteadas (como
+ * GET /api/links/{id}) por segundo, e o -prof gc do pom mostra as coletas
+ * durante as buscas. Os contadores auxiliares mostram o heap ocupado depois
+ * do preenchimento (após System.gc()) e as coletas do GC e o tempo gasto
+ * nelas durante o preenchimento. Com o motor mapeado o heap e o tempo de GC
+ * não crescem com o catálogo.
+ *
+ * Só é compilado com o profile benchmark (veja o pom.xml):
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkMappedStoreBenchmark"
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkMappedStoreBenchmark -p quantidade=1000000"
+ */
+@State(Scope.Benchmark) // um catálogo, só lido pelas threads do JMH
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LinkMappedStoreBenchmark {
+
+    @Param({ "1000000", "10000000" })
+    public int quantidade;
+
+    @Param({ "heap", "mapped" })
+    public String motor;
+
+    private Path diretorio;
+    private LinkStore store;
+    private long heapOcupado;
+    private long coletasPreenchimento;
+    private long msPreenchimento;
+
+    @Setup(Level.Trial)
+    public void preencher() throws IOException {
+        diretorio = Files.createTempDirectory("links-mapped-");
+        LinkTable tabela = motor.equals("heap") ? new HeapLinkTable() : new MappedLinkTable(diretorio);
+        store = new LinkStore(null, tabela);
+        long heapAntes = heapUsadoAposGc();
+        long coletasAntes = coletas();
+        long msAntes = msDeGc();
+        for (int i = 1; i <= quantidade; i++) {
+            store.create("Link " + i, "https://exemplo" + (i % 1000) + ".com/pagina/" + i);
+        }
+        coletasPreenchimento = coletas() - coletasAntes;
+        msPreenchimento = msDeGc() - msAntes;
+        heapOcupado = heapUsadoAposGc() - heapAntes;
+    }
+
+    @TearDown(Level.Trial)
+    public void apagar() throws IOException {
+        store = null;
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+        }
+    }
+
+    // números do preenchimento, publicados no fim de cada iteração (veja ValorMedio)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Preenchimento {
+        public double heapMb;
+        public double gcColetas;
+        public double gcMs;
+
+        private LinkMappedStoreBenchmark catalogo;
+
+        @TearDown(Level.Iteration)
+        public void publicar(BenchmarkParams benchmark, IterationParams iteracao) {
+            if (catalogo == null) {
+                return;
+            }
+            double peso = ValorMedio.peso(benchmark, iteracao);
+            heapMb = catalogo.heapOcupado / (1024.0 * 1024.0) * peso;
+            gcColetas = catalogo.coletasPreenchimento * peso;
+            gcMs = catalogo.msPreenchimento * peso;
+        }
+    }
+
+    @Benchmark
+    public Link buscar(Preenchimento preenchimento) {
+        preenchimento.catalogo = this;
+        return store.findById(1 + ThreadLocalRandom.current().nextInt(quantidade));
+    }
+
+    // coletas do GC desde o início do processo
+    private static long coletas() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    // milissegundos de GC desde o início do processo
+    private static long msDeGc() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long heapUsadoAposGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
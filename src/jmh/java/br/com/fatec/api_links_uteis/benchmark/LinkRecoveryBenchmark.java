@@ -0,0 +1,143 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+import br.com.fatec.api_links_uteis.persistence.LinkPersistence;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Benchmark JMH de recuperação: quanto tempo leva para reabrir um catálogo
+ * persistido, relendo só o log ("log") ou relendo snapshot + log ("snapshot").
+ *
+ * Antes da medição gera um log com "operacoes" operações (60% PATCH, 20%
+ * criações, 10% PUT e 10% remoções) e "derruba" o processo sem snapshot; no
+ * cenário "snapshot" grava um snapshot em seguida. Cada iteração recupera o
+ * catálogo num LinkStore novo. Os contadores auxiliares mostram os links
+ * recuperados e o tamanho dos arquivos em MB.
+ *
+ * Cada thread tem a sua pasta (dois LinkPersistence não podem abrir a mesma).
+ * Só é compilado com o profile benchmark (veja o pom.xml):
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkRecoveryBenchmark"
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkRecoveryBenchmark -p operacoes=1000000"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LinkRecoveryBenchmark {
+
+    @Param({ "10000000" })
+    public int operacoes;
+
+    @Param({ "log", "snapshot" })
+    public String cenario;
+
+    private Path diretorio;
+
+    @Setup(Level.Trial)
+    public void gerarLog() throws IOException {
+        diretorio = Files.createTempDirectory("links-recovery-");
+        LinkPersistence persistencia = novaPersistencia(diretorio);
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        gerarOperacoes(store, operacoes);
+        persistencia.fechar(); // queda sem snapshot
+        if (cenario.equals("snapshot")) {
+            persistencia = novaPersistencia(diretorio);
+            persistencia.recuperar(new LinkStore());
+            persistencia.snapshot();
+            persistencia.fechar();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void apagar() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+        }
+    }
+
+    // links recuperados e tamanho da pasta, publicados no fim de cada iteração (veja ValorMedio)
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Recuperado {
+        public double links;
+        public double megabytes;
+
+        private int quantidade;
+        private Path diretorio;
+
+        @TearDown(Level.Iteration)
+        public void publicar(BenchmarkParams benchmark, IterationParams iteracao) throws IOException {
+            double peso = ValorMedio.peso(benchmark, iteracao);
+            links = quantidade * peso;
+            megabytes = tamanho(diretorio) / (1024.0 * 1024.0) * peso;
+        }
+    }
+
+    @Benchmark
+    public LinkStore recuperar(Recuperado recuperado) {
+        LinkPersistence persistencia = novaPersistencia(diretorio);
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        persistencia.fechar();
+        recuperado.quantidade = store.size();
+        recuperado.diretorio = diretorio;
+        return store;
+    }
+
+    private static void gerarOperacoes(LinkStore store, int operacoes) {
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        for (int i = 0; i < operacoes; i++) {
+            int sorteio = aleatorio.nextInt(10);
+            int id = 1 + aleatorio.nextInt(Math.max(1, store.proximoId() - 1));
+            if (sorteio < 2 || store.size() == 0) {
+                store.create("Link " + i, "https://exemplo" + (i % 1000) + ".com/" + i);
+            } else if (sorteio < 3) {
+                store.update(id, "Atualizado " + i, "https://atualizado.com/" + i);
+            } else if (sorteio < 4) {
+                store.delete(id);
+            } else {
+                store.patch(id, "Patch " + i, null);
+            }
+        }
+    }
+
+    private static LinkPersistence novaPersistencia(Path diretorio) {
+        // sem fsync por operação: o benchmark mede a recuperação, não a escrita
+        return new LinkPersistence(diretorio, 64 << 20, false, Long.MAX_VALUE);
+    }
+
+    private static long tamanho(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.mapToLong(arquivo -> arquivo.toFile().length()).sum();
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+/**
+ * Benchmark JMH de inicialização: tempo até a primeira resposta e memória
+ * (RSS) de cada forma de empacotar a aplicação.
+ *
+ * Variantes ("variante"):
+ * - jar: java -jar target/api-links-uteis-*.jar, como no Dockerfile
+ * - aot-cds: o jar extraído em target/cds, com o arquivo application.jsa e o
+ *   código do Spring AOT (mvn -P aot-cds -DskipTests package)
+ * - nativo: o executável target/api-links-uteis do GraalVM
+ *   (mvn -P native -DskipTests native:compile)
+ *
+ * Cada iteração inicia um processo novo da variante, numa porta livre. O
+ * tempo medido (SingleShotTime) vai do início do processo até a primeira
+ * resposta 200 de GET /api/links/1 (consultada a cada 5 ms). Em seguida
+ * confere que /actuator/prometheus responde e lê o VmRSS do processo em
+ * /proc/{pid}/status (só no Linux): é o contador auxiliar rssMb. Roda só com
+ * 1 thread (o pom.xml o deixa fora da rodada com -t max), para um processo não
+ * disputar os núcleos com outro.
+ *
+ * Uma variante que não foi compilada em target/ falha no setup. Só é
+ * compilado com o profile benchmark (veja o pom.xml), que roda da raiz do
+ * projeto e já gera o jar:
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkStartupBenchmark -p variante=jar"
+ *   mvn -P aot-cds,benchmark -DskipTests verify -Djmh.args="LinkStartupBenchmark -p variante=jar,aot-cds"
+ */
+@State(Scope.Thread) // cada thread sobe os seus processos
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LinkStartupBenchmark {
+    private static final Path TARGET = Path.of("target");
+    private static final long LIMITE_SEGUNDOS = 120; // uma variante que não responde nesse tempo falhou
+
+    private static final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    @Param({ "jar", "aot-cds", "nativo" })
+    public String variante;
+
+    private List<String> comando;
+
+    @Setup(Level.Trial)
+    public void escolherVariante() throws IOException {
+        // a mesma JVM que roda o benchmark
+        String java = ProcessHandle.current().info().command().orElse("java");
+        comando = switch (variante) {
+            case "jar" -> List.of(java, "-jar", jar().orElseThrow(() -> naoCompilada("mvn package")).toString());
+            case "aot-cds" -> {
+                Path arquivoCds = TARGET.resolve("cds").resolve("application.jsa");
+                Path jar = jarCds().filter(j -> Files.exists(arquivoCds))
+                        .orElseThrow(() -> naoCompilada("mvn -P aot-cds -DskipTests package"));
+                yield List.of(java, "-XX:SharedArchiveFile=" + arquivoCds, "-Dspring.aot.enabled=true",
+                        "-jar", jar.toString());
+            }
+            case "nativo" -> {
+                Path nativo = TARGET.resolve("api-links-uteis");
+                if (!Files.isExecutable(nativo)) {
+                    throw naoCompilada("mvn -P native -DskipTests native:compile");
+                }
+                yield List.of(nativo.toString());
+            }
+            default -> throw new IllegalArgumentException("Variante desconhecida: " + variante);
+        };
+    }
+
+    /**
+     * O processo iniciado na iteração e o contador auxiliar rssMb, lido e
+     * publicado no fim da iteração, fora do tempo medido (veja ValorMedio).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Processo {
+        public double rssMb;
+
+        private Process processo;
+        private String base;
+        private String variante;
+
+        @TearDown(Level.Iteration)
+        public void medirEEncerrar(BenchmarkParams benchmark, IterationParams iteracao) throws Exception {
+            if (processo == null) {
+                return;
+            }
+            try {
+                if (status(base + "/actuator/prometheus") != 200) {
+                    throw new IllegalStateException(variante + " sem /actuator/prometheus");
+                }
+                rssMb = rssKb(processo.pid()) / 1024.0 * ValorMedio.peso(benchmark, iteracao);
+            } finally {
+                processo.destroy();
+                if (!processo.waitFor(30, TimeUnit.SECONDS)) {
+                    processo.destroyForcibly();
+                }
+                processo = null;
+            }
+        }
+    }
+
+    // inicia um processo da variante e espera a primeira resposta
+    @Benchmark
+    public Process iniciar(Processo medida) throws Exception {
+        int porta = portaLivre();
+        List<String> argumentos = new ArrayList<>(comando);
+        argumentos.add("--server.port=" + porta);
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(argumentos)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        medida.processo = processo;
+        medida.base = "http://localhost:" + porta;
+        medida.variante = variante;
+        long limite = inicio + TimeUnit.SECONDS.toNanos(LIMITE_SEGUNDOS);
+        while (status(medida.base + "/api/links/1") != 200) {
+            if (!processo.isAlive() || System.nanoTime() > limite) {
+                throw new IllegalStateException(variante + " não respondeu (saída " +
+                        (processo.isAlive() ? "tempo esgotado" : processo.exitValue()) + ")");
+            }
+            Thread.sleep(5);
+        }
+        return processo;
+    }
+
+    private IllegalStateException naoCompilada(String comoCompilar) {
+        return new IllegalStateException("Variante " + variante + " não compilada em target/ (rode " + comoCompilar + ")");
+    }
+
+    // status HTTP da resposta, ou -1 enquanto o servidor não aceita conexões
+    private static int status(String uri) throws InterruptedException {
+        try {
+            return http.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // memória física ocupada pelo processo, em KB (0 fora do Linux)
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        try (Stream<String> linhas = Files.lines(status)) {
+            return linhas.filter(linha -> linha.startsWith("VmRSS:"))
+                    .map(linha -> linha.replaceAll("\\D", ""))
+                    .mapToLong(Long::parseLong)
+                    .findFirst().orElse(0);
+        }
+    }
+
+    // jar executável gerado pelo spring-boot-maven-plugin (não o .jar.original)
+    private static Optional<Path> jar() throws IOException {
+        return primeiroJar(TARGET, "api-links-uteis-.*\\.jar");
+    }
+
+    // jar extraído pelo profile aot-cds
+    private static Optional<Path> jarCds() throws IOException {
+        return primeiroJar(TARGET.resolve("cds"), ".*\\.jar");
+    }
+
+    private static Optional<Path> primeiroJar(Path pasta, String nome) throws IOException {
+        if (!Files.isDirectory(pasta)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().matches(nome)).findFirst();
+        }
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+import br.com.fatec.api_links_uteis.cache.LinkResponseCache;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics.Operacao;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics.Resposta;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Benchmark JMH das operações do LinkStore por trás dos endpoints do
+ * LinksController, incluindo a serialização JSON que o Spring faria na resposta.
+ *
+ * Cada método corresponde a um endpoint:
+ * - getLinks: findAll + lista inteira em JSON (cresce com o catálogo)
+ * - getLinkById: findById de um ID aleatório + JSON do link
+ * - getLinksEmCache / getLinkByIdEmCache: o mesmo pelo LinkResponseCache,
+ *   como o LinksController faz (bytes prontos enquanto nada muda)
+ * - getLinkByIdMedido / getLinkByIdAmostrado: getLinkByIdEmCache com as
+ *   métricas do LinkMetrics num registro Prometheus com histogramas, medindo
+ *   todas as requisições ou 1 em 100 (custo da instrumentação)
+ * - createLink: desserializa o corpo, create + JSON do link criado
+ * - patchLink: desserializa o corpo, patch de um ID aleatório + JSON
+ * - deleteLink: delete de um ID aleatório seguido de update com o mesmo link,
+ *   para o catálogo não esvaziar durante a medição (mede as duas escritas)
+ *
+ * createLink faz o catálogo crescer durante a medição; por isso cada fork
+ * começa de um LinkStore novo com "tamanhoCatalogo" links.
+ *
+ * Só é compilado com o profile benchmark (veja o pom.xml):
+ *
+ *   mvn -P benchmark -DskipTests verify
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkStoreJmhBenchmark.getLinkById -p tamanhoCatalogo=1000"
+ */
+@State(Scope.Benchmark) // um catálogo compartilhado por todas as threads do benchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkStoreJmhBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    public int tamanhoCatalogo;
+
+    private LinkStore store;
+    private ObjectMapper objectMapper;
+    private LinkResponseCache cache;
+    private LinkMetrics metricas;
+    private LinkMetrics metricasAmostradas;
+    private byte[] corpoCriacao;
+    private byte[] corpoPatch;
+
+    @Setup
+    public void preparar() throws JsonProcessingException {
+        store = new LinkStore();
+        for (int i = 1; i <= tamanhoCatalogo; i++) {
+            store.create("Link " + i, "https://exemplo.com/links/" + i);
+        }
+        objectMapper = new ObjectMapper();
+        // sem limite de links na listagem: o benchmark mede a listagem do cache em todos os tamanhos
+        cache = new LinkResponseCache(store, objectMapper, 256L << 20, Integer.MAX_VALUE);
+        cache.registrar();
+        PrometheusMeterRegistry registro = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // histogramas em todos os medidores, como o application.properties faz para links.*
+        registro.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        metricas = new LinkMetrics(store, 1);
+        metricas.bindTo(registro);
+        metricasAmostradas = new LinkMetrics(store, 100);
+        metricasAmostradas.bindTo(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        corpoCriacao = objectMapper.writeValueAsBytes(new LinkRequest("Novo link", "https://novo.com"));
+        corpoPatch = objectMapper.writeValueAsBytes(new LinkRequest("Título alterado", null));
+    }
+
+    @Benchmark
+    public byte[] getLinks() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(store.findAll());
+    }
+
+    @Benchmark
+    public byte[] getLinkById() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(store.findById(idAleatorio()));
+    }
+
+    @Benchmark
+    public byte[] getLinksEmCache() {
+        return cache.listagem(store.versao());
+    }
+
+    @Benchmark
+    public byte[] getLinkByIdEmCache() {
+        Link link = store.findById(idAleatorio());
+        return cache.link(link);
+    }
+
+    @Benchmark
+    public byte[] getLinkByIdMedido() {
+        return getLinkByIdComMetricas(metricas);
+    }
+
+    @Benchmark
+    public byte[] getLinkByIdAmostrado() {
+        return getLinkByIdComMetricas(metricasAmostradas);
+    }
+
+    @Benchmark
+    public byte[] createLink() throws Exception {
+        LinkRequest dados = objectMapper.readValue(corpoCriacao, LinkRequest.class);
+        return objectMapper.writeValueAsBytes(store.create(dados.titulo(), dados.url()));
+    }
+
+    @Benchmark
+    public byte[] patchLink() throws Exception {
+        LinkRequest dados = objectMapper.readValue(corpoPatch, LinkRequest.class);
+        return objectMapper.writeValueAsBytes(store.patch(idAleatorio(), dados.titulo(), dados.url()));
+    }
+
+    @Benchmark
+    public boolean deleteLink() {
+        int id = idAleatorio();
+        Link link = store.findById(id);
+        boolean removido = store.delete(id);
+        if (link != null) {
+            // devolve o link para o próximo sorteio deste ID não cair num catálogo vazio
+            store.update(id, link.titulo(), link.url());
+        }
+        return removido;
+    }
+
+    // o mesmo caminho do LinksController.getLinkById
+    private byte[] getLinkByIdComMetricas(LinkMetrics medidor) {
+        int id = idAleatorio();
+        Link link = medidor.medir(Operacao.FIND_BY_ID, () -> store.findById(id));
+        return medidor.registrarBytes(Resposta.LINK, cache.link(link));
+    }
+
+    // IDs do catálogo inicial (1..tamanhoCatalogo); ThreadLocalRandom não disputa entre threads
+    private int idAleatorio() {
+        return ThreadLocalRandom.current().nextInt(1, tamanhoCatalogo + 1);
+    }
+
+}
@@ -0,0 +1,384 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import br.com.fatec.api_links_uteis.ApiLinksUteisApplication;
+
+/**
+ * Benchmark JMH de carga comparando o Tomcat com threads da plataforma, o
+ * Tomcat com threads virtuais e o Netty com WebFlux (ReactiveLinksController):
+ * spring.threads.virtual.enabled=false e true, e
+ * spring.main.web-application-type=reactive.
+ *
+ * Antes da medição sobe a aplicação no modo do parâmetro "modo" e abre
+ * "conexoes" conexões HTTP/1.1 persistentes, cada uma num laço fechado: envia
+ * uma requisição, espera a resposta e envia a próxima. Cada conexão é uma
+ * thread virtual do cliente, então 10 mil conexões não custam 10 mil threads
+ * do sistema.
+ *
+ * A cada 10 requisições, uma é um PUT com "upload lento": o corpo chega em
+ * duas partes separadas por uma pausa ("pausaUpload", em ms), como um cliente
+ * numa rede ruim. No modo plataforma essa requisição ocupa uma das 200
+ * threads do Tomcat durante a pausa; no modo virtual só ocupa uma thread
+ * virtual; no modo reativo não ocupa thread nenhuma (o Netty lê o corpo quando
+ * os bytes chegam). As demais são GET /{id}.
+ *
+ * Cada thread do JMH é mais uma conexão com a mesma mistura, e o JMH mede a
+ * latência das requisições dela (SampleTime: p50, p99, p99.9...). Os
+ * contadores auxiliares mostram as respostas por segundo de todas as
+ * conexões, os erros por iteração e, no fim de cada iteração, a memória por
+ * conexão (heap usado depois de um GC, menos o heap antes de abrir as
+ * conexões, dividido pelas conexões) e as threads da plataforma vivas. O
+ * cliente está no mesmo processo e custa o mesmo nos três modos, então a
+ * diferença entre eles é do servidor. Cliente e servidor dividem a mesma
+ * máquina, então os números servem para comparar os modos entre si, não como
+ * capacidade absoluta.
+ *
+ * Só é compilado com o profile benchmark (veja o pom.xml):
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkThreadModeBenchmark -p conexoes=2000"
+ *
+ * Cliente e servidor no mesmo processo usam dois arquivos abertos por conexão.
+ * Para 10 mil conexões (ou se o limite de arquivos abertos, ulimit -n, for
+ * baixo), suba a aplicação num processo separado e passe a porta; só esse
+ * servidor é medido (o parâmetro "modo" fica só como rótulo, e a memória e as
+ * threads não são medidas, porque seriam só as do cliente):
+ *
+ *   java -jar target/api-links-uteis-*.jar --spring.threads.virtual.enabled=true \
+ *       --server.tomcat.max-keep-alive-requests=-1
+ *   mvn -P benchmark -DskipTests verify \
+ *       -Djmh.args="LinkThreadModeBenchmark -p modo=virtual -p conexoes=10000 -p porta=8080"
+ *
+ * (para o modo reativo: java -jar ... --spring.main.web-application-type=reactive)
+ *
+ * Para conferir se alguma thread virtual ficou presa à thread da plataforma
+ * (pinning), acrescente -jvmArgsAppend -Djdk.tracePinnedThreads=short ao jmh.args.
+ */
+@State(Scope.Benchmark) // um servidor e uma carga para todas as threads do JMH
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class LinkThreadModeBenchmark {
+    private static final int LINKS = 1_000; // IDs usados pelos GETs e PUTs
+    private static final int UPLOAD_LENTO_A_CADA = 10;
+
+    @Param({ "plataforma", "virtual", "reativo" })
+    public String modo;
+
+    @Param({ "10000" })
+    public int conexoes;
+
+    // pausa do upload lento, em ms
+    @Param({ "100" })
+    public int pausaUpload;
+
+    // 0: sobe a aplicação neste processo; outro valor: porta de uma aplicação já no ar
+    @Param({ "0" })
+    public int porta;
+
+    private ConfigurableApplicationContext app;
+    private int portaServidor;
+    private ExecutorService clientes;
+    private volatile boolean parar;
+    private final LongAdder respostas = new LongAdder();
+    private final LongAdder erros = new LongAdder();
+    private long inicioIteracao;
+    private long heapInicial; // 0 quando o servidor está em outro processo
+
+    @Setup(Level.Trial)
+    public void subir() throws IOException {
+        portaServidor = porta;
+        if (porta == 0) {
+            // argumentos de linha de comando, e não .properties(): esses são só valores
+            // padrão e perderiam para spring.threads.virtual.enabled do application.properties
+            app = new SpringApplicationBuilder(ApiLinksUteisApplication.class)
+                    .run("--server.port=0",
+                            argumentoDoModo(),
+                            "--server.tomcat.max-keep-alive-requests=-1", // não fecha as conexões do teste
+                            "--logging.level.root=warn");
+            portaServidor = Integer.parseInt(app.getEnvironment().getProperty("local.server.port"));
+        }
+        // cria os links que os GETs e PUTs vão usar
+        try (Conexao conexao = new Conexao(portaServidor)) {
+            for (int id = 1; id <= LINKS; id++) {
+                conexao.enviar("PUT", "/api/links/" + id, corpo(id), 0);
+            }
+        }
+        if (app != null) {
+            heapInicial = heapUsado();
+        }
+        clientes = Executors.newVirtualThreadPerTaskExecutor();
+        for (int c = 0; c < conexoes; c++) {
+            int cliente = c;
+            clientes.submit(() -> cliente(cliente));
+        }
+    }
+
+    private String argumentoDoModo() {
+        return switch (modo) {
+            case "virtual" -> "--spring.threads.virtual.enabled=true";
+            case "reativo" -> "--spring.main.web-application-type=reactive";
+            default -> "--spring.threads.virtual.enabled=false";
+        };
+    }
+
+    @Setup(Level.Iteration)
+    public void zerarContadores() {
+        respostas.reset();
+        erros.reset();
+        inicioIteracao = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void derrubar() {
+        parar = true;
+        clientes.close(); // espera cada conexão terminar a requisição em andamento
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    /**
+     * A conexão de uma thread do JMH e os contadores auxiliares da carga
+     * (respostas por segundo de todas as conexões, erros na iteração, heap por
+     * conexão e threads da plataforma), publicados no fim de cada iteração
+     * (veja ValorMedio).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sonda {
+        public double respostasPorSegundo;
+        public double erros;
+        public double heapPorConexaoKb;
+        public double threadsDaPlataforma;
+
+        private LinkThreadModeBenchmark carga;
+        private Conexao conexao;
+        private int requisicao;
+
+        @TearDown(Level.Iteration)
+        public void publicar(BenchmarkParams benchmark, IterationParams iteracao) {
+            if (carga == null) {
+                return;
+            }
+            double peso = ValorMedio.peso(benchmark, iteracao);
+            double segundos = (System.nanoTime() - carga.inicioIteracao) / 1e9;
+            respostasPorSegundo = carga.respostas.sum() / segundos * peso;
+            erros = carga.erros.sum() * peso;
+            if (carga.heapInicial > 0) {
+                heapPorConexaoKb = (heapUsado() - carga.heapInicial) / 1024.0 / carga.conexoes * peso;
+                threadsDaPlataforma = ManagementFactory.getThreadMXBean().getThreadCount() * peso; // threads virtuais não entram
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void fechar() {
+            fecharSilenciosamente(conexao);
+        }
+    }
+
+    @Benchmark
+    public void requisicao(Sonda sonda) {
+        sonda.carga = this;
+        try {
+            if (sonda.conexao == null) {
+                sonda.conexao = new Conexao(portaServidor);
+            }
+            enviar(sonda.conexao, sonda.requisicao++);
+            respostas.increment();
+        } catch (IOException e) {
+            // conta o erro e reconecta na próxima chamada, como as conexões da carga
+            erros.increment();
+            fecharSilenciosamente(sonda.conexao);
+            sonda.conexao = null;
+        }
+    }
+
+    // laço de uma conexão da carga, até o fim do benchmark
+    private void cliente(int cliente) {
+        Conexao conexao = null;
+        for (int i = cliente; !parar; i++) {
+            try {
+                if (conexao == null) {
+                    conexao = new Conexao(portaServidor);
+                }
+                enviar(conexao, i);
+                respostas.increment();
+            } catch (IOException e) {
+                erros.increment();
+                fecharSilenciosamente(conexao);
+                conexao = null;
+                esperar(100); // não reconecta em laço apertado se o servidor estiver recusando conexões
+            }
+        }
+        fecharSilenciosamente(conexao);
+    }
+
+    // a i-ésima requisição de uma conexão: um PUT com upload lento a cada 10, senão um GET
+    private void enviar(Conexao conexao, int i) throws IOException {
+        int id = 1 + Math.floorMod(i * 31, LINKS);
+        if (i % UPLOAD_LENTO_A_CADA == 0) {
+            conexao.enviar("PUT", "/api/links/" + id, corpo(id), pausaUpload);
+        } else {
+            conexao.enviar("GET", "/api/links/" + id, null, 0);
+        }
+    }
+
+    // heap ocupado depois de um GC completo (só objetos vivos)
+    private static long heapUsado() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static byte[] corpo(int id) {
+        return ("{\"titulo\":\"Link " + id + "\",\"url\":\"https://exemplo.com/" + id + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void esperar(int milissegundos) {
+        try {
+            Thread.sleep(milissegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void fecharSilenciosamente(Conexao conexao) {
+        if (conexao != null) {
+            try {
+                conexao.close();
+            } catch (IOException e) {
+                // a conexão já estava quebrada
+            }
+        }
+    }
+
+    // cliente HTTP/1.1 mínimo sobre um socket com keep-alive
+    private static final class Conexao implements AutoCloseable {
+        private final Socket socket;
+        private final OutputStream saida;
+        private final InputStream entrada;
+
+        Conexao(int porta) throws IOException {
+            socket = new Socket();
+            socket.connect(new InetSocketAddress("127.0.0.1", porta), 30_000);
+            socket.setSoTimeout(60_000);
+            socket.setTcpNoDelay(true); // sem Nagle: as partes do upload saem na hora, sem esperar ACK
+            saida = socket.getOutputStream();
+            entrada = new BufferedInputStream(socket.getInputStream());
+        }
+
+        // envia a requisição (com o corpo dividido em duas partes se houver pausa) e lê a resposta inteira
+        void enviar(String metodo, String caminho, byte[] corpo, int pausa) throws IOException {
+            StringBuilder cabecalho = new StringBuilder()
+                    .append(metodo).append(' ').append(caminho).append(" HTTP/1.1\r\nHost: localhost\r\n");
+            if (corpo != null) {
+                cabecalho.append("Content-Type: application/json\r\nContent-Length: ").append(corpo.length).append("\r\n");
+            }
+            saida.write(cabecalho.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+            if (corpo != null) {
+                int metade = pausa > 0 ? corpo.length / 2 : corpo.length;
+                saida.write(corpo, 0, metade);
+                saida.flush();
+                if (pausa > 0) {
+                    esperar(pausa);
+                }
+                saida.write(corpo, metade, corpo.length - metade);
+            }
+            saida.flush();
+            lerResposta();
+        }
+
+        private void lerResposta() throws IOException {
+            String status = lerLinha();
+            if (!status.startsWith("HTTP/1.1 2")) {
+                throw new IOException("Resposta inesperada: " + status);
+            }
+            long tamanho = -1;
+            boolean emPedacos = false;
+            for (String linha = lerLinha(); !linha.isEmpty(); linha = lerLinha()) {
+                String nome = linha.substring(0, linha.indexOf(':')).strip();
+                String valor = linha.substring(linha.indexOf(':') + 1).strip();
+                if (nome.equalsIgnoreCase("Content-Length")) {
+                    tamanho = Long.parseLong(valor);
+                } else if (nome.equalsIgnoreCase("Transfer-Encoding") && valor.equalsIgnoreCase("chunked")) {
+                    emPedacos = true;
+                }
+            }
+            if (!emPedacos) {
+                pular(Math.max(tamanho, 0));
+                return;
+            }
+            // resposta em pedaços (chunked): tamanho em hexadecimal, dados, CRLF; termina num pedaço 0
+            for (long pedaco = Long.parseLong(lerLinha().strip(), 16); pedaco > 0; pedaco = Long.parseLong(lerLinha().strip(), 16)) {
+                pular(pedaco + 2);
+            }
+            lerLinha();
+        }
+
+        private String lerLinha() throws IOException {
+            StringBuilder linha = new StringBuilder();
+            for (int b = entrada.read(); b != '\n'; b = entrada.read()) {
+                if (b < 0) {
+                    throw new IOException("Conexão fechada pelo servidor");
+                }
+                if (b != '\r') {
+                    linha.append((char) b);
+                }
+            }
+            return linha.toString();
+        }
+
+        private void pular(long bytes) throws IOException {
+            while (bytes > 0) {
+                long pulados = entrada.skip(bytes);
+                if (pulados <= 0) {
+                    if (entrada.read() < 0) {
+                        throw new IOException("Conexão fechada pelo servidor");
+                    }
+                    pulados = 1;
+                }
+                bytes -= pulados;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+    }
+
+}
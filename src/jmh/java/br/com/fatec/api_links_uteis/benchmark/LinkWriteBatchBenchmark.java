@@ -0,0 +1,188 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+import br.com.fatec.api_links_uteis.batch.LinkWriteBatcher;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.persistence.LinkPersistence;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark JMH de escritas simultâneas com e sem lotes (LinkWriteBatcher).
+ *
+ * "clientes" clientes repetem o mesmo laço de escritas (cada um alterna
+ * create() e patch() do link que acabou de criar, como um POST seguido de um
+ * PATCH), direto no LinkStore ou pela fila de lotes ("emLotes"). A
+ * persistência fica ligada com fsync, num diretório temporário, para cada
+ * escrita esperar o log como no servidor. Os clientes são threads virtuais,
+ * como as requisições com spring.threads.virtual.enabled=true, e as threads
+ * do JMH contam entre eles.
+ *
+ * O JMH mede a latência das escritas das suas threads (SampleTime: p50, p99,
+ * p99.9...). Os contadores auxiliares mostram as escritas por segundo de
+ * todos os clientes e o tamanho médio dos lotes na iteração. Não passa por
+ * HTTP.
+ *
+ * Só é compilado com o profile benchmark (veja o pom.xml):
+ *
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkWriteBatchBenchmark"
+ *   mvn -P benchmark -DskipTests verify -Djmh.args="LinkWriteBatchBenchmark -p clientes=64 -p esperaMicros=500"
+ */
+@State(Scope.Benchmark) // um LinkStore, um log e uma fila para todos os clientes
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkWriteBatchBenchmark {
+
+    @Param({ "1", "16", "64", "256" })
+    public int clientes;
+
+    @Param({ "false", "true" })
+    public boolean emLotes;
+
+    // espera do lote, em microssegundos
+    @Param({ "200" })
+    public long esperaMicros;
+
+    @Param({ "256" })
+    public int tamanhoMaximo;
+
+    private Path diretorio;
+    private LinkPersistence persistencia;
+    private LinkStore store;
+    private LinkWriteBatcher escritas;
+    private DistributionSummary lotes;
+    private ExecutorService carga;
+    private volatile boolean parar;
+    private final LongAdder escritasFeitas = new LongAdder();
+    private long inicioIteracao;
+    private long lotesNoInicio;
+    private double escritasEmLoteNoInicio;
+
+    @Setup(Level.Trial)
+    public void preparar(BenchmarkParams benchmark) throws IOException {
+        diretorio = Files.createTempDirectory("links-lotes-");
+        persistencia = new LinkPersistence(diretorio, 64 << 20, true, Long.MAX_VALUE);
+        store = new LinkStore();
+        persistencia.recuperar(store);
+        escritas = new LinkWriteBatcher(store, emLotes, tamanhoMaximo, esperaMicros, 30_000);
+        SimpleMeterRegistry registro = new SimpleMeterRegistry();
+        escritas.bindTo(registro);
+        lotes = registro.get("links.write.batch.size").summary();
+        carga = Executors.newVirtualThreadPerTaskExecutor();
+        // as threads do JMH também escrevem: a carga completa o total de clientes
+        for (int c = benchmark.getThreads(); c < clientes; c++) {
+            carga.submit(this::cliente);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void zerarContadores() {
+        escritasFeitas.reset();
+        lotesNoInicio = lotes.count();
+        escritasEmLoteNoInicio = lotes.totalAmount();
+        inicioIteracao = System.nanoTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        parar = true;
+        carga.close();
+        escritas.encerrar();
+        persistencia.fechar();
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+        }
+    }
+
+    /**
+     * Um cliente numa thread do JMH (o último link que ele criou) e os
+     * contadores auxiliares: escritas por segundo de todos os clientes e
+     * tamanho médio dos lotes, publicados no fim de cada iteração (veja ValorMedio).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cliente {
+        public double escritasPorSegundo;
+        public double loteMedio;
+
+        private LinkWriteBatchBenchmark benchmark;
+        private int escrita;
+        private int id;
+
+        @TearDown(Level.Iteration)
+        public void publicar(BenchmarkParams parametros, IterationParams iteracao) {
+            if (benchmark == null) {
+                return;
+            }
+            double peso = ValorMedio.peso(parametros, iteracao);
+            double segundos = (System.nanoTime() - benchmark.inicioIteracao) / 1e9;
+            escritasPorSegundo = benchmark.escritasFeitas.sum() / segundos * peso;
+            long quantosLotes = benchmark.lotes.count() - benchmark.lotesNoInicio;
+            double emLote = benchmark.lotes.totalAmount() - benchmark.escritasEmLoteNoInicio;
+            // sem lotes cada escrita é aplicada sozinha
+            loteMedio = (quantosLotes == 0 ? 1 : emLote / quantosLotes) * peso;
+        }
+    }
+
+    @Benchmark
+    public int escrever(Cliente cliente) {
+        cliente.benchmark = this;
+        cliente.id = escrever(cliente.escrita++, cliente.id);
+        return cliente.id;
+    }
+
+    // laço de um cliente da carga, até o fim do benchmark
+    private void cliente() {
+        int id = 0;
+        for (int i = 0; !parar; i++) {
+            id = escrever(i, id);
+        }
+    }
+
+    // a i-ésima escrita de um cliente: POST nas pares e PATCH do link criado nas ímpares; devolve o ID do link
+    private int escrever(int i, int id) {
+        String titulo = "Link " + i;
+        String url = "https://exemplo.com/" + i;
+        if (i % 2 == 0) {
+            Link criado = escritas.executar(() -> store.create(titulo, url));
+            id = criado.id();
+        } else {
+            int alterado = id;
+            escritas.executar(() -> store.patch(alterado, titulo, null));
+        }
+        escritasFeitas.increment();
+        return id;
+    }
+
+}
@@ -0,0 +1,30 @@
+package br.com.fatec.api_links_uteis.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Valores instantâneos (heap ocupado, threads vivas, tamanho médio do lote...)
+ * publicados como contadores auxiliares do JMH.
+ *
+ * O JMH soma os campos de um @AuxCounters(EVENTS) de todas as iterações de
+ * medição, de todos os forks e de todas as threads: isso serve para contagens,
+ * mas um valor instantâneo sairia multiplicado. Gravando valor * peso(...) no
+ * fim de cada iteração, a soma feita pelo JMH é a média das medições.
+ */
+final class ValorMedio {
+
+    private ValorMedio() {
+    }
+
+    // fração de cada iteração de medição na soma (1 no aquecimento, que não entra no resultado)
+    static double peso(BenchmarkParams benchmark, IterationParams iteracao) {
+        if (iteracao.getType() != IterationType.MEASUREMENT) {
+            return 1;
+        }
+        return 1.0 / ((double) Math.max(1, benchmark.getForks())
+                * benchmark.getMeasurement().getCount() * benchmark.getThreads());
+    }
+
+}
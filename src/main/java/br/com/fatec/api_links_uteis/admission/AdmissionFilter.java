@@ -0,0 +1,206 @@
+package br.com.fatec.api_links_uteis.admission;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.fatec.api_links_uteis.cluster.LinkCluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filtro HTTP de controle de admissão: decide, antes do LinksController, se
+ * a requisição é atendida ou recusada na hora.
+ *
+ * Vale para GET/POST /api/links e GET/PUT/PATCH/DELETE /api/links/{id}.
+ * Duas verificações, nesta ordem:
+ * - limite por cliente: cada cliente tem um TokenBucket
+ *   (links.admission.rate-per-second e links.admission.burst). Sem ficha, a
+ *   resposta é 429 (Too Many Requests) com Retry-After. O cliente é o valor
+ *   do cabeçalho links.admission.client-header (ex.: X-Api-Key, quando um
+ *   gateway confiável o preenche) ou, sem ele, o endereço IP
+ * - limite de requisições simultâneas do servidor: um ConcurrencyLimit que
+ *   se ajusta pela latência (links.admission.latency-target-millis). Acima
+ *   do limite, a resposta é 503 (Service Unavailable) com Retry-After: 1
+ *
+ * Recusar logo, sem fila, mantém a latência de quem foi aceito: um cliente
+ * que inunda a API gasta as próprias fichas e não ocupa as threads e as
+ * travas do LinkStore dos outros. As recusas não têm corpo, para custarem
+ * o mínimo possível.
+ *
+ * Os baldes ficam num cache do Caffeine limitado a links.admission.max-clients
+ * clientes; um balde sem uso pelo tempo de encher de novo é descartado (um
+ * balde novo é igual a ele). Num cluster, requisições repassadas por outro
+ * nó já gastaram a ficha no nó que as recebeu e só passam pelo limite de
+ * simultâneas. Quem diz se a requisição veio de outro nó é o
+ * LinkCluster.encaminhadoPorPar (segredo do cluster ou IP de um nó): sem
+ * cluster, ou vindo de um cliente qualquer, o cabeçalho X-Links-Encaminhado
+ * não livra ninguém do limite.
+ *
+ * Métricas no Micrometer:
+ * - links.admission.decisions (contador, tag decisao=aceita, limite_cliente ou sobrecarga)
+ * - links.admission.inflight (gauge): requisições em andamento
+ * - links.admission.limit (gauge): limite atual de simultâneas
+ * - links.admission.clients (gauge): clientes com balde
+ * - a fila de escritas aparece em links.write.batch.queue (LinkWriteBatcher)
+ *
+ * Só é criado quando links.admission.enabled=true, no modo servlet (Tomcat).
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+@ConditionalOnProperty(prefix = "links.admission", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // a admissão é um filtro do Servlet
+@Order(Ordered.HIGHEST_PRECEDENCE + 100) // antes do repasse do cluster e do controller
+public class AdmissionFilter extends OncePerRequestFilter implements MeterBinder {
+    // mesmos caminhos do LinksController; /stream, /export, /search e /bulk não passam por aqui
+    private static final Pattern CAMINHOS = Pattern.compile("/api/links(/-?\\d{1,10})?");
+
+    private enum Decisao {
+        ACEITA("aceita"), LIMITE_CLIENTE("limite_cliente"), SOBRECARGA("sobrecarga");
+
+        private final String tag;
+
+        Decisao(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final String cabecalhoCliente;
+    private final Cache<String, TokenBucket> baldes; // null: sem limite por cliente
+    private final Function<String, TokenBucket> novoBalde;
+    private final ConcurrencyLimit simultaneas;
+    private final LinkCluster cluster; // null: cluster desligado
+    // preenchido em bindTo; enquanto for null (ex.: testes sem registro) nada é contado
+    private volatile Counter[] decisoes;
+
+    // o Spring injeta as configurações de application.properties
+    public AdmissionFilter(
+            @Value("${links.admission.client-header:}") String cabecalhoCliente,
+            @Value("${links.admission.rate-per-second:50}") double taxa,
+            @Value("${links.admission.burst:100}") int capacidade,
+            @Value("${links.admission.max-clients:100000}") long maximoClientes,
+            @Value("${links.admission.initial-limit:64}") int limiteInicial,
+            @Value("${links.admission.min-limit:8}") int limiteMinimo,
+            @Value("${links.admission.max-limit:1000}") int limiteMaximo,
+            @Value("${links.admission.latency-target-millis:50}") long alvoMillis,
+            ObjectProvider<LinkCluster> cluster) { // o LinkCluster só existe com links.cluster.enabled=true
+        this.cluster = cluster.getIfAvailable();
+        this.cabecalhoCliente = cabecalhoCliente.isBlank() ? null : cabecalhoCliente;
+        this.simultaneas = new ConcurrencyLimit(limiteInicial, limiteMinimo, limiteMaximo, alvoMillis);
+        if (taxa > 0) {
+            this.novoBalde = cliente -> new TokenBucket(taxa, capacidade, System.nanoTime());
+            this.baldes = Caffeine.newBuilder()
+                    .maximumSize(maximoClientes)
+                    .expireAfterAccess(novoBalde.apply("").nanosParaEncher(), TimeUnit.NANOSECONDS)
+                    .executor(Runnable::run) // a manutenção roda na própria thread, sem tarefas no pool comum
+                    .build();
+        } else {
+            this.novoBalde = null;
+            this.baldes = null;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !CAMINHOS.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        // requisição vinda de outro nó do cluster: a ficha já foi gasta no nó que a recebeu
+        if (baldes != null && (cluster == null || !cluster.encaminhadoPorPar(request))) {
+            TokenBucket balde = baldes.get(cliente(request), novoBalde);
+            // o relógio é lido depois do get: um balde recém-criado começa cheio "agora",
+            // e com o "inicio" (anterior à criação) a primeira ficha pareceria emprestada
+            long falta = balde.tentarConsumir(System.nanoTime());
+            if (falta > 0) {
+                recusar(response, HttpStatus.TOO_MANY_REQUESTS, falta, Decisao.LIMITE_CLIENTE);
+                return;
+            }
+        }
+        if (!simultaneas.tentarEntrar()) {
+            recusar(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), Decisao.SOBRECARGA);
+            return;
+        }
+        contar(Decisao.ACEITA);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            simultaneas.sair(inicio, System.nanoTime());
+        }
+    }
+
+    // chamado pelo Spring Boot Actuator com o registro de métricas (Prometheus)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Counter[] contadores = new Counter[Decisao.values().length];
+        for (Decisao decisao : Decisao.values()) {
+            contadores[decisao.ordinal()] = Counter.builder("links.admission.decisions")
+                    .description("Requisições aceitas e recusadas pelo controle de admissão")
+                    .tag("decisao", decisao.tag)
+                    .register(registry);
+        }
+        Gauge.builder("links.admission.inflight", simultaneas, ConcurrencyLimit::emAndamento)
+                .description("Requisições em andamento no LinksController")
+                .register(registry);
+        Gauge.builder("links.admission.limit", simultaneas, ConcurrencyLimit::limite)
+                .description("Limite atual de requisições simultâneas")
+                .register(registry);
+        if (baldes != null) {
+            Gauge.builder("links.admission.clients", baldes, Cache::estimatedSize)
+                    .description("Clientes com balde de fichas")
+                    .register(registry);
+        }
+        decisoes = contadores;
+    }
+
+    private String cliente(HttpServletRequest request) {
+        if (cabecalhoCliente != null) {
+            String valor = request.getHeader(cabecalhoCliente);
+            if (valor != null && !valor.isBlank()) {
+                return valor;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void recusar(HttpServletResponse response, HttpStatus status, long esperaNanos, Decisao decisao) {
+        contar(decisao);
+        response.setStatus(status.value());
+        // segundos inteiros, arredondados para cima (no mínimo 1)
+        long segundos = Math.max(1, (esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+    }
+
+    private void contar(Decisao decisao) {
+        Counter[] contadores = decisoes;
+        if (contadores != null) {
+            contadores[decisao.ordinal()].increment();
+        }
+    }
+
+}
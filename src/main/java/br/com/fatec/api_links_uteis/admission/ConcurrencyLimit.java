@@ -0,0 +1,89 @@
+package br.com.fatec.api_links_uteis.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Limite adaptativo de requisições simultâneas (AIMD, como o controle de
+ * congestionamento do TCP).
+ *
+ * Uma requisição só entra se houver menos requisições em andamento do que
+ * o limite atual; senão é recusada na hora, sem fila. O limite se ajusta
+ * pela latência de quem terminou:
+ * - resposta dentro do alvo, com o limite em uso (pelo menos metade
+ *   ocupada): o limite sobe 1/limite, ou seja, cerca de +1 a cada "limite"
+ *   respostas (aumento aditivo)
+ * - resposta acima do alvo: o limite cai para 90% (redução multiplicativa)
+ *
+ * Quando o servidor fica lento, todas as requisições em andamento terminam
+ * acima do alvo ao mesmo tempo; reduzir uma vez para cada uma derrubaria o
+ * limite ao mínimo. Por isso só reduzem as requisições que entraram depois
+ * da última redução: no máximo uma redução por "rodada" de requisições.
+ *
+ * O limite fica entre "minimo" e "maximo". É guardado como os bits de um
+ * double num AtomicLong, e as requisições em andamento num AtomicInteger:
+ * entrar e sair não usam travas.
+ */
+public final class ConcurrencyLimit {
+    private static final double REDUCAO = 0.9;
+
+    private final int minimo;
+    private final int maximo;
+    private final long alvoNanos;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicLong limite;                         // bits do double
+    private final AtomicLong ultimaReducao = new AtomicLong(Long.MIN_VALUE); // System.nanoTime
+
+    public ConcurrencyLimit(int inicial, int minimo, int maximo, long alvoMillis) {
+        if (minimo < 1 || maximo < minimo) {
+            throw new IllegalArgumentException("Limites inválidos: mínimo " + minimo + ", máximo " + maximo);
+        }
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.alvoNanos = TimeUnit.MILLISECONDS.toNanos(alvoMillis);
+        this.limite = new AtomicLong(Double.doubleToRawLongBits(Math.max(minimo, Math.min(maximo, inicial))));
+    }
+
+    // Ocupa uma vaga se houver; false quando o limite já foi atingido
+    public boolean tentarEntrar() {
+        while (true) {
+            int atual = emAndamento.get();
+            if (atual >= limite()) {
+                return false;
+            }
+            if (emAndamento.compareAndSet(atual, atual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Libera a vaga de uma requisição que entrou em "inicio" e terminou em "fim" (System.nanoTime)
+    public void sair(long inicio, long fim) {
+        int ocupadas = emAndamento.getAndDecrement();
+        if (fim - inicio > alvoNanos) {
+            long ultima = ultimaReducao.get();
+            // entrou antes da última redução: a lentidão dela já foi levada em conta
+            if ((ultima == Long.MIN_VALUE || inicio - ultima > 0) && ultimaReducao.compareAndSet(ultima, fim)) {
+                ajustar(valor -> Math.max(minimo, valor * REDUCAO));
+            }
+        } else if (ocupadas * 2 >= limite()) {
+            ajustar(valor -> Math.min(maximo, valor + 1 / valor));
+        }
+    }
+
+    // Limite atual (arredondado para baixo)
+    public int limite() {
+        return (int) Double.longBitsToDouble(limite.get());
+    }
+
+    public int emAndamento() {
+        return emAndamento.get();
+    }
+
+    private void ajustar(DoubleUnaryOperator funcao) {
+        limite.updateAndGet(bits -> Double.doubleToRawLongBits(funcao.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+
+}
@@ -0,0 +1,68 @@
+package br.com.fatec.api_links_uteis.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de fichas (token bucket) sem travas, de um cliente.
+ *
+ * O balde guarda até "capacidade" fichas e ganha uma ficha a cada
+ * 1/taxa segundos; cada requisição gasta uma ficha. Um cliente pode mandar
+ * uma rajada de até "capacidade" requisições de uma vez e, depois disso,
+ * no máximo "taxa" requisições por segundo.
+ *
+ * Em vez de guardar a quantidade de fichas e o instante da última reposição
+ * (dois valores, que precisariam de uma trava), o balde guarda um único
+ * long: o instante em que ele estará cheio de novo. As fichas disponíveis
+ * são deduzidas dele:
+ *
+ *   fichas = capacidade - (cheioEm - agora) / intervalo
+ *
+ * Gastar uma ficha é empurrar cheioEm um intervalo para frente, com um
+ * compareAndSet. Threads que gastam fichas do mesmo balde ao mesmo tempo só
+ * repetem o CAS, nunca esperam umas pelas outras.
+ */
+public final class TokenBucket {
+
+    private final long intervaloNanos;  // tempo para repor uma ficha
+    private final long toleranciaNanos; // tempo para repor o balde inteiro
+    private final AtomicLong cheioEm;   // instante (System.nanoTime) em que o balde estará cheio
+
+    // taxa em fichas por segundo; o balde começa cheio no instante "agora"
+    public TokenBucket(double taxaPorSegundo, int capacidade, long agora) {
+        if (taxaPorSegundo <= 0 || capacidade < 1) {
+            throw new IllegalArgumentException("Taxa e capacidade precisam ser positivas");
+        }
+        this.intervaloNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / taxaPorSegundo));
+        this.toleranciaNanos = intervaloNanos * capacidade;
+        this.cheioEm = new AtomicLong(agora);
+    }
+
+    // Gasta uma ficha; devolve 0 se havia ficha, ou quantos nanos faltam para a próxima
+    public long tentarConsumir(long agora) {
+        while (true) {
+            long atual = cheioEm.get();
+            // um balde cheio há muito tempo não acumula fichas além da capacidade
+            long novo = Math.max(atual, agora) + intervaloNanos;
+            long falta = novo - agora - toleranciaNanos;
+            if (falta > 0) {
+                return falta;
+            }
+            if (cheioEm.compareAndSet(atual, novo)) {
+                return 0;
+            }
+        }
+    }
+
+    // Fichas disponíveis no instante "agora" (para testes e diagnóstico)
+    public long fichas(long agora) {
+        long divida = Math.max(0, cheioEm.get() - agora);
+        return (toleranciaNanos - divida) / intervaloNanos;
+    }
+
+    // Tempo para um balde vazio encher de novo; depois disso ele equivale a um balde novo
+    public long nanosParaEncher() {
+        return toleranciaNanos;
+    }
+
+}
@@ -0,0 +1,253 @@
+package br.com.fatec.api_links_uteis.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fila de escritas que junta as alterações simultâneas do catálogo em lotes.
+ *
+ * Sem lotes, cada POST/PUT/PATCH/DELETE disputa as travas do LinkStore com os
+ * outros e, com a persistência ligada, espera o seu próprio fsync do log. Com
+ * links.batch.enabled=true as escritas entram numa fila e uma única thread
+ * ("lote-escritas") as aplica em sequência:
+ * - o lote começa com a primeira escrita da fila e recebe as seguintes até
+ *   ter links.batch.max-size escritas ou até passar links.batch.linger-micros
+ *   desde a primeira (0: só as que já estão na fila)
+ * - as escritas do lote são aplicadas uma a uma, na ordem da fila, dentro de
+ *   LinkStore.emLote: o lote inteiro espera um único fsync
+ * - cada escrita tem o seu CompletableFuture, completado com o seu próprio
+ *   resultado (ou a sua exceção, ex.: VersaoDivergenteException) só depois
+ *   que o lote foi concluído
+ * - nenhum futuro fica sem resposta: qualquer falha da thread (inclusive um
+ *   Error) completa com erro os pedidos do lote e a thread segue para o
+ *   próximo; uma escrita enviada durante o encerramento é recusada
+ * - executar() espera no máximo links.batch.timeout-millis; depois disso
+ *   desiste com IllegalStateException (a escrita pode ou não ter sido aplicada)
+ *
+ * Com lotes desligados (padrão), executar() e enviar() rodam a escrita na
+ * própria thread de quem chamou, como antes.
+ *
+ * O tamanho dos lotes (links.write.batch.size) e as escritas esperando na
+ * fila (links.write.batch.queue) são publicados no Micrometer.
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+public class LinkWriteBatcher implements MeterBinder {
+
+    private final LinkStore linkStore;
+    private final boolean habilitado;
+    private final int tamanhoMaximo;
+    private final long esperaNanos;
+    private final long tempoLimiteNanos;
+    private final BlockingQueue<Pedido<?>> fila = new LinkedBlockingQueue<>();
+    private final Thread aplicador;
+    private volatile boolean encerrado;
+    private volatile DistributionSummary tamanhos; // preenchido em bindTo
+
+    // o Spring injeta o LinkStore e as configurações de application.properties
+    public LinkWriteBatcher(LinkStore linkStore,
+            @Value("${links.batch.enabled:false}") boolean habilitado,
+            @Value("${links.batch.max-size:256}") int tamanhoMaximo,
+            @Value("${links.batch.linger-micros:200}") long esperaMicros,
+            @Value("${links.batch.timeout-millis:30000}") long tempoLimiteMillis) {
+        this.linkStore = linkStore;
+        this.habilitado = habilitado;
+        this.tamanhoMaximo = Math.max(1, tamanhoMaximo);
+        this.esperaNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, esperaMicros));
+        this.tempoLimiteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tempoLimiteMillis));
+        this.aplicador = habilitado
+                ? Thread.ofPlatform().daemon().name("lote-escritas").start(this::processar)
+                : null;
+    }
+
+    // Envia uma escrita do LinkStore para o próximo lote; o futuro completa com o resultado dela
+    public <T> CompletableFuture<T> enviar(Supplier<T> escrita) {
+        if (!habilitado) {
+            try {
+                return CompletableFuture.completedFuture(escrita.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        if (encerrado) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Fila de escritas encerrada"));
+        }
+        Pedido<T> pedido = new Pedido<>(escrita);
+        fila.add(pedido);
+        // encerrar() pode ter esvaziado a fila entre a verificação acima e o add: confere de novo.
+        // Se o pedido ainda estiver na fila, ninguém mais vai respondê-lo; se não estiver, a thread
+        // ou o encerrar() já o retirou e vai completá-lo
+        if (encerrado && fila.remove(pedido)) {
+            pedido.futuro.completeExceptionally(new IllegalStateException("Fila de escritas encerrada"));
+        }
+        return pedido.futuro;
+    }
+
+    // Envia a escrita e espera o lote dela ser concluído; as exceções da escrita chegam sem embrulho
+    public <T> T executar(Supplier<T> escrita) {
+        if (!habilitado) {
+            return escrita.get();
+        }
+        CompletableFuture<T> futuro = enviar(escrita);
+        try {
+            return futuro.get(tempoLimiteNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // se a escrita ainda estiver na fila, ela não é mais aplicada
+            futuro.cancel(false);
+            throw new IllegalStateException("Escrita não concluída em "
+                    + TimeUnit.NANOSECONDS.toMillis(tempoLimiteNanos) + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando a escrita", e);
+        }
+    }
+
+    // chamado pelo Spring Boot Actuator com o registro de métricas (Prometheus)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        tamanhos = DistributionSummary.builder("links.write.batch.size")
+                .description("Escritas aplicadas em cada lote")
+                .register(registry);
+        Gauge.builder("links.write.batch.queue", fila, BlockingQueue::size)
+                .description("Escritas esperando na fila do próximo lote")
+                .register(registry);
+    }
+
+    // Encerramento da aplicação: para a thread e recusa as escritas que ficaram na fila
+    @PreDestroy
+    public void encerrar() {
+        encerrado = true;
+        if (aplicador != null) {
+            aplicador.interrupt();
+            try {
+                aplicador.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Pedido<?>> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        concluir(restantes, new IllegalStateException("Fila de escritas encerrada"));
+    }
+
+    // laço da thread "lote-escritas": monta um lote, aplica e repete
+    private void processar() {
+        List<Pedido<?>> lote = new ArrayList<>(tamanhoMaximo);
+        while (!encerrado) {
+            try {
+                juntar(lote);
+                if (!lote.isEmpty()) {
+                    aplicar(lote);
+                }
+            } catch (Throwable e) {
+                // ex.: OutOfMemoryError: os pedidos retirados da fila recebem o erro e a thread continua,
+                // senão quem chamou executar() ficaria esperando uma resposta que nunca vem
+                concluir(lote, e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    // retira da fila as escritas do próximo lote
+    private void juntar(List<Pedido<?>> lote) {
+        try {
+            lote.add(fila.take()); // espera a primeira escrita do lote
+            fila.drainTo(lote, tamanhoMaximo - lote.size());
+            long limite = System.nanoTime() + esperaNanos;
+            while (lote.size() < tamanhoMaximo) {
+                long restante = limite - System.nanoTime();
+                Pedido<?> pedido = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : null;
+                if (pedido == null) {
+                    break;
+                }
+                lote.add(pedido);
+                fila.drainTo(lote, tamanhoMaximo - lote.size());
+            }
+        } catch (InterruptedException e) {
+            // encerramento: as escritas já retiradas da fila ainda são aplicadas
+        }
+    }
+
+    private void aplicar(List<Pedido<?>> lote) {
+        Throwable falha = null;
+        try {
+            // cada escrita guarda o seu resultado ou a sua exceção; uma falha não interrompe o lote
+            linkStore.emLote(() -> lote.forEach(Pedido::executar));
+        } catch (Throwable e) {
+            falha = e; // falha ao concluir o lote (ex.: fsync interrompido): vale para todas as escritas
+        }
+        DistributionSummary resumo = tamanhos;
+        if (resumo != null) {
+            resumo.record(lote.size());
+        }
+        concluir(lote, falha);
+    }
+
+    private static void concluir(List<Pedido<?>> pedidos, Throwable falha) {
+        for (Pedido<?> pedido : pedidos) {
+            pedido.concluir(falha);
+        }
+    }
+
+    // uma escrita na fila, com o futuro de quem a enviou
+    private static final class Pedido<T> {
+        private final Supplier<T> escrita;
+        private final CompletableFuture<T> futuro = new CompletableFuture<>();
+        private T resultado;
+        private Throwable erro;
+
+        Pedido(Supplier<T> escrita) {
+            this.escrita = escrita;
+        }
+
+        void executar() {
+            if (futuro.isCancelled()) {
+                return; // quem enviou desistiu de esperar (executar() passou do tempo limite)
+            }
+            try {
+                resultado = escrita.get();
+            } catch (Throwable e) {
+                erro = e;
+            }
+        }
+
+        // completar um futuro já completado não faz nada: concluir pode ser chamado de novo
+        void concluir(Throwable falha) {
+            if (erro != null) {
+                futuro.completeExceptionally(erro);
+            } else if (falha != null) {
+                futuro.completeExceptionally(falha);
+            } else {
+                futuro.complete(resultado);
+            }
+        }
+    }
+
+}
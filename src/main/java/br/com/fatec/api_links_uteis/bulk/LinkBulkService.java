@@ -0,0 +1,113 @@
+package br.com.fatec.api_links_uteis.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import br.com.fatec.api_links_uteis.model.BulkImportResult;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Importação e exportação do catálogo em lote, em NDJSON ou CSV.
+ *
+ * Na importação o corpo é lido aos poucos pelo parser de streaming do Jackson
+ * (MappingIterator): só um lote de TAMANHO_LOTE links fica na memória por vez.
+ * Cada lote é criado com LinkStore.createAll, que reserva todos os IDs numa
+ * única operação atômica e espera um único fsync do log para o lote inteiro.
+ * Links com a URL de outro link seguem links.urls.duplicates: com reject
+ * ficam de fora (e não entram na contagem de importados), com upsert
+ * substituem o link existente.
+ *
+ * Na exportação os links são escritos direto na saída, percorrendo o LinkStore
+ * sem copiar o catálogo.
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+public class LinkBulkService {
+    private static final int TAMANHO_LOTE = 1000; // links criados por chamada a createAll
+
+    // esquemas CSV: a importação lê as colunas pelo cabeçalho (titulo, url; id e versao são ignorados)
+    private static final CsvSchema CSV_IMPORTACAO = CsvSchema.emptySchema().withHeader();
+    private static final CsvSchema CSV_EXPORTACAO = CsvSchema.builder()
+            .addColumn("id").addColumn("titulo").addColumn("url").addColumn("versao").build().withHeader();
+
+    private final LinkStore linkStore;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+
+    public LinkBulkService(LinkStore linkStore, ObjectMapper objectMapper) {
+        this.linkStore = linkStore;
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .build();
+    }
+
+    // Importa um link por linha, em JSON: {"titulo": "...", "url": "..."}
+    public BulkImportResult importarNdjson(InputStream entrada) throws IOException {
+        try (MappingIterator<LinkRequest> linhas = objectMapper.readerFor(LinkRequest.class).readValues(entrada)) {
+            return importar(linhas);
+        }
+    }
+
+    // Importa um CSV com cabeçalho contendo as colunas titulo e url
+    public BulkImportResult importarCsv(InputStream entrada) throws IOException {
+        try (MappingIterator<LinkRequest> linhas = csvMapper.readerFor(LinkRequest.class)
+                .with(CSV_IMPORTACAO).readValues(entrada)) {
+            return importar(linhas);
+        }
+    }
+
+    // Escreve todos os links, um JSON por linha
+    public void exportarNdjson(OutputStream saida) throws IOException {
+        try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+            gerador.setRootValueSeparator(null); // sem separador automático: a quebra de linha é escrita abaixo
+            for (Link link : linkStore.scan(0)) {
+                gerador.writeObject(link);
+                gerador.writeRaw('\n');
+            }
+        }
+    }
+
+    // Escreve todos os links em CSV, com cabeçalho id,titulo,url,versao
+    public void exportarCsv(OutputStream saida) throws IOException {
+        try (SequenceWriter escritor = csvMapper.writer(CSV_EXPORTACAO).writeValues(saida)) {
+            for (Link link : linkStore.scan(0)) {
+                escritor.write(link);
+            }
+        }
+    }
+
+    private BulkImportResult importar(MappingIterator<LinkRequest> linhas) throws IOException {
+        long inicio = System.nanoTime();
+        long importados = 0;
+        List<LinkRequest> lote = new ArrayList<>(TAMANHO_LOTE);
+        while (linhas.hasNextValue()) {
+            lote.add(linhas.nextValue());
+            if (lote.size() == TAMANHO_LOTE) {
+                importados += linkStore.createAll(lote).size();
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            importados += linkStore.createAll(lote).size();
+        }
+        return new BulkImportResult(importados, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+    }
+
+}
@@ -0,0 +1,168 @@
+package br.com.fatec.api_links_uteis.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.LinkChange;
+import br.com.fatec.api_links_uteis.store.LinkChangeListener;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache das respostas JSON já convertidas para bytes UTF-8.
+ *
+ * GET /api/links/{id} e GET /api/links são as leituras mais frequentes e
+ * quase sempre devolvem os mesmos links populares. Em vez de passar pelo
+ * Jackson a cada requisição, o JSON é gerado uma vez e os bytes são escritos
+ * direto na resposta.
+ *
+ * - links: chave (ID, versão do link)
+ * - listagem: chave versão do catálogo
+ *
+ * As duas ficam no mesmo cache, com um único limite de tamanho em bytes
+ * (links.cache.max-bytes): a listagem pesa o que o seu JSON ocupa e disputa o
+ * espaço com os links. O Caffeine escolhe o que despejar com W-TinyLFU: uma
+ * entrada nova só entra no lugar de outra se for pedida com mais frequência,
+ * então uma varredura de IDs raros não expulsa os links populares.
+ *
+ * Com mais de links.cache.listing-max-links links, a listagem não é guardada:
+ * os controllers a escrevem em streaming, direto do LinkStore (veja
+ * listagemCabeNoCache), sem montar a lista nem um byte[] do catálogo inteiro,
+ * que passaria do limite de um array (2 GB) num catálogo grande.
+ *
+ * Como a versão faz parte da chave, uma entrada antiga nunca é servida: depois
+ * de uma alteração a versão muda e a busca não a encontra. Mesmo assim, cada
+ * alteração remove na hora a entrada da versão anterior do link e a listagem
+ * (o cache é um LinkChangeListener), para não ocupar espaço até ser despejada.
+ *
+ * Acertos, falhas e despejos são publicados no Micrometer (cache_gets,
+ * cache_evictions...) com cache="links.respostas".
+ * O tempo de cada conversão para JSON vai para o timer links.json.encode
+ * (tag tipo=link ou listagem); como só as falhas do cache convertem, ele
+ * mede todas, sem amostragem.
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+public class LinkResponseCache implements LinkChangeListener, MeterBinder {
+    private static final int CUSTO_ENTRADA = 64; // bytes aproximados da chave e da entrada no mapa
+
+    private final LinkStore linkStore;
+    private final ObjectMapper objectMapper;
+    // JSON dos links (ChaveLink) e da listagem (ChaveListagem), no mesmo limite de bytes
+    private final Cache<Object, byte[]> respostas;
+    // versões do catálogo com a listagem no cache (quase sempre uma), removidas a cada alteração
+    private final Set<Long> versoesListadas = ConcurrentHashMap.newKeySet();
+    // acima disso a listagem não é guardada nem montada em memória
+    private final int maximoLinksListagem;
+    // preenchidos em bindTo; enquanto forem null (ex.: testes sem registro) nada é medido
+    private volatile Timer codificacaoLink;
+    private volatile Timer codificacaoListagem;
+
+    // o Spring injeta o LinkStore, o ObjectMapper e os limites configurados em application.properties
+    public LinkResponseCache(LinkStore linkStore, ObjectMapper objectMapper,
+            @Value("${links.cache.max-bytes:33554432}") long maximoBytes,
+            @Value("${links.cache.listing-max-links:100000}") int maximoLinksListagem) {
+        this.linkStore = linkStore;
+        this.objectMapper = objectMapper;
+        this.maximoLinksListagem = maximoLinksListagem;
+        this.respostas = Caffeine.newBuilder()
+                .maximumWeight(maximoBytes)
+                .weigher((Object chave, byte[] json) -> json.length + CUSTO_ENTRADA)
+                .executor(Runnable::run) // a manutenção roda na própria thread, sem tarefas no pool comum
+                .recordStats()
+                .build();
+    }
+
+    // chamado pelo Spring depois do construtor: o LinkStore só recebe o cache já construído
+    @PostConstruct
+    public void registrar() {
+        linkStore.addListener(this);
+    }
+
+    // JSON do link, do cache ou gerado agora
+    public byte[] link(Link link) {
+        return respostas.get(new ChaveLink(link.id(), link.versao()), chave -> json(link, codificacaoLink));
+    }
+
+    // Se a listagem completa pode ser guardada; senão ela deve ser escrita em streaming (LinkStore.scan)
+    public boolean listagemCabeNoCache() {
+        return linkStore.size() <= maximoLinksListagem;
+    }
+
+    // JSON da lista de todos os links na versão "versaoCatalogo" do catálogo
+    // (só para catálogos em que listagemCabeNoCache() é true)
+    public byte[] listagem(long versaoCatalogo) {
+        // a versão deve ser lida antes da lista (veja LinkStore.versao()),
+        // então a lista gerada aqui tem pelo menos as alterações dessa versão
+        return respostas.get(new ChaveListagem(versaoCatalogo), chave -> {
+            versoesListadas.add(versaoCatalogo);
+            return json(linkStore.findAll(), codificacaoListagem);
+        });
+    }
+
+    // JSON da listagem se ele já estiver no cache, ou null (não gera nada)
+    public byte[] listagemEmCache(long versaoCatalogo) {
+        return respostas.getIfPresent(new ChaveListagem(versaoCatalogo));
+    }
+
+    @Override
+    public void onChange(LinkChange alteracao) {
+        if (alteracao.anterior() != null) {
+            respostas.invalidate(new ChaveLink(alteracao.id(), alteracao.anterior().versao()));
+        }
+        for (Long versao : versoesListadas) {
+            versoesListadas.remove(versao);
+            respostas.invalidate(new ChaveListagem(versao));
+        }
+    }
+
+    // chamado pelo Spring Boot Actuator com o registro de métricas (Prometheus)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, respostas, "links.respostas");
+        codificacaoLink = timerCodificacao(registry, "link");
+        codificacaoListagem = timerCodificacao(registry, "listagem");
+    }
+
+    private static Timer timerCodificacao(MeterRegistry registry, String tipo) {
+        return Timer.builder("links.json.encode")
+                .description("Tempo de conversão das respostas para JSON")
+                .tag("tipo", tipo)
+                .register(registry);
+    }
+
+    private byte[] json(Object valor, Timer codificacao) {
+        long inicio = System.nanoTime();
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao converter para JSON", e);
+        } finally {
+            if (codificacao != null) {
+                codificacao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private record ChaveLink(int id, long versao) {
+    }
+
+    private record ChaveListagem(long versaoCatalogo) {
+    }
+
+}
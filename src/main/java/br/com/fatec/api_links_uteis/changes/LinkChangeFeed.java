@@ -0,0 +1,226 @@
+package br.com.fatec.api_links_uteis.changes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.fatec.api_links_uteis.model.LinkChangeEvent;
+import br.com.fatec.api_links_uteis.model.LinkChanges;
+import br.com.fatec.api_links_uteis.store.LinkChange;
+import br.com.fatec.api_links_uteis.store.LinkChangeListener;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Feed de alterações do catálogo, para consumidores (caches, réplicas,
+ * índices externos) sincronizarem só o que mudou em vez de baixar
+ * GET /api/links inteiro a cada consulta.
+ *
+ * Cada alteração do LinkStore vira um LinkChangeEvent com uma posição
+ * (seq) sequencial, sem buracos, guardado num buffer circular com as
+ * últimas links.changes.capacity alterações. O consumidor guarda a última
+ * seq que recebeu e pede as seguintes (ler, aguardar); o custo é
+ * proporcional às alterações, não ao tamanho do catálogo.
+ *
+ * - os eventos entram no feed em afterChange, depois de a alteração ser
+ *   aplicada (e, com a persistência ligada, depois do fsync do log): o feed
+ *   só mostra alterações que já estão no catálogo
+ * - afterChange roda sem a trava do ID, então duas alterações do mesmo link
+ *   podem chegar aqui invertidas. O feed guarda a versão publicada de cada
+ *   ID que está no buffer e descarta o evento atrasado: para um mesmo ID, as
+ *   versões no feed só crescem (um snapshot nunca é "desfeito" por um evento
+ *   antigo, ex.: ressuscitando um link removido)
+ * - o consumidor aplica cada evento só se a versão for maior que a que ele
+ *   já tem para aquele ID (veja LinkChangeEvent): eventos de depois do
+ *   snapshot podem já estar nele
+ * - quando o consumidor pede uma seq que já saiu do buffer, ou uma seq que
+ *   o feed não conhece (maior que a última), ler e aguardar devolvem null e
+ *   ele recomeça de um snapshot(): a seq atual e o catálogo inteiro
+ * - a seq começa na última versão do LinkStore quando o feed é criado (já
+ *   com os dados recuperados do log). Cada alteração consome pelo menos uma
+ *   versão, então com a persistência ligada as seqs de depois de reiniciar
+ *   nunca repetem as de antes
+ *
+ * Escrever no buffer e ler dele usam uma trava (ReentrantLock) por pouco
+ * tempo; quem espera por novidades (aguardar) fica numa Condition e é
+ * acordado a cada evento, sem consultas repetidas.
+ *
+ * Num cluster, cada nó tem o feed dos seus próprios links.
+ *
+ * Métricas: links.changes.seq (gauge), links.changes.subscribers (gauge,
+ * conexões SSE abertas) e links.changes.snapshots (contador).
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+public class LinkChangeFeed implements LinkChangeListener, MeterBinder {
+
+    private final LinkStore linkStore;
+    private final LinkChangeEvent[] anel;
+    private final int mascara;
+    private final long inicio; // seq antes do primeiro evento deste feed
+    private final ReentrantLock trava = new ReentrantLock();
+    private final Condition novidades = trava.newCondition();
+    // versão do último evento publicado de cada ID presente no buffer; só é usado com a trava segura
+    private final Map<Integer, Long> versoesPublicadas = new HashMap<>();
+    private volatile long ultima; // seq do último evento; só muda com a trava segura
+    private volatile boolean encerrado;
+    private final AtomicInteger assinantes = new AtomicInteger();
+    private volatile Counter snapshots; // preenchido em bindTo
+
+    // o Spring injeta o LinkStore e a capacidade configurada em application.properties
+    public LinkChangeFeed(LinkStore linkStore, @Value("${links.changes.capacity:65536}") int capacidade) {
+        this.linkStore = linkStore;
+        // potência de 2: a posição no buffer é seq & mascara
+        int tamanho = Integer.highestOneBit(Math.max(2, Math.min(capacidade, 1 << 30)) * 2 - 1);
+        this.anel = new LinkChangeEvent[tamanho];
+        this.mascara = tamanho - 1;
+        this.inicio = linkStore.ultimaVersao();
+        this.ultima = inicio;
+    }
+
+    // chamado pelo Spring depois do construtor: o LinkStore só avisa o feed já construído
+    @PostConstruct
+    public void registrar() {
+        linkStore.addListener(this);
+    }
+
+    @Override
+    public void onChange(LinkChange alteracao) {
+        // nada: o evento só entra no feed depois de aplicado (afterChange)
+    }
+
+    @Override
+    public void afterChange(LinkChange alteracao) {
+        trava.lock();
+        try {
+            Long publicada = versoesPublicadas.get(alteracao.id());
+            if (publicada != null && publicada >= alteracao.versao()) {
+                return; // uma alteração mais nova deste ID chegou antes: esta já foi superada
+            }
+            long seq = ultima + 1;
+            int posicao = (int) (seq & mascara);
+            LinkChangeEvent substituido = anel[posicao];
+            if (substituido != null) {
+                // o ID sai do mapa junto com o seu último evento (remove só se a versão for a dele)
+                versoesPublicadas.remove(substituido.id(), substituido.versao());
+            }
+            anel[posicao] = new LinkChangeEvent(seq, alteracao.tipo(), alteracao.id(),
+                    alteracao.versao(), alteracao.atual());
+            versoesPublicadas.put(alteracao.id(), alteracao.versao());
+            ultima = seq;
+            novidades.signalAll();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // seq do último evento publicado
+    public long ultimaSeq() {
+        return ultima;
+    }
+
+    // Até "limite" eventos depois de "depoisDe"; null se o consumidor precisa de um snapshot
+    public List<LinkChangeEvent> ler(long depoisDe, int limite) {
+        trava.lock();
+        try {
+            return copiar(depoisDe, limite);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Como ler, mas espera até "nanos" por um evento depois de "depoisDe" (lista vazia se nada chegou)
+    public List<LinkChangeEvent> aguardar(long depoisDe, int limite, long nanos) throws InterruptedException {
+        trava.lock();
+        try {
+            while (ultima == depoisDe && nanos > 0 && !encerrado) {
+                nanos = novidades.awaitNanos(nanos);
+            }
+            return copiar(depoisDe, limite);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // O catálogo inteiro e a seq a partir da qual o consumidor continua
+    public LinkChanges snapshot() {
+        // a seq é lida antes do catálogo: todos os eventos até ela já estão no catálogo lido,
+        // e os eventos seguintes que também já estão nele são ignorados pela versão
+        long seq = ultima;
+        LinkChanges resposta = new LinkChanges(seq, true, linkStore.findAll(), List.of());
+        Counter contador = snapshots;
+        if (contador != null) {
+            contador.increment();
+        }
+        return resposta;
+    }
+
+    public boolean encerrado() {
+        return encerrado;
+    }
+
+    // conexões SSE abertas (para a métrica links.changes.subscribers)
+    public void assinanteEntrou() {
+        assinantes.incrementAndGet();
+    }
+
+    public void assinanteSaiu() {
+        assinantes.decrementAndGet();
+    }
+
+    // chamado pelo Spring Boot Actuator com o registro de métricas (Prometheus)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("links.changes.seq", this, LinkChangeFeed::ultimaSeq)
+                .description("Posição do último evento do feed de alterações")
+                .register(registry);
+        Gauge.builder("links.changes.subscribers", assinantes, AtomicInteger::get)
+                .description("Conexões SSE abertas no feed de alterações")
+                .register(registry);
+        snapshots = Counter.builder("links.changes.snapshots")
+                .description("Snapshots entregues a consumidores que ficaram para trás")
+                .register(registry);
+    }
+
+    // Encerramento da aplicação: acorda quem está esperando, para as conexões SSE terminarem
+    @PreDestroy
+    public void encerrar() {
+        trava.lock();
+        try {
+            encerrado = true;
+            novidades.signalAll();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // chamado com a trava segura
+    private List<LinkChangeEvent> copiar(long depoisDe, int limite) {
+        long ultimaSeq = ultima;
+        // a mais antiga que ainda está no buffer
+        long primeira = Math.max(inicio + 1, ultimaSeq - anel.length + 1);
+        if (depoisDe > ultimaSeq || depoisDe < primeira - 1) {
+            return null;
+        }
+        long ate = Math.min(ultimaSeq, depoisDe + Math.max(1, limite));
+        List<LinkChangeEvent> eventos = new ArrayList<>((int) (ate - depoisDe));
+        for (long seq = depoisDe + 1; seq <= ate; seq++) {
+            eventos.add(anel[(int) (seq & mascara)]);
+        }
+        return eventos;
+    }
+
+}
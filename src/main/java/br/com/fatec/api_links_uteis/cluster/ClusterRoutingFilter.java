@@ -0,0 +1,148 @@
+package br.com.fatec.api_links_uteis.cluster;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.controller.LinksController;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filtro HTTP que leva cada requisição do cluster ao nó certo.
+ *
+ * Roda antes do LinksController:
+ * - /api/links/{id} de um ID que pertence a outro nó: repassa a requisição
+ *   (método, corpo, Content-Type, Accept, If-Match, If-None-Match) ao dono e
+ *   devolve a resposta dele (status, Content-Type, ETag e corpo)
+ * - GET /api/links e GET /api/links?after=&limit=: junta a listagem deste nó
+ *   com a dos outros nós (veja LinkCluster)
+ * - o resto (POST, GET /api/links?url=, /stream, /export, /search,
+ *   /import...) segue para o controller e vale só para os links deste nó
+ *
+ * Se o outro nó não responder, a resposta é 502 (Bad Gateway).
+ *
+ * Só as requisições repassadas por outro nó (LinkCluster.encaminhadoPorPar)
+ * são atendidas direto; o cabeçalho X-Links-Encaminhado enviado por um
+ * cliente de fora do cluster não muda nada.
+ *
+ * Só é criado quando links.cluster.enabled=true, no modo servlet (Tomcat).
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+@ConditionalOnProperty(prefix = "links.cluster", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // o repasse é um filtro do Servlet
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(ClusterRoutingFilter.class);
+    // até 9 dígitos: sempre cabe num int; IDs maiores seguem para o controller (400)
+    private static final Pattern LINK_POR_ID = Pattern.compile("/api/links/(\\d{1,9})");
+    // cabeçalhos da requisição que o dono precisa receber
+    private static final String[] CABECALHOS_REPASSADOS = {
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH };
+
+    private final LinkCluster cluster;
+    private final LinkStore linkStore;
+    private final ObjectMapper objectMapper;
+
+    public ClusterRoutingFilter(LinkCluster cluster, LinkStore linkStore, ObjectMapper objectMapper) {
+        this.cluster = cluster;
+        this.linkStore = linkStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // requisição vinda de outro nó: atende aqui, sem repassar de novo; de um
+        // cliente de fora, o cabeçalho é ignorado e a requisição é roteada normalmente
+        if (cluster.encaminhadoPorPar(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String caminho = request.getRequestURI();
+        Matcher linkPorId = LINK_POR_ID.matcher(caminho);
+        try {
+            if (linkPorId.matches()) {
+                int id = Integer.parseInt(linkPorId.group(1));
+                if (!cluster.local(id)) {
+                    encaminhar(cluster.dono(id), request, response);
+                    return;
+                }
+            } else if (caminho.equals("/api/links") && request.getMethod().equals("GET")
+                    && request.getParameter("url") == null && listar(request, response)) {
+                return;
+            }
+        } catch (IOException e) {
+            // o detalhe (endereço do nó, causa da falha) fica no log; o cliente recebe uma mensagem fixa
+            log.warn("Falha ao consultar outro nó do cluster em {} {}: {}", request.getMethod(), caminho, e.getMessage());
+            response.sendError(HttpStatus.BAD_GATEWAY.value(), "Nó do cluster indisponível");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void encaminhar(String dono, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Map<String, String> cabecalhos = new LinkedHashMap<>();
+        for (String nome : CABECALHOS_REPASSADOS) {
+            String valor = request.getHeader(nome);
+            if (valor != null) {
+                cabecalhos.put(nome, valor);
+            }
+        }
+        String caminho = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        byte[] corpo = request.getInputStream().readAllBytes();
+
+        HttpResponse<byte[]> resposta = cluster.encaminhar(dono, request.getMethod(), caminho, cabecalhos, corpo);
+
+        response.setStatus(resposta.statusCode());
+        resposta.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+        resposta.headers().firstValue(HttpHeaders.ETAG).ifPresent(etag -> response.setHeader(HttpHeaders.ETAG, etag));
+        if (resposta.body().length > 0) {
+            response.setContentLength(resposta.body().length);
+            response.getOutputStream().write(resposta.body());
+        }
+    }
+
+    // Responde a listagem do cluster; false se os parâmetros forem inválidos (o controller responde 400)
+    private boolean listar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Object resultado;
+        try {
+            String limit = request.getParameter("limit");
+            if (limit == null) {
+                resultado = cluster.listarTodos(linkStore.findAll());
+            } else {
+                String after = request.getParameter("after");
+                int depoisDe = after == null ? 0 : Integer.parseInt(after);
+                // mesmo limite do LinksController.getLinksPage
+                int limite = Math.max(1, Math.min(Integer.parseInt(limit), LinksController.LIMITE_MAXIMO_PAGINA));
+                resultado = cluster.listarPagina(linkStore.findPage(depoisDe, limite), depoisDe, limite);
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), resultado);
+        return true;
+    }
+
+}
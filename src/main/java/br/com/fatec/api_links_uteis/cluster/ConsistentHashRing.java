@@ -0,0 +1,64 @@
+package br.com.fatec.api_links_uteis.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anel de hash consistente: decide qual nó é dono de cada ID.
+ *
+ * Cada nó ocupa vários pontos do anel (nós virtuais), espalhados pelo hash do
+ * seu nome. O dono de um ID é o primeiro ponto do anel a partir do hash do ID.
+ * Com nós virtuais suficientes, cada nó fica com uma fatia parecida dos IDs;
+ * e quando um nó entra ou sai, só os IDs das fatias dele mudam de dono
+ * (cerca de 1/N do total), em vez de quase todos como em "id % N".
+ *
+ * É imutável: uma mudança de topologia cria outro anel.
+ *
+ * @param <T> tipo que identifica um nó (ex.: a URL base da instância)
+ */
+public final class ConsistentHashRing<T> {
+    private final TreeMap<Integer, T> anel = new TreeMap<>();
+
+    public ConsistentHashRing(List<T> nos, int nosVirtuais) {
+        if (nos.isEmpty()) {
+            throw new IllegalArgumentException("O anel precisa de pelo menos um nó");
+        }
+        for (T no : nos) {
+            for (int i = 0; i < nosVirtuais; i++) {
+                // em caso de colisão, o primeiro nó continua com o ponto
+                anel.putIfAbsent(hash(no + "#" + i), no);
+            }
+        }
+    }
+
+    // Nó dono do ID
+    public T dono(int id) {
+        Map.Entry<Integer, T> ponto = anel.ceilingEntry(misturar(id));
+        // depois do último ponto o anel dá a volta para o primeiro
+        return ponto != null ? ponto.getValue() : anel.firstEntry().getValue();
+    }
+
+    // FNV-1a de 32 bits dos bytes UTF-8, seguido da mistura final
+    private static int hash(String texto) {
+        int hash = 0x811C9DC5;
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x01000193;
+        }
+        return misturar(hash);
+    }
+
+    // mistura final do MurmurHash3: IDs consecutivos caem em pontos distantes do anel
+    private static int misturar(int valor) {
+        int h = valor;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+}
@@ -0,0 +1,254 @@
+package br.com.fatec.api_links_uteis.cluster;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkPage;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Catálogo de links dividido entre várias instâncias da aplicação.
+ *
+ * Cada instância (nó) guarda só os links cujo ID o ConsistentHashRing atribui
+ * a ela. Todos os nós recebem a mesma lista em links.cluster.nodes, então
+ * todos calculam o mesmo dono para cada ID sem trocar mensagens.
+ *
+ * - uma requisição de um link (GET/PUT/PATCH/DELETE /api/links/{id}) que chega
+ *   ao nó errado é repassada ao dono por HTTP (veja ClusterRoutingFilter)
+ * - POST /api/links cria o link no próprio nó que recebeu, com um ID que
+ *   pertence a ele (o LinkStore só entrega esses IDs)
+ * - a listagem (GET /api/links) consulta todos os nós em paralelo e junta os
+ *   resultados em ordem de ID
+ *
+ * A requisição repassada leva o cabeçalho X-Links-Encaminhado: o nó que a
+ * recebe atende localmente, sem repassar de novo, mesmo se os dois nós
+ * discordarem da topologia. Qualquer cliente pode enviar esse cabeçalho, então
+ * ele só vale quando vem de outro nó (veja encaminhadoPorPar): com
+ * links.cluster.secret, o valor do cabeçalho é esse segredo, igual em todos os
+ * nós; sem ele, o endereço IP de quem enviou precisa ser o de um dos outros
+ * nós de links.cluster.nodes.
+ *
+ * Só é criado quando links.cluster.enabled=true, no modo servlet (Tomcat).
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+@ConditionalOnProperty(prefix = "links.cluster", name = "enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // o repasse é um filtro do Servlet
+public class LinkCluster {
+    public static final String CABECALHO_ENCAMINHADO = "X-Links-Encaminhado";
+    private static final Duration TEMPO_LIMITE = Duration.ofSeconds(10);
+    // os nomes dos nós (ex.: app-2 no Docker) podem mudar de IP: os endereços são resolvidos de novo depois disso
+    private static final long VALIDADE_ENDERECOS = TimeUnit.SECONDS.toNanos(30);
+    private static final Logger log = LoggerFactory.getLogger(LinkCluster.class);
+
+    // IPs dos outros nós e até quando valem
+    private record EnderecosDosPares(Set<String> ips, long validoAte) { }
+
+    private final String self;
+    private final List<String> pares;
+    private final byte[] segredo; // null: sem segredo, vale o endereço IP
+    private final String valorEncaminhado; // valor do cabeçalho X-Links-Encaminhado enviado aos outros nós
+    private volatile EnderecosDosPares enderecosDosPares; // null até a primeira consulta
+    private final ConsistentHashRing<String> anel;
+    private final ObjectMapper objectMapper;
+    // cliente HTTP do JDK: mantém as conexões com os outros nós abertas entre as requisições
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    // o Spring injeta a lista de nós, o endereço deste nó, o segredo do cluster e o ObjectMapper
+    public LinkCluster(@Value("${links.cluster.nodes}") List<String> nos,
+            @Value("${links.cluster.self}") String self,
+            @Value("${links.cluster.virtual-nodes:128}") int nosVirtuais,
+            @Value("${links.cluster.secret:}") String segredo,
+            ObjectMapper objectMapper) {
+        List<String> enderecos = nos.stream().map(LinkCluster::normalizar).distinct().toList();
+        this.self = normalizar(self);
+        if (!enderecos.contains(this.self)) {
+            throw new IllegalArgumentException(
+                    "links.cluster.self (" + self + ") precisa estar em links.cluster.nodes " + enderecos);
+        }
+        this.pares = enderecos.stream().filter(no -> !no.equals(this.self)).toList();
+        this.anel = new ConsistentHashRing<>(enderecos, nosVirtuais);
+        this.segredo = segredo.isBlank() ? null : segredo.getBytes(StandardCharsets.UTF_8);
+        this.valorEncaminhado = segredo.isBlank() ? this.self : segredo;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A requisição foi repassada por outro nó do cluster?
+     *
+     * Precisa ter o cabeçalho X-Links-Encaminhado e, além disso:
+     * - com links.cluster.secret: o valor do cabeçalho igual ao segredo
+     *   (comparação em tempo constante, com MessageDigest.isEqual)
+     * - sem segredo: o endereço IP de quem enviou igual ao de um dos outros nós
+     *
+     * Fora disso o cabeçalho é ignorado e a requisição é tratada como a de
+     * qualquer cliente (roteamento e limite por cliente normais).
+     */
+    public boolean encaminhadoPorPar(HttpServletRequest request) {
+        String valor = request.getHeader(CABECALHO_ENCAMINHADO);
+        if (valor == null) {
+            return false;
+        }
+        if (segredo != null) {
+            return MessageDigest.isEqual(segredo, valor.getBytes(StandardCharsets.UTF_8));
+        }
+        return enderecosDosPares().contains(request.getRemoteAddr());
+    }
+
+    // O link com este ID pertence a este nó?
+    public boolean local(int id) {
+        return anel.dono(id).equals(self);
+    }
+
+    // Endereço do nó dono do ID
+    public String dono(int id) {
+        return anel.dono(id);
+    }
+
+    // Repassa uma requisição para outro nó e devolve a resposta dele
+    public HttpResponse<byte[]> encaminhar(String no, String metodo, String caminho,
+            Map<String, String> cabecalhos, byte[] corpo) throws IOException {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(no + caminho))
+                .timeout(TEMPO_LIMITE)
+                .header(CABECALHO_ENCAMINHADO, valorEncaminhado)
+                .method(metodo, corpo.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(corpo));
+        cabecalhos.forEach(requisicao::header);
+        try {
+            return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido ao consultar " + no, e);
+        }
+    }
+
+    // Todos os links do cluster em ordem de ID: os locais mais os de cada outro nó
+    public List<Link> listarTodos(List<Link> locais) throws IOException {
+        List<Link> todos = new ArrayList<>(locais);
+        for (byte[] resposta : consultarPares("/api/links")) {
+            todos.addAll(objectMapper.readValue(resposta, new TypeReference<List<Link>>() { }));
+        }
+        // cada parte já vem em ordem; a ordenação do Java (TimSort) detecta essas
+        // sequências e só as intercala, sem reordenar tudo do zero
+        todos.sort(Comparator.comparingInt(Link::id));
+        return todos;
+    }
+
+    // Uma página do cluster: os "limite" menores IDs depois de "depoisDe" entre todos os nós
+    public LinkPage listarPagina(LinkPage local, int depoisDe, int limite) throws IOException {
+        List<Link> candidatos = new ArrayList<>(local.links());
+        boolean restam = local.proximo() != null;
+        for (byte[] resposta : consultarPares("/api/links?after=" + depoisDe + "&limit=" + limite)) {
+            LinkPage pagina = objectMapper.readValue(resposta, LinkPage.class);
+            candidatos.addAll(pagina.links());
+            restam |= pagina.proximo() != null;
+        }
+        candidatos.sort(Comparator.comparingInt(Link::id));
+        if (candidatos.size() <= limite) {
+            // algum nó ainda tem links depois da sua página: a próxima página começa aqui
+            Integer proximo = restam && !candidatos.isEmpty() ? candidatos.get(candidatos.size() - 1).id() : null;
+            return new LinkPage(candidatos, proximo);
+        }
+        List<Link> pagina = new ArrayList<>(candidatos.subList(0, limite));
+        return new LinkPage(pagina, pagina.get(limite - 1).id());
+    }
+
+    // Faz o mesmo GET em todos os outros nós ao mesmo tempo e devolve os corpos das respostas
+    private List<byte[]> consultarPares(String caminho) throws IOException {
+        List<CompletableFuture<HttpResponse<byte[]>>> respostas = new ArrayList<>(pares.size());
+        for (String par : pares) {
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(par + caminho))
+                    .timeout(TEMPO_LIMITE)
+                    .header(CABECALHO_ENCAMINHADO, valorEncaminhado)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            respostas.add(http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        List<byte[]> corpos = new ArrayList<>(pares.size());
+        for (int i = 0; i < pares.size(); i++) {
+            HttpResponse<byte[]> resposta = aguardar(respostas.get(i), pares.get(i));
+            if (resposta.statusCode() != 200) {
+                throw new IOException("O nó " + pares.get(i) + " respondeu " + resposta.statusCode());
+            }
+            corpos.add(resposta.body());
+        }
+        return corpos;
+    }
+
+    private static HttpResponse<byte[]> aguardar(CompletableFuture<HttpResponse<byte[]>> resposta, String no)
+            throws IOException {
+        try {
+            return resposta.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido ao consultar " + no, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao consultar " + no, e.getCause());
+        }
+    }
+
+    // IPs dos outros nós, resolvidos de novo a cada VALIDADE_ENDERECOS
+    private Set<String> enderecosDosPares() {
+        EnderecosDosPares atuais = enderecosDosPares;
+        long agora = System.nanoTime();
+        if (atuais != null && agora - atuais.validoAte() < 0) {
+            return atuais.ips();
+        }
+        // duas threads podem resolver ao mesmo tempo; o resultado é o mesmo
+        Set<String> ips = new HashSet<>();
+        for (String par : pares) {
+            String host = URI.create(par).getHost();
+            try {
+                for (InetAddress endereco : InetAddress.getAllByName(host)) {
+                    ips.add(endereco.getHostAddress());
+                }
+            } catch (UnknownHostException e) {
+                // o nó ainda não subiu (ex.: no Docker, o nome só existe com o contêiner no ar)
+                log.debug("Endereço do nó {} não encontrado: {}", par, e.getMessage());
+            }
+        }
+        enderecosDosPares = new EnderecosDosPares(Set.copyOf(ips), agora + VALIDADE_ENDERECOS);
+        return ips;
+    }
+
+    // "http://no-1:8080/" e "http://no-1:8080" são o mesmo nó
+    private static String normalizar(String endereco) {
+        String limpo = endereco.strip();
+        return limpo.endsWith("/") ? limpo.substring(0, limpo.length() - 1) : limpo;
+    }
+
+}
@@ -0,0 +1,116 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.fatec.api_links_uteis.changes.LinkChangeFeed;
+import br.com.fatec.api_links_uteis.model.LinkChangeEvent;
+import br.com.fatec.api_links_uteis.model.LinkChanges;
+
+/**
+ * Controller REST do feed de alterações (veja LinkChangeFeed).
+ *
+ * Endpoints disponíveis:
+ * - GET /api/links/changes?since={seq}&limit={n} - Eventos depois de "since"
+ *   (JSON). O consumidor repete a consulta com since = seq da resposta
+ * - GET /api/links/changes/stream?since={seq} - Os mesmos eventos em
+ *   Server-Sent Events (text/event-stream), enviados assim que acontecem
+ *
+ * Nos dois, um consumidor que ficou para trás (ou que pede a primeira vez,
+ * com since=0 depois de o buffer ter dado a volta) recebe um snapshot com o
+ * catálogo inteiro e continua a partir da seq dele.
+ *
+ * No SSE cada evento tem "id: {seq}", "event: change" (ou "event: snapshot")
+ * e o JSON em "data:". O EventSource do navegador reenvia o último id no
+ * cabeçalho Last-Event-ID ao reconectar, e o stream continua dali. Sem
+ * eventos, um comentário é enviado a cada 15 segundos para manter a conexão
+ * aberta e perceber quando o cliente foi embora. Cada conexão é atendida por
+ * uma thread virtual, que fica parada enquanto não há eventos.
+ *
+ * Usa o SseEmitter do Spring MVC, então só existe no modo servlet (Tomcat).
+ */
+@RestController // anotação que indica que esta classe é um controlador REST
+@RequestMapping("/api/links") // mesmo caminho base do LinksController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LinkChangesController {
+    private static final int LIMITE_MAXIMO = 10_000; // maior quantidade de eventos por resposta
+    private static final int LOTE_SSE = 256;         // eventos lidos do feed de cada vez no SSE
+    private static final long BATIMENTO_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final LinkChangeFeed feed;
+
+    // o Spring injeta o feed de alterações automaticamente (injeção de dependência pelo construtor)
+    public LinkChangesController(LinkChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    // GET - Alterações depois de "since"
+    // "changes" é um caminho fixo, então tem prioridade sobre GET /api/links/{id}
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public LinkChanges changes(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limit) {
+        List<LinkChangeEvent> eventos = feed.ler(since, Math.max(1, Math.min(limit, LIMITE_MAXIMO)));
+        if (eventos == null) {
+            return feed.snapshot();
+        }
+        long seq = eventos.isEmpty() ? since : eventos.get(eventos.size() - 1).seq();
+        return new LinkChanges(seq, false, List.of(), eventos);
+    }
+
+    // GET - Alterações em Server-Sent Events, a partir de "since" ou do cabeçalho Last-Event-ID
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        SseEmitter emitter = new SseEmitter(0L); // 0: a conexão não expira
+        long desde = ultimoEvento != null ? ultimoEvento : since;
+        Thread transmissor = Thread.ofVirtual().name("feed-sse").unstarted(() -> transmitir(emitter, desde));
+        // cliente desconectado ou erro na resposta: acorda a thread, que encerra
+        emitter.onCompletion(transmissor::interrupt);
+        emitter.onError(erro -> transmissor.interrupt());
+        transmissor.start();
+        return emitter;
+    }
+
+    // laço da thread de uma conexão SSE: espera eventos do feed e os envia
+    private void transmitir(SseEmitter emitter, long desde) {
+        feed.assinanteEntrou();
+        try {
+            long seq = desde;
+            while (!feed.encerrado()) {
+                List<LinkChangeEvent> eventos = feed.aguardar(seq, LOTE_SSE, BATIMENTO_NANOS);
+                if (eventos == null) {
+                    LinkChanges snapshot = feed.snapshot();
+                    emitter.send(SseEmitter.event().id(String.valueOf(snapshot.seq())).name("snapshot")
+                            .data(snapshot, MediaType.APPLICATION_JSON));
+                    seq = snapshot.seq();
+                } else if (eventos.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("batimento"));
+                } else {
+                    for (LinkChangeEvent evento : eventos) {
+                        emitter.send(SseEmitter.event().id(String.valueOf(evento.seq())).name("change")
+                                .data(evento, MediaType.APPLICATION_JSON));
+                    }
+                    seq = eventos.get(eventos.size() - 1).seq();
+                }
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // o cliente desconectou (ou a conexão já foi encerrada): nada mais a enviar
+        } catch (InterruptedException e) {
+            // conexão encerrada enquanto esperava eventos
+        } finally {
+            feed.assinanteSaiu();
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.search.LinkSearchIndex;
+
+/**
+ * Controller REST para a busca de links.
+ *
+ * A busca usa o LinkSearchIndex (índice invertido dos títulos e índice de
+ * hosts das URLs) em vez de percorrer todos os links do catálogo.
+ *
+ * Endpoint disponível:
+ * - GET /api/links/search?q={texto}&limit={n} - Busca por termos do título ou prefixo da URL
+ */
+@RestController // anotação que indica que esta classe é um controlador REST
+@RequestMapping("/api/links") // mesmo caminho base do LinksController
+public class LinkSearchController {
+    private static final int LIMITE_MAXIMO = 100; // maior quantidade de resultados por busca
+
+    private final LinkSearchIndex linkSearchIndex;
+
+    // o Spring injeta o índice de busca automaticamente (injeção de dependência pelo construtor)
+    public LinkSearchController(LinkSearchIndex linkSearchIndex) {
+        this.linkSearchIndex = linkSearchIndex;
+    }
+
+    // GET - Buscar links
+    // "search" é um caminho fixo, então tem prioridade sobre GET /api/links/{id}
+    @GetMapping("/search")
+    public List<Link> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        // limita a quantidade de resultados para a resposta continuar pequena
+        return linkSearchIndex.search(q, Math.max(1, Math.min(limit, LIMITE_MAXIMO)));
+    }
+
+}
@@ -0,0 +1,85 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JacksonException;
+
+import br.com.fatec.api_links_uteis.bulk.LinkBulkService;
+import br.com.fatec.api_links_uteis.model.BulkImportResult;
+
+/**
+ * Controller REST para importar e exportar o catálogo de links em lote.
+ *
+ * Substitui milhões de POST /api/links (um por link) por uma única requisição
+ * com o corpo em NDJSON ou CSV, lido e gravado aos poucos.
+ *
+ * Endpoints disponíveis:
+ * - POST /api/links/bulk - Importa links (Content-Type application/x-ndjson ou text/csv)
+ * - GET /api/links/export?format=ndjson|csv - Exporta o catálogo inteiro
+ *
+ * Lê e escreve direto nos streams do Servlet, então só existe no modo servlet (Tomcat).
+ */
+@RestController // anotação que indica que esta classe é um controlador REST
+@RequestMapping("/api/links") // mesmo caminho base do LinksController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LinksBulkController {
+    private static final String TEXT_CSV = "text/csv";
+
+    private final LinkBulkService linkBulkService;
+
+    // o Spring injeta o serviço de importação/exportação automaticamente
+    public LinksBulkController(LinkBulkService linkBulkService) {
+        this.linkBulkService = linkBulkService;
+    }
+
+    // POST - Importar links em NDJSON (um JSON por linha)
+    // consumes faz este método atender só requisições com esse Content-Type
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    // InputStream recebe o corpo da requisição sem carregá-lo inteiro na memória
+    public BulkImportResult importNdjson(InputStream corpo) throws IOException {
+        try {
+            return linkBulkService.importarNdjson(corpo);
+        } catch (JacksonException e) {
+            // os lotes anteriores ao erro já foram importados
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "NDJSON inválido: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    // POST - Importar links em CSV (com cabeçalho titulo,url)
+    @PostMapping(value = "/bulk", consumes = TEXT_CSV)
+    public BulkImportResult importCsv(InputStream corpo) throws IOException {
+        try {
+            return linkBulkService.importarCsv(corpo);
+        } catch (JacksonException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV inválido: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    // GET - Exportar todos os links em NDJSON (padrão) ou CSV
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        if (format.equalsIgnoreCase("csv")) {
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType(TEXT_CSV))
+                    .body(linkBulkService::exportarCsv);
+        }
+        if (format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                    .body(linkBulkService::exportarNdjson);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Formato desconhecido: " + format);
+    }
+
+}
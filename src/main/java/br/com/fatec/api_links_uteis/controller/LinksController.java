@@ -1,10 +1,16 @@
 package br.com.fatec.api_links_uteis.controller;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Predicate;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -12,118 +18,282 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.batch.LinkWriteBatcher;
+import br.com.fatec.api_links_uteis.cache.LinkResponseCache;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics.Operacao;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics.Resposta;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkPage;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.UrlDuplicadaException;
+import br.com.fatec.api_links_uteis.store.VersaoDivergenteException;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Controller REST para gerenciar links úteis da FATEC.
  *
- * Esta classe demonstra operações CRUD básicas usando uma HashMap
- * como armazenamento em memória para fins educacionais.
+ * Esta classe demonstra operações CRUD básicas. Os dados ficam no
+ * LinkStore, um armazenamento em memória seguro para acesso concorrente,
+ * e cada link é representado pelo record Link.
  *
  * Endpoints disponíveis:
  * - GET /api/links - Lista todos os links
+ * - GET /api/links?after={id}&limit={n} - Lista uma página de links (paginação por cursor)
+ * - GET /api/links?url={url} - Busca os links com a URL informada (sem paginação:
+ *   junto com ?limit= a resposta é 400)
+ * - GET /api/links/stream - Transmite todos os links em NDJSON (um JSON por linha)
  * - GET /api/links/{id} - Busca link por ID
  * - POST /api/links - Cria novo link
  * - PUT /api/links/{id} - Atualiza link completo
  * - PATCH /api/links/{id} - Atualiza parcialmente um link
  * - DELETE /api/links/{id} - Remove um link
+ *
+ * Cache e concorrência com ETags:
+ * - GET /api/links e GET /api/links/{id} respondem com o cabeçalho ETag
+ *   (versão do catálogo ou versão do link). Se o cliente reenviar o valor em
+ *   If-None-Match e nada tiver mudado, a resposta é 304 sem corpo, e nada é
+ *   convertido para JSON
+ * - PUT e PATCH aceitam If-Match com a versão lida antes: se o link mudou
+ *   nesse meio tempo, a resposta é 412 e a alteração não é aplicada
+ *
+ * URLs repetidas: o LinkStore compara as URLs normalizadas (host em
+ * minúsculas, sem "/" no fim) num índice próprio. Com
+ * links.urls.duplicates=reject, um POST, PUT ou PATCH com a URL de outro link
+ * responde 409; com upsert, o POST substitui o link que já tem a URL.
+ * Num cluster, o índice de URLs é de cada nó: ?url= só encontra os links do
+ * nó que recebeu a requisição, e dois nós podem ter links com a mesma URL.
+ *
+ * As respostas de GET /api/links e GET /api/links/{id} saem do
+ * LinkResponseCache: o JSON já convertido em bytes é escrito direto no corpo.
+ *
+ * Cada operação do LinkStore e o tamanho das respostas são medidos pelo
+ * LinkMetrics (links.store, links.response.bytes), com amostragem opcional.
+ *
+ * As escritas (POST, PUT, PATCH, DELETE) passam pelo LinkWriteBatcher: com
+ * links.batch.enabled=true, as escritas simultâneas são aplicadas em lotes.
+ *
+ * Num cluster (links.cluster.enabled=true), o ClusterRoutingFilter repassa ao
+ * nó dono as requisições de links de outros nós e junta as listagens de
+ * todos; este controller só enxerga os links do próprio nó.
+ *
+ * Com spring.main.web-application-type=reactive a aplicação sobe no Netty e
+ * quem atende estes endpoints é o ReactiveLinksController.
  */
 @RestController // anotação que indica que esta classe é um controlador REST
 @RequestMapping("/api/links") // anotação que define o caminho base para os endpoints deste controlador
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET) // só no Tomcat (no Netty: ReactiveLinksController)
 public class LinksController {
-    private static final String TITULO_GLOBAL = "titulo"; // Título usado nos testes
-
-    // "Banco de dados" simulado
-    // map é uma estrutura de dados que armazena pares chave-valor
-    // aqui usamos Integer como chave (ID do link) e Map<String, String> como valor (dados do link) que seriam título e URL
-    // hashmap é uma implementação concreta de map que usa uma tabela hash para armazenar os dados
-    private final Map<Integer, Map<String, String>> linksDB = new HashMap<>();
-    private int nextId = 1; 
+    public static final int LIMITE_MAXIMO_PAGINA = 1000; // maior página aceita em ?limit=
+    // "Banco de dados" em memória
+    // o LinkStore guarda os links num mapa concorrente e gera os IDs de forma atômica,
+    // então várias requisições simultâneas não perdem escritas nem repetem IDs
+    private final LinkStore linkStore;
+    // conversor JSON do Spring, usado para escrever a listagem em streaming
+    private final ObjectMapper objectMapper;
+    // respostas JSON prontas (bytes) dos links e da listagem completa
+    private final LinkResponseCache cache;
+    // timers e resumos do Micrometer (tempo no LinkStore, tamanho das respostas)
+    private final LinkMetrics metricas;
+    // fila que junta as escritas simultâneas em lotes (ou as executa direto, se desligada)
+    private final LinkWriteBatcher escritas;
 
     // Construtor da classe. É executado quando o Spring inicializa o Controller.
-    public LinksController() {
+    // o Spring injeta as dependências automaticamente (injeção de dependência pelo construtor)
+    // links.seed.enabled=false desliga os dados iniciais (ex.: nos demais nós de um cluster)
+    public LinksController(LinkStore linkStore, ObjectMapper objectMapper, LinkResponseCache cache,
+            LinkMetrics metricas, LinkWriteBatcher escritas, @Value("${links.seed.enabled:true}") boolean dadosIniciais) {
+        this.linkStore = linkStore;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.metricas = metricas;
+        this.escritas = escritas;
         // Dados iniciais
-        linksDB.put(1, Map.of("id", "1", TITULO_GLOBAL, "GitHub", "url", "https://github.com"));
-        linksDB.put(2, Map.of("id", "2", TITULO_GLOBAL, "Stack Overflow", "url", "https://stackoverflow.com"));
-        nextId = 3;
+        if (dadosIniciais && linkStore.size() == 0) {
+            linkStore.create("GitHub", "https://github.com");
+            linkStore.create("Stack Overflow", "https://stackoverflow.com");
+        }
     }
 
     // GET - Listar todos os links
-    @GetMapping
-    // cada elemento da lista é um mapa que representa um link com seus atributos de id, título e url
-    public List<Map<String, String>> getLinks() {
-        // cria e devolve uma nova lista contendo todos os valores (links) do mapa linksDB
-        return new ArrayList<>(linksDB.values());
+    // produces define o Content-Type: o corpo já é JSON em bytes e vai para a resposta sem conversão
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    // cada elemento da lista é um Link com seus atributos de id, título, url e versão
+    // WebRequest dá acesso aos cabeçalhos da requisição e da resposta
+    // HttpServletResponse dá acesso direto ao corpo, para escrever a listagem grande em streaming
+    public byte[] getLinks(WebRequest request, HttpServletResponse response) throws IOException {
+        // a versão é lida antes da lista: se um link mudar no meio, a próxima
+        // requisição recebe uma versão diferente e baixa a lista de novo
+        long versao = linkStore.versao();
+        // checkNotModified compara com If-None-Match, responde 304 se for igual e grava o ETag
+        if (request.checkNotModified(String.valueOf(versao))) {
+            return null; // 304: nada é convertido para JSON
+        }
+        if (!cache.listagemCabeNoCache()) {
+            // catálogo grande: o mesmo array JSON, escrito link a link sem passar pela memória
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+                gerador.writeStartArray();
+                for (Link link : linkStore.scan(0)) {
+                    gerador.writeObject(link);
+                }
+                gerador.writeEndArray();
+            }
+            return null; // o corpo já foi escrito
+        }
+        // todos os links em ordem de ID, do cache enquanto o catálogo não mudar
+        // (numa falha do cache, o tempo inclui o findAll e a conversão para JSON)
+        byte[] corpo = metricas.medir(Operacao.FIND_ALL, () -> cache.listagem(versao));
+        return metricas.registrarBytes(Resposta.LISTAGEM, corpo);
+    }
+
+    // GET - Listar uma página de links (paginação por cursor)
+    // params = "limit" faz este método atender só quando ?limit= estiver presente
+    @GetMapping(params = "limit")
+    // @requestparam lê os parâmetros da query string; after é o último ID já recebido pelo cliente
+    public LinkPage getLinksPage(@RequestParam(defaultValue = "0") int after, @RequestParam int limit) {
+        // limita o tamanho da página para uma requisição não carregar o catálogo inteiro
+        int limite = Math.max(1, Math.min(limit, LIMITE_MAXIMO_PAGINA));
+        return metricas.medir(Operacao.FIND_PAGE, () -> linkStore.findPage(after, limite));
+    }
+
+    // GET - Buscar links pela URL
+    // params = "url" faz este método atender só quando ?url= estiver presente
+    // a busca usa o índice de URLs do LinkStore, sem percorrer o catálogo; a lista
+    // tem no máximo um link, a não ser com links.urls.duplicates=allow
+    @GetMapping(params = "url")
+    public List<Link> getLinksByUrl(@RequestParam String url) {
+        return metricas.medir(Operacao.FIND_BY_URL, () -> linkStore.findByUrl(url));
+    }
+
+    // GET - ?url= junto com ?limit=: a busca por URL não é paginada
+    // com os dois parâmetros, params = {"url", "limit"} é mais específico que os dois métodos
+    // acima, então o Spring escolhe este em vez de recusar o pedido como ambíguo (500)
+    @GetMapping(params = { "url", "limit" })
+    public List<Link> getLinksByUrlComLimit() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A busca por url não aceita limit");
+    }
+
+    // GET - Transmitir todos os links em NDJSON
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    // StreamingResponseBody escreve a resposta aos poucos, direto no corpo HTTP,
+    // sem montar uma lista com o catálogo inteiro na memória
+    // o ResponseEntity define o Content-Type, que não é preenchido automaticamente para StreamingResponseBody
+    public ResponseEntity<StreamingResponseBody> streamLinks() {
+        StreamingResponseBody corpo = saida -> {
+            try (JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+                gerador.setRootValueSeparator(null); // sem separador automático: a quebra de linha é escrita abaixo
+                for (Link link : linkStore.scan(0)) {
+                    gerador.writeObject(link);
+                    gerador.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
     }
 
     // GET - Buscar link por ID
-    @GetMapping("/{id}") 
-    // o link é representado como um mapa de strings, onde as chaves são os nomes dos atributos (id, título, url)
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    // o corpo é o JSON do record Link (id, título, url e versão), já em bytes
     // @pathvariable indica que o valor do parâmetro id virá da URL da requisição
-    public Map<String, String> getLinkById(@PathVariable int id) {
-        // retorna o link correspondente ao ID fornecido, ou null se não existir
-        return linksDB.get(id);
+    public byte[] getLinkById(@PathVariable int id, WebRequest request) {
+        // retorna o JSON do link correspondente ao ID fornecido, ou null se não existir
+        Link link = metricas.medir(Operacao.FIND_BY_ID, () -> linkStore.findById(id));
+        // o ETag do link é a sua versão; 304 se o cliente já tem essa versão
+        if (link == null || request.checkNotModified(String.valueOf(link.versao()))) {
+            return null;
+        }
+        return metricas.registrarBytes(Resposta.LINK, cache.link(link));
     }
 
     // POST - Criar novo link
     @PostMapping
-    // Map<String, String> é o que sera retornado, nesse caso um mapa representando o novo link criado
+    // Link é o que sera retornado, nesse caso o novo link criado
     // @requestbody indica que os dados do novo link virão do corpo da requisição HTTP
-    public Map<String, String> createLink(@RequestBody Map<String, String> data) {
-        // cria um novo mapa para o link 
-        Map<String, String> novoLink = new HashMap<>();
+    // o Jackson converte o JSON do corpo para um LinkRequest (título e url)
+    public Link createLink(@RequestBody LinkRequest data) {
         // pegando os atributos do link a partir do corpo da requisição
-        novoLink.put("id", String.valueOf(nextId));
-        novoLink.put(TITULO_GLOBAL, data.get(TITULO_GLOBAL));
-        novoLink.put("url", data.get("url"));
-
-        // adiciona o novo link ao "banco de dados"
-        linksDB.put(nextId, novoLink);
-        nextId++;
-
-        return novoLink;
+        // o LinkStore gera o próximo ID e adiciona o novo link ao "banco de dados"
+        // (o tempo medido inclui a espera pelo lote, quando os lotes estão ligados)
+        try {
+            return metricas.medir(Operacao.CREATE, () -> escritas.executar(() -> linkStore.create(data.titulo(), data.url())));
+        } catch (UrlDuplicadaException e) {
+            // outro link já tem a URL (links.urls.duplicates=reject)
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
     }
 
     // PUT - Atualizar link completo
     @PutMapping("/{id}")
-    public Map<String, String> updateLink(@PathVariable int id, @RequestBody Map<String, String> data) {
-        // cria um novo mapa para o link atualizado
-        Map<String, String> linkAtualizado = new HashMap<>();
-        // atualiza todos os atributos do link com os novos valores fornecidos no corpo da requisição
-        linkAtualizado.put("id", String.valueOf(id));
-        linkAtualizado.put(TITULO_GLOBAL, data.get(TITULO_GLOBAL));
-        linkAtualizado.put("url", data.get("url"));
-
-        // substitui o link existente no "banco de dados" pelo link atualizado
-        linksDB.put(id, linkAtualizado);
-        return linkAtualizado;
+    // @requestheader lê o cabeçalho If-Match (opcional): a versão que o cliente espera alterar
+    public Link updateLink(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody LinkRequest data) {
+        try {
+            // substitui o link existente no "banco de dados" pelo link atualizado
+            // (a versão é conferida com a trava do link segura, então duas edições não se sobrescrevem)
+            return metricas.medir(Operacao.UPDATE,
+                    () -> escritas.executar(() -> linkStore.update(id, data.titulo(), data.url(), condicao(ifMatch))));
+        } catch (VersaoDivergenteException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (UrlDuplicadaException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
     }
 
     // PATCH - Atualizar parcialmente
     @PatchMapping("/{id}")
-    public Map<String, String> patchLink(@PathVariable int id, @RequestBody Map<String, String> data) {
-        // obtém o link existente 
-        Map<String, String> linkExistente = linksDB.get(id);
-        // se o link existir, atualiza apenas os campos fornecidos no corpo da requisição
-        if (linkExistente != null) {
-            Map<String, String> linkAtualizado = new HashMap<>(linkExistente);
-            if (data.get(TITULO_GLOBAL) != null) linkAtualizado.put(TITULO_GLOBAL, data.get(TITULO_GLOBAL));
-            if (data.get("url") != null) linkAtualizado.put("url", data.get("url"));
-
-            // salva o link atualizado no "banco de dados"
-            linksDB.put(id, linkAtualizado);
-            return linkAtualizado;
+    public Link patchLink(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody LinkRequest data) {
+        try {
+            // atualiza apenas os campos fornecidos no corpo da requisição (de forma atômica);
+            // se o link não existir, retorna null
+            return metricas.medir(Operacao.PATCH,
+                    () -> escritas.executar(() -> linkStore.patch(id, data.titulo(), data.url(), condicao(ifMatch))));
+        } catch (VersaoDivergenteException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (UrlDuplicadaException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
-        return null;
     }
 
     // DELETE - Remover link
     @DeleteMapping("/{id}")
     public String deleteLink(@PathVariable int id) {
         // remove o link do "banco de dados"
-        linksDB.remove(id);
+        metricas.medir(Operacao.DELETE, () -> escritas.executar(() -> linkStore.delete(id)));
         return "Link " + id + " removido";
     }
 
+    // converte o If-Match em uma condição sobre o link atual:
+    // sem cabeçalho, qualquer estado serve; "*" exige que o link exista;
+    // senão a versão do link precisa ser uma das listadas ("3" ou "3", "4")
+    // (também usado pelo ReactiveLinksController)
+    static Predicate<Link> condicao(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return link -> true;
+        }
+        if (ifMatch.strip().equals("*")) {
+            return link -> link != null;
+        }
+        List<String> versoes = Arrays.stream(ifMatch.split(","))
+                .map(etag -> etag.strip().replace("\"", ""))
+                .toList();
+        return link -> link != null && versoes.contains(String.valueOf(link.versao()));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.batch.LinkWriteBatcher;
+import br.com.fatec.api_links_uteis.cache.LinkResponseCache;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkPage;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.UrlDuplicadaException;
+import br.com.fatec.api_links_uteis.store.VersaoDivergenteException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Versão reativa (WebFlux) do LinksController, com os mesmos endpoints.
+ *
+ * Só é criado com spring.main.web-application-type=reactive: a aplicação sobe
+ * no Netty em vez do Tomcat e as requisições rodam em poucas threads de event
+ * loop (uma por núcleo), sem uma thread por requisição. Nenhum método pode
+ * bloquear essas threads:
+ * - leituras (GET) consultam o LinkStore em memória, que nunca espera por
+ *   escritas, e rodam direto no event loop. A exceção é GET /api/links com o
+ *   JSON da listagem fora do cache: percorrer e converter o catálogo inteiro
+ *   leva tempo proporcional ao tamanho dele, então roda no boundedElastic.
+ *   Acima de links.cache.listing-max-links a listagem não é guardada: o array
+ *   JSON sai em blocos, sob demanda, como em GET /api/links/stream
+ * - escritas (POST, PUT, PATCH, DELETE) podem esperar o fsync do log de
+ *   persistência, então rodam no pool boundedElastic do Reactor, passando
+ *   pelo LinkWriteBatcher como no LinksController
+ *
+ * Mono é uma resposta de 0 ou 1 valor; Flux é uma sequência de valores.
+ *
+ * GET /api/links/stream devolve um Flux que percorre o catálogo sob demanda:
+ * o Netty só pede o próximo link quando o anterior foi escrito na conexão
+ * (contrapressão), então um cliente lento não faz o servidor acumular o
+ * catálogo inteiro na memória.
+ *
+ * Usa o mesmo LinkStore e o mesmo LinkResponseCache do LinksController, com
+ * os mesmos ETags (304), If-Match (412) e URLs repetidas (409).
+ */
+@RestController // anotação que indica que esta classe é um controlador REST
+@RequestMapping("/api/links") // anotação que define o caminho base para os endpoints deste controlador
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE) // só no modo reativo (Netty)
+public class ReactiveLinksController {
+    private static final int LINKS_POR_PEDIDO = 256; // links pedidos ao LinkStore de cada vez no streaming
+    private static final byte[] ABRE_LISTA = "[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FECHA_LISTA = "]".getBytes(StandardCharsets.UTF_8);
+
+    private final LinkStore linkStore;
+    private final ObjectMapper objectMapper;
+    private final LinkResponseCache cache;
+    private final LinkWriteBatcher escritas;
+
+    public ReactiveLinksController(LinkStore linkStore, ObjectMapper objectMapper, LinkResponseCache cache,
+            LinkWriteBatcher escritas, @Value("${links.seed.enabled:true}") boolean dadosIniciais) {
+        this.linkStore = linkStore;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.escritas = escritas;
+        // Dados iniciais
+        if (dadosIniciais && linkStore.size() == 0) {
+            linkStore.create("GitHub", "https://github.com");
+            linkStore.create("Stack Overflow", "https://stackoverflow.com");
+        }
+    }
+
+    // GET - Listar todos os links (JSON pronto do cache, ou em blocos num catálogo grande)
+    // ServerWebExchange é a requisição e a resposta do WebFlux; cada byte[] do Flux vai direto para o corpo
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<byte[]> getLinks(ServerWebExchange exchange) {
+        long versao = linkStore.versao(); // lida antes da lista, como no LinksController
+        if (exchange.checkNotModified(String.valueOf(versao))) {
+            return Flux.empty(); // 304
+        }
+        if (!cache.listagemCabeNoCache()) {
+            // o mesmo array JSON, com os links convertidos só quando o Netty pede mais
+            Flux<byte[]> blocos = Flux.fromIterable(linkStore.scan(0))
+                    .buffer(LINKS_POR_PEDIDO)
+                    .index()
+                    .map(bloco -> json(bloco.getT2(), bloco.getT1() == 0));
+            return Flux.concat(Flux.just(ABRE_LISTA), blocos, Flux.just(FECHA_LISTA));
+        }
+        byte[] emCache = cache.listagemEmCache(versao);
+        if (emCache != null) {
+            return Flux.just(emCache);
+        }
+        // fromCallable só gera o JSON quando alguém se inscreve, já numa thread do boundedElastic
+        return Mono.fromCallable(() -> cache.listagem(versao)).subscribeOn(Schedulers.boundedElastic()).flux();
+    }
+
+    // GET - Listar uma página de links (paginação por cursor)
+    @GetMapping(params = "limit")
+    public Mono<LinkPage> getLinksPage(@RequestParam(defaultValue = "0") int after, @RequestParam int limit) {
+        int limite = Math.max(1, Math.min(limit, LinksController.LIMITE_MAXIMO_PAGINA));
+        return Mono.just(linkStore.findPage(after, limite));
+    }
+
+    // GET - Buscar links pela URL (índice de URLs do LinkStore, em memória)
+    @GetMapping(params = "url")
+    public Mono<List<Link>> getLinksByUrl(@RequestParam String url) {
+        return Mono.just(linkStore.findByUrl(url));
+    }
+
+    // GET - ?url= junto com ?limit=: 400, como no LinksController
+    @GetMapping(params = { "url", "limit" })
+    public Mono<List<Link>> getLinksByUrlComLimit() {
+        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "A busca por url não aceita limit"));
+    }
+
+    // GET - Transmitir todos os links em NDJSON, com contrapressão
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Link> streamLinks() {
+        // fromIterable só avança o iterador do LinkStore quando há demanda;
+        // limitRate pede os links em blocos em vez de um a um
+        return Flux.fromIterable(linkStore.scan(0)).limitRate(LINKS_POR_PEDIDO);
+    }
+
+    // GET - Buscar link por ID
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<byte[]> getLinkById(@PathVariable int id, ServerWebExchange exchange) {
+        Link link = linkStore.findById(id);
+        if (link == null || exchange.checkNotModified(String.valueOf(link.versao()))) {
+            return Mono.empty();
+        }
+        return Mono.just(cache.link(link));
+    }
+
+    // POST - Criar novo link
+    // Mono<LinkRequest>: o corpo é lido sem bloquear, conforme os bytes chegam
+    @PostMapping
+    public Mono<Link> createLink(@RequestBody Mono<LinkRequest> data) {
+        return data.publishOn(Schedulers.boundedElastic())
+                .map(dados -> escritas.executar(() -> linkStore.create(dados.titulo(), dados.url())))
+                .onErrorMap(UrlDuplicadaException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    // PUT - Atualizar link completo
+    @PutMapping("/{id}")
+    public Mono<Link> updateLink(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Mono<LinkRequest> data) {
+        return data.publishOn(Schedulers.boundedElastic())
+                .map(dados -> escritas.executar(
+                        () -> linkStore.update(id, dados.titulo(), dados.url(), LinksController.condicao(ifMatch))))
+                .onErrorMap(VersaoDivergenteException.class,
+                        e -> new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage()))
+                .onErrorMap(UrlDuplicadaException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    // PATCH - Atualizar parcialmente
+    @PatchMapping("/{id}")
+    public Mono<Link> patchLink(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Mono<LinkRequest> data) {
+        // mapNotNull: se o link não existir, a resposta fica vazia (como o null do LinksController)
+        return data.publishOn(Schedulers.boundedElastic())
+                .mapNotNull(dados -> escritas.executar(
+                        () -> linkStore.patch(id, dados.titulo(), dados.url(), LinksController.condicao(ifMatch))))
+                .onErrorMap(VersaoDivergenteException.class,
+                        e -> new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage()))
+                .onErrorMap(UrlDuplicadaException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    // DELETE - Remover link
+    @DeleteMapping("/{id}")
+    public Mono<String> deleteLink(@PathVariable int id) {
+        return Mono.fromCallable(() -> {
+            escritas.executar(() -> linkStore.delete(id));
+            return "Link " + id + " removido";
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // JSON de um bloco da listagem: os links separados por vírgula, com uma vírgula antes se não for o primeiro bloco
+    private byte[] json(List<Link> bloco, boolean primeiro) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            for (Link link : bloco) {
+                if (!primeiro || saida.size() > 0) {
+                    saida.write(',');
+                }
+                saida.writeBytes(objectMapper.writeValueAsBytes(link));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao converter para JSON", e);
+        }
+        return saida.toByteArray();
+    }
+
+}
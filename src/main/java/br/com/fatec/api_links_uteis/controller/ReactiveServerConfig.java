@@ -0,0 +1,25 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do Spring que escolhe o Netty como servidor do modo reativo.
+ *
+ * O Tomcat continua no classpath (spring-boot-starter-web) e, no modo
+ * reativo, o Spring Boot o prefere ao Netty. Declarar a fábrica do Netty
+ * faz o ReactiveLinksController rodar no event loop do Netty. As
+ * propriedades server.* (porta, etc.) continuam valendo.
+ */
+@Configuration // anotação que indica que esta classe declara beans do Spring
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE) // só com spring.main.web-application-type=reactive
+public class ReactiveServerConfig {
+
+    @Bean // o objeto retornado vira um bean; o Spring Boot deixa de criar o servidor Tomcat reativo
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+}
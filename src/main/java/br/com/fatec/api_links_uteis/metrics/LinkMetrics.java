@@ -0,0 +1,150 @@
+package br.com.fatec.api_links_uteis.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Métricas do caminho quente do LinksController, publicadas no Micrometer
+ * (e em /actuator/prometheus pelo Spring Boot Actuator).
+ *
+ * O http.server.requests mede a requisição inteira; estas métricas mostram
+ * onde o tempo foi gasto:
+ * - links.store (timer, tag operacao): tempo de cada operação do LinkStore
+ * - links.response.bytes (resumo, tag endpoint): tamanho das respostas JSON
+ * - links.catalog.size (gauge): quantidade de links no catálogo
+ * - links.urls.size (gauge): URLs distintas no índice de URLs do LinkStore
+ * - links.ids.allocated (contador): IDs entregues por create() e createAll() neste nó; rate() dá a taxa de criação
+ * - links.store.lock.wait (timer): escritas que esperaram a trava de um ID e o tempo esperado
+ * - links.store.wasted.bytes (gauge): bytes perdidos no arquivo do MappedLinkTable até a próxima compactação
+ * - o tempo de conversão para JSON é medido pelo LinkResponseCache (links.json.encode)
+ * - o tamanho dos lotes de escrita é medido pelo LinkWriteBatcher (links.write.batch.size)
+ * - as requisições aceitas e recusadas são contadas pelo AdmissionFilter (links.admission.*)
+ *
+ * Amostragem: com links.metrics.sample-every=N, só 1 em cada N operações é
+ * medida (sorteio com ThreadLocalRandom, sem disputa entre threads); as
+ * demais não chamam System.nanoTime nem tocam nos timers. Os percentis
+ * continuam representativos, mas as contagens ficam divididas por N.
+ * Com 0 a medição do caminho quente é desligada. Gauge, contador de IDs e
+ * esperas pela trava são lidos do LinkStore só quando o Prometheus coleta,
+ * então não custam nada nas requisições e não são amostrados.
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+public class LinkMetrics implements MeterBinder {
+
+    // operações do LinkStore medidas pelo timer links.store
+    public enum Operacao {
+        FIND_ALL("findAll"), FIND_PAGE("findPage"), FIND_BY_ID("findById"), FIND_BY_URL("findByUrl"),
+        CREATE("create"), UPDATE("update"), PATCH("patch"), DELETE("delete");
+
+        private final String tag;
+
+        Operacao(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    // respostas cujo tamanho é medido pelo resumo links.response.bytes
+    public enum Resposta {
+        LISTAGEM("listagem"), LINK("link");
+
+        private final String tag;
+
+        Resposta(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final LinkStore linkStore;
+    private final int amostragem;
+    // preenchidos em bindTo; enquanto forem null (ex.: testes sem registro) nada é medido
+    private volatile Timer[] timers;
+    private volatile DistributionSummary[] bytes;
+
+    // o Spring injeta o LinkStore e a taxa de amostragem configurada em application.properties
+    public LinkMetrics(LinkStore linkStore, @Value("${links.metrics.sample-every:1}") int amostragem) {
+        this.linkStore = linkStore;
+        this.amostragem = amostragem;
+    }
+
+    // Executa a operação do LinkStore, medindo o tempo quando ela for sorteada
+    public <T> T medir(Operacao operacao, Supplier<T> acao) {
+        Timer[] medidores = timers;
+        if (medidores == null || !sortear()) {
+            return acao.get();
+        }
+        long inicio = System.nanoTime();
+        try {
+            return acao.get();
+        } finally {
+            medidores[operacao.ordinal()].record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Registra o tamanho de uma resposta quando ela for sorteada; devolve o próprio corpo
+    public byte[] registrarBytes(Resposta resposta, byte[] corpo) {
+        DistributionSummary[] resumos = bytes;
+        if (corpo != null && resumos != null && sortear()) {
+            resumos[resposta.ordinal()].record(corpo.length);
+        }
+        return corpo;
+    }
+
+    // chamado pelo Spring Boot Actuator com o registro de métricas (Prometheus)
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer[] novosTimers = new Timer[Operacao.values().length];
+        for (Operacao operacao : Operacao.values()) {
+            novosTimers[operacao.ordinal()] = Timer.builder("links.store")
+                    .description("Tempo das operações do LinkStore (amostrado)")
+                    .tag("operacao", operacao.tag)
+                    .register(registry);
+        }
+        DistributionSummary[] novosResumos = new DistributionSummary[Resposta.values().length];
+        for (Resposta resposta : Resposta.values()) {
+            novosResumos[resposta.ordinal()] = DistributionSummary.builder("links.response.bytes")
+                    .description("Tamanho das respostas JSON (amostrado)")
+                    .baseUnit("bytes")
+                    .tag("endpoint", resposta.tag)
+                    .register(registry);
+        }
+        Gauge.builder("links.catalog.size", linkStore, LinkStore::size)
+                .description("Quantidade de links no catálogo")
+                .register(registry);
+        Gauge.builder("links.urls.size", linkStore, LinkStore::urlsIndexadas)
+                .description("URLs distintas no índice de URLs")
+                .register(registry);
+        // contado no próprio LinkStore: num cluster, proximoId também avança com os IDs dos outros nós
+        FunctionCounter.builder("links.ids.allocated", linkStore, LinkStore::idsEntregues)
+                .description("IDs entregues pelo LinkStore")
+                .register(registry);
+        Gauge.builder("links.store.wasted.bytes", linkStore, LinkStore::bytesDesperdicados)
+                .description("Bytes ocupados por versões antigas e links removidos ainda não compactados")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionTimer.builder("links.store.lock.wait", linkStore,
+                        LinkStore::esperasPorTrava, LinkStore::nanosEsperandoTrava, TimeUnit.NANOSECONDS)
+                .description("Escritas que esperaram a trava de um ID e o tempo total de espera")
+                .register(registry);
+        timers = novosTimers;
+        bytes = novosResumos;
+    }
+
+    private boolean sortear() {
+        return amostragem == 1 || (amostragem > 1 && ThreadLocalRandom.current().nextInt(amostragem) == 0);
+    }
+
+}
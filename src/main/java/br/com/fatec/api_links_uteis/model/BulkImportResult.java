@@ -0,0 +1,10 @@
+package br.com.fatec.api_links_uteis.model;
+
+/**
+ * Resultado de uma importação em lote (POST /api/links/bulk).
+ *
+ * @param importados quantidade de links criados
+ * @param milissegundos duração da importação
+ */
+public record BulkImportResult(long importados, long milissegundos) {
+}
@@ -0,0 +1,34 @@
+package br.com.fatec.api_links_uteis.model;
+
+/**
+ * Representa um link útil do catálogo.
+ *
+ * É um record: uma classe imutável cujos campos são definidos na própria
+ * declaração. Cada link ocupa um único objeto com quatro campos, em vez de um
+ * HashMap com as chaves "id", "titulo" e "url" e um ID convertido para texto,
+ * o que reduz bastante a memória e o trabalho do coletor de lixo (GC).
+ *
+ * O Jackson converte o record para JSON usando os nomes dos campos:
+ * {"id": 1, "titulo": "GitHub", "url": "https://github.com", "versao": 1}
+ *
+ * A versão muda a cada alteração do link e nunca diminui. Ela é o ETag do
+ * link nas respostas HTTP: o cliente reenvia esse valor em If-None-Match
+ * (para receber 304 se nada mudou) ou em If-Match (para só alterar o link
+ * se ninguém o alterou antes).
+ *
+ * @param id identificador numérico do link
+ * @param titulo título exibido para o link
+ * @param url endereço do link
+ * @param versao versão do link, atribuída pelo LinkStore a cada alteração
+ */
+public record Link(int id, String titulo, String url, long versao) {
+
+    // devolve uma cópia com apenas os campos não nulos substituídos (usado no PATCH)
+    public Link comAlteracoes(String novoTitulo, String novaUrl, long novaVersao) {
+        return new Link(id,
+                novoTitulo != null ? novoTitulo : titulo,
+                novaUrl != null ? novaUrl : url,
+                novaVersao);
+    }
+
+}
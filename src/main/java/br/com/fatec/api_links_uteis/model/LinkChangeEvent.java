@@ -0,0 +1,20 @@
+package br.com.fatec.api_links_uteis.model;
+
+import br.com.fatec.api_links_uteis.store.LinkChange;
+
+/**
+ * Uma alteração do catálogo no feed de alterações (GET /api/links/changes).
+ *
+ * Para aplicar o feed numa cópia local, o consumidor guarda, por ID, o link
+ * e a versão mais recentes que já viu, e ignora eventos com versão menor ou
+ * igual. Assim reaplicar eventos (ex.: depois de um snapshot ou de uma
+ * reconexão) não desfaz nada.
+ *
+ * @param seq posição do evento no feed; o consumidor guarda a última que recebeu e pede "since" a partir dela
+ * @param tipo CRIACAO, ATUALIZACAO ou REMOCAO
+ * @param id ID do link alterado
+ * @param versao versão atribuída à alteração
+ * @param link link depois da alteração, ou null numa remoção
+ */
+public record LinkChangeEvent(long seq, LinkChange.Tipo tipo, int id, long versao, Link link) {
+}
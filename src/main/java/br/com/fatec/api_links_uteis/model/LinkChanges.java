@@ -0,0 +1,19 @@
+package br.com.fatec.api_links_uteis.model;
+
+import java.util.List;
+
+/**
+ * Resposta do feed de alterações (GET /api/links/changes?since=).
+ *
+ * Normalmente traz só os eventos depois de "since". Quando o consumidor
+ * ficou para trás (os eventos que ele precisa já saíram do buffer circular)
+ * ou pediu uma posição desconhecida (ex.: o servidor reiniciou), a resposta
+ * é um snapshot: o catálogo inteiro, a partir do qual ele recomeça.
+ *
+ * @param seq posição do último evento incluído; o valor de "since" da próxima consulta
+ * @param snapshot true quando "links" traz o catálogo inteiro e a cópia local deve ser substituída
+ * @param links catálogo inteiro (só num snapshot; senão, vazio)
+ * @param changes eventos depois de "since", em ordem de seq (vazio num snapshot)
+ */
+public record LinkChanges(long seq, boolean snapshot, List<Link> links, List<LinkChangeEvent> changes) {
+}
@@ -0,0 +1,16 @@
+package br.com.fatec.api_links_uteis.model;
+
+import java.util.List;
+
+/**
+ * Uma página da listagem paginada de links (GET /api/links?after=&limit=).
+ *
+ * A paginação é por cursor (keyset): em vez de "pular N registros", o cliente
+ * informa o último ID que já recebeu e o servidor continua a partir dele.
+ * Assim cada página custa o mesmo, não importa o tamanho do catálogo.
+ *
+ * @param links links da página, em ordem crescente de ID
+ * @param proximo cursor para a próxima página (valor de "after"), ou null se esta for a última
+ */
+public record LinkPage(List<Link> links, Integer proximo) {
+}
@@ -0,0 +1,13 @@
+package br.com.fatec.api_links_uteis.model;
+
+/**
+ * Corpo das requisições POST, PUT e PATCH de links.
+ *
+ * O ID nunca vem do corpo: no POST ele é gerado pelo servidor e no PUT/PATCH
+ * vem da URL. No PATCH, campos ausentes chegam como null e não são alterados.
+ *
+ * @param titulo título do link
+ * @param url endereço do link
+ */
+public record LinkRequest(String titulo, String url) {
+}
@@ -0,0 +1,208 @@
+package br.com.fatec.api_links_uteis.persistence;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import br.com.fatec.api_links_uteis.store.LinkChange;
+import br.com.fatec.api_links_uteis.store.LinkChangeListener;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Persistência durável do catálogo de links: log de escrita antecipada + snapshots.
+ *
+ * Toda alteração do LinkStore é gravada no WriteAheadLog antes de ser aplicada.
+ * Com links.persistence.fsync=true a requisição só termina depois que o
+ * registro passou por fsync (em grupo com as escritas simultâneas).
+ *
+ * A cada links.persistence.snapshot-interval alterações, um snapshot do
+ * catálogo é gravado em segundo plano. Na inicialização, o último snapshot é
+ * carregado e só os segmentos posteriores são relidos, então o tempo de
+ * recuperação não cresce sem limite.
+ *
+ * O snapshot é "difuso": o catálogo continua recebendo escritas enquanto é
+ * percorrido. Isso é seguro porque:
+ * - o log é trocado de segmento com as escritas pausadas
+ *   (LinkStore.comEscritasPausadas): toda alteração gravada no segmento antigo
+ *   já está no mapa quando a leitura começa, então o snapshot a enxerga
+ * - cada registro guarda o estado completo do link: reaplicar na ordem do log
+ *   os registros posteriores à troca sempre leva ao estado final
+ *
+ * O snapshot anterior e os segmentos a partir dele só são apagados depois que
+ * o novo snapshot é relido e conferido; se o mais recente estiver danificado,
+ * a recuperação usa o anterior e relê mais log.
+ *
+ * Só é criado quando links.persistence.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(prefix = "links.persistence", name = "enabled", havingValue = "true")
+public class LinkPersistence implements LinkChangeListener {
+    private static final Logger log = LoggerFactory.getLogger(LinkPersistence.class);
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final boolean fsync;
+    private final long intervaloSnapshot;
+
+    private WriteAheadLog wal;
+    private LinkStore store;
+    private final AtomicLong alteracoesDesdeSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotEmAndamento = new AtomicBoolean();
+    private final ExecutorService executorSnapshot = Executors.newSingleThreadExecutor(
+            tarefa -> Thread.ofPlatform().daemon().name("snapshot-links").unstarted(tarefa));
+
+    public LinkPersistence(
+            @Value("${links.persistence.directory:data}") Path diretorio,
+            @Value("${links.persistence.segment-size:67108864}") int tamanhoSegmento,
+            @Value("${links.persistence.fsync:true}") boolean fsync,
+            @Value("${links.persistence.snapshot-interval:100000}") long intervaloSnapshot) {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.fsync = fsync;
+        this.intervaloSnapshot = intervaloSnapshot;
+    }
+
+    /**
+     * Carrega o último snapshot e o log no LinkStore (ainda vazio) e passa a
+     * gravar todas as alterações seguintes.
+     */
+    public void recuperar(LinkStore linkStore) {
+        long inicio = System.nanoTime();
+        long primeiroSegmento = 0;
+        long doSnapshot = 0;
+        Optional<Path> snapshot = snapshotValido();
+        if (snapshot.isPresent()) {
+            // cada link volta com a versão que tinha, então os ETags continuam válidos depois do reinício
+            SnapshotFile.Cabecalho cabecalho = SnapshotFile.ler(snapshot.get(), linkStore::restaurar);
+            primeiroSegmento = cabecalho.primeiroSegmento();
+            doSnapshot = cabecalho.links();
+            linkStore.avancarProximoId(cabecalho.proximoId());
+            linkStore.avancarVersao(cabecalho.ultimaVersao());
+        }
+        // os listeners ainda não foram registrados, então reaplicar não grava nada de novo no log;
+        // a leitura para no primeiro registro danificado (veja WriteAheadLog.ler)
+        long doLog = WriteAheadLog.ler(diretorio, primeiroSegmento, registro -> {
+            if (registro.link() == null) {
+                linkStore.delete(registro.id());
+                linkStore.avancarProximoId(registro.id() + 1);
+                linkStore.avancarVersao(registro.versao());
+            } else {
+                linkStore.restaurar(registro.link());
+            }
+        });
+        log.info("Catálogo recuperado de {}: {} links do snapshot, {} registros do log, {} ms",
+                diretorio, doSnapshot, doLog, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+
+        this.store = linkStore;
+        this.wal = new WriteAheadLog(diretorio, tamanhoSegmento);
+        linkStore.addListener(this);
+    }
+
+    @Override
+    public void onChange(LinkChange alteracao) {
+        // chamado com a trava do ID segura: a ordem no log é a ordem em que o link muda
+        if (alteracao.atual() == null) {
+            wal.remover(alteracao.id(), alteracao.versao());
+        } else {
+            wal.gravar(alteracao.atual());
+        }
+    }
+
+    @Override
+    public void afterChange(LinkChange alteracao) {
+        if (fsync) {
+            // a posição atual cobre o registro desta alteração (e talvez outros, que vão juntos)
+            wal.aguardarDurabilidade(wal.posicaoAtual());
+        }
+        if (alteracoesDesdeSnapshot.incrementAndGet() >= intervaloSnapshot
+                && snapshotEmAndamento.compareAndSet(false, true)) {
+            executorSnapshot.execute(() -> {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao gravar snapshot do catálogo", e);
+                } finally {
+                    snapshotEmAndamento.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Grava um snapshot do catálogo e apaga o que ficou mais velho que o
+     * snapshot anterior (que é mantido como reserva, com os seus segmentos).
+     */
+    public void snapshot() {
+        alteracoesDesdeSnapshot.set(0);
+        Optional<Path> anterior = SnapshotFile.maisRecente(diretorio);
+        // tudo que for alterado a partir de agora cai no segmento novo, que será relido na recuperação;
+        // com as escritas pausadas, nada gravado no segmento antigo ainda está fora do mapa
+        long primeiroSegmento = store.comEscritasPausadas(wal::iniciarNovoSegmento);
+        int proximoId = store.proximoId();
+        long ultimaVersao = store.ultimaVersao();
+        Path novo = SnapshotFile.gravar(diretorio, primeiroSegmento, proximoId, ultimaVersao, store.scan(0));
+        // só um snapshot relido e conferido substitui o anterior como ponto de partida
+        SnapshotFile.verificar(novo);
+        if (anterior.isPresent()) {
+            long reserva = SnapshotFile.primeiroSegmento(anterior.get());
+            wal.apagarSegmentosAntesDe(reserva);
+            SnapshotFile.apagarAntesDe(diretorio, reserva);
+        }
+    }
+
+    // o snapshot mais recente que passa na conferência do CRC; os danificados são pulados
+    private Optional<Path> snapshotValido() {
+        List<Path> snapshots = SnapshotFile.doMaisRecente(diretorio);
+        for (Path arquivo : snapshots) {
+            try {
+                SnapshotFile.verificar(arquivo); // antes de tocar no LinkStore
+                return Optional.of(arquivo);
+            } catch (IllegalStateException | UncheckedIOException e) {
+                log.warn("Snapshot {} danificado, tentando o anterior: {}", arquivo, e.getMessage());
+            }
+        }
+        // sem snapshot válido, o log só basta se ainda tiver todos os segmentos desde o primeiro
+        List<Long> segmentos = WriteAheadLog.listarSegmentos(diretorio);
+        if (!snapshots.isEmpty() && !segmentos.isEmpty() && segmentos.get(0) != 1) {
+            throw new IllegalStateException("Nenhum snapshot válido em " + diretorio
+                    + " e o log não tem mais os segmentos anteriores a eles");
+        }
+        return Optional.empty();
+    }
+
+    // Encerramento normal da aplicação: grava um snapshot final para o próximo início ser rápido
+    @PreDestroy
+    public void encerrar() {
+        executorSnapshot.shutdown();
+        try {
+            executorSnapshot.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (wal != null) {
+            snapshot();
+            fechar();
+        }
+    }
+
+    // Fecha o log sem gravar snapshot (equivale a parar o processo depois do último fsync)
+    public void fechar() {
+        executorSnapshot.shutdownNow();
+        wal.close();
+    }
+
+}
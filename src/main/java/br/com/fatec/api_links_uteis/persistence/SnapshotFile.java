@@ -0,0 +1,182 @@
+package br.com.fatec.api_links_uteis.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Snapshot binário e compacto do catálogo de links.
+ *
+ * O arquivo snapshot-N.snap guarda todos os links do catálogo e indica que a
+ * recuperação deve continuar lendo o log a partir do segmento N. Assim a
+ * recuperação não precisa reler o log inteiro desde o início.
+ *
+ * Formato:
+ *   int MAGICO | long primeiro segmento do log | int próximo ID | long última versão
+ *   para cada link: byte 1 | int id | long versão | titulo | url
+ *   byte 0 (fim) | long crc32 de tudo que veio antes
+ *
+ * O arquivo é escrito com outro nome, passa por fsync e só então é renomeado,
+ * então um snapshot pela metade nunca é confundido com um válido. Um arquivo
+ * danificado depois disso é detectado pelo CRC (veja ler).
+ */
+final class SnapshotFile {
+    private static final int MAGICO = 0x4C4B534E; // "LKSN"
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Conteúdo lido de um snapshot.
+     *
+     * @param primeiroSegmento segmento do log a partir do qual a recuperação continua
+     * @param proximoId próximo ID a ser entregue quando o snapshot foi tirado
+     * @param ultimaVersao última versão atribuída quando o snapshot foi tirado
+     * @param links quantidade de links lidos
+     */
+    record Cabecalho(long primeiroSegmento, int proximoId, long ultimaVersao, long links) {
+    }
+
+    // Grava os links em snapshot-N.snap e retorna o caminho do arquivo
+    static Path gravar(Path diretorio, long primeiroSegmento, int proximoId, long ultimaVersao, Iterable<Link> links) {
+        Path temporario = diretorio.resolve("snapshot.tmp");
+        Path definitivo = caminho(diretorio, primeiroSegmento);
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            OutputStream bruto = Channels.newOutputStream(canal);
+            DataOutputStream saida = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(bruto, 1 << 16), crc));
+            saida.writeInt(MAGICO);
+            saida.writeLong(primeiroSegmento);
+            saida.writeInt(proximoId);
+            saida.writeLong(ultimaVersao);
+            for (Link link : links) {
+                saida.writeByte(1);
+                saida.writeInt(link.id());
+                saida.writeLong(link.versao());
+                Textos.escrever(saida, link.titulo());
+                Textos.escrever(saida, link.url());
+            }
+            saida.writeByte(0);
+            saida.flush();
+            // o CRC é escrito fora do CheckedOutputStream para não entrar no próprio cálculo
+            DataOutputStream rodape = new DataOutputStream(bruto);
+            rodape.writeLong(crc.getValue());
+            rodape.flush();
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporario, definitivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return definitivo;
+    }
+
+    // Lê o snapshot entregando cada link ao consumidor
+    static Cabecalho ler(Path arquivo, Consumer<Link> consumidor) {
+        CRC32 crc = new CRC32();
+        try (InputStream bruto = new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16)) {
+            DataInputStream entrada = new DataInputStream(new CheckedInputStream(bruto, crc));
+            if (entrada.readInt() != MAGICO) {
+                throw new IllegalStateException("Arquivo não é um snapshot de links: " + arquivo);
+            }
+            long primeiroSegmento = entrada.readLong();
+            int proximoId = entrada.readInt();
+            long ultimaVersao = entrada.readLong();
+            long lidos = 0;
+            while (entrada.readByte() == 1) {
+                int id = entrada.readInt();
+                long versao = entrada.readLong();
+                consumidor.accept(new Link(id, Textos.ler(entrada), Textos.ler(entrada), versao));
+                lidos++;
+            }
+            long esperado = crc.getValue();
+            if (new DataInputStream(bruto).readLong() != esperado) {
+                throw new IllegalStateException("Snapshot corrompido (CRC inválido): " + arquivo);
+            }
+            return new Cabecalho(primeiroSegmento, proximoId, ultimaVersao, lidos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Snapshot mais recente do diretório, se existir
+    static Optional<Path> maisRecente(Path diretorio) {
+        return listar(diretorio).reduce((primeiro, segundo) -> segundo);
+    }
+
+    // Snapshots do diretório, do mais recente para o mais antigo
+    static List<Path> doMaisRecente(Path diretorio) {
+        return listar(diretorio).sorted((a, b) -> Long.compare(numero(b), numero(a))).toList();
+    }
+
+    // Lê o snapshot inteiro só para conferir o CRC; lança IllegalStateException ou
+    // UncheckedIOException se ele estiver danificado
+    static Cabecalho verificar(Path arquivo) {
+        return ler(arquivo, link -> {
+        });
+    }
+
+    // Segmento do log a partir do qual a recuperação continua, pelo nome do arquivo
+    static long primeiroSegmento(Path arquivo) {
+        return numero(arquivo);
+    }
+
+    // Apaga os snapshots anteriores a "primeiroSegmento"
+    static void apagarAntesDe(Path diretorio, long primeiroSegmento) {
+        listar(diretorio).filter(arquivo -> numero(arquivo) < primeiroSegmento).forEach(arquivo -> {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static Stream<Path> listar(Path diretorio) {
+        if (!Files.isDirectory(diretorio)) {
+            return Stream.empty();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().matches("snapshot-\\d+\\.snap"))
+                    .sorted((a, b) -> Long.compare(numero(a), numero(b)))
+                    .toList()
+                    .stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long numero(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring("snapshot-".length(), nome.length() - ".snap".length()));
+    }
+
+    private static Path caminho(Path diretorio, long primeiroSegmento) {
+        return diretorio.resolve(String.format("snapshot-%016d.snap", primeiroSegmento));
+    }
+
+}
@@ -0,0 +1,67 @@
+package br.com.fatec.api_links_uteis.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificação binária dos textos do log e do snapshot:
+ * int tamanho (-1 para null) seguido dos bytes em UTF-8.
+ */
+final class Textos {
+    // maior texto aceito na leitura; um tamanho maior só aparece num arquivo danificado
+    private static final int MAXIMO = 1 << 24;
+
+    private Textos() {
+    }
+
+    static byte[] utf8(String texto) {
+        return texto == null ? null : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // quantidade de bytes que o texto ocupa depois de codificado
+    static int tamanho(byte[] bytes) {
+        return 4 + (bytes == null ? 0 : bytes.length);
+    }
+
+    static void escrever(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+    }
+
+    static String ler(ByteBuffer buffer) {
+        int tamanho = buffer.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        String texto = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), tamanho, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + tamanho);
+        return texto;
+    }
+
+    static void escrever(DataOutput saida, String texto) throws IOException {
+        byte[] bytes = utf8(texto);
+        saida.writeInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null) {
+            saida.write(bytes);
+        }
+    }
+
+    static String ler(DataInput entrada) throws IOException {
+        int tamanho = entrada.readInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        if (tamanho > MAXIMO) {
+            throw new IOException("Texto com tamanho inválido: " + tamanho + " bytes");
+        }
+        byte[] bytes = new byte[tamanho];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,469 @@
+package br.com.fatec.api_links_uteis.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Log de escrita antecipada (write-ahead log) do catálogo de links.
+ *
+ * Cada alteração vira um registro acrescentado ao fim do log. O log é dividido
+ * em segmentos de tamanho fixo (wal-0000000000000001.log, ...), mapeados na
+ * memória com FileChannel.map: escrever um registro é só copiar bytes para a
+ * memória, sem chamada de sistema.
+ *
+ * Formato de cada registro:
+ *   int tamanho | int crc32 do conteúdo | conteúdo
+ *   conteúdo = int id | long versão | byte tipo (1 = gravação, 2 = remoção) | [titulo | url]
+ * Textos são gravados como int tamanho (-1 para null) seguido dos bytes UTF-8.
+ * Um tamanho 0 marca o fim dos dados do segmento (o arquivo nasce zerado).
+ *
+ * Commit em grupo: as escritas não chamam fsync uma a uma. Uma thread de
+ * gravação faz o force() de tudo que foi escrito até aquele momento e libera
+ * de uma vez todas as requisições que estavam esperando; quanto mais escritas
+ * simultâneas, mais registros cada fsync cobre. A troca de segmento também
+ * acorda essa thread, mesmo sem ninguém esperando (fsync=false): é ela que
+ * faz o último force() do segmento cheio e o fecha, e um segmento apagado
+ * depois de um snapshot só libera o disco quando ninguém mais o tem aberto.
+ *
+ * Posições no log (LSN) são longs: número do segmento nos 32 bits altos e
+ * deslocamento dentro do segmento nos 32 bits baixos, então crescem sempre.
+ *
+ * As travas são ReentrantLock/Condition em vez de synchronized/wait: uma
+ * thread virtual que espera o fsync dentro de um bloco synchronized fica
+ * presa (pinned) à thread da plataforma que a executa, e poucas esperas
+ * simultâneas bastariam para parar todas as requisições.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final int CABECALHO = 8; // int tamanho + int crc
+    private static final byte GRAVACAO = 1;
+    private static final byte REMOCAO = 2;
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+
+    // estado de escrita, protegido por "travaEscrita"
+    private final ReentrantLock travaEscrita = new ReentrantLock();
+    private Segmento atual;
+    private int posicao; // próximo byte livre no segmento atual
+    private final List<Segmento> aguardandoForce = new ArrayList<>();
+
+    // estado de durabilidade, protegido por "travaDurabilidade"
+    private final ReentrantLock travaDurabilidade = new ReentrantLock();
+    private final Condition pedidoDeForce = travaDurabilidade.newCondition(); // a thread de gravação espera aqui
+    private final Condition forceConcluido = travaDurabilidade.newCondition(); // as escritas esperam aqui
+    private long persistido; // maior LSN que já passou por force()
+    private long solicitado; // maior LSN que alguém está esperando
+    private boolean fechado;
+    private final Thread gravador;
+
+    // Abre o log no diretório, começando um segmento novo depois dos existentes
+    public WriteAheadLog(Path diretorio, int tamanhoSegmento) {
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Long> existentes = listarSegmentos(diretorio);
+        long proximo = existentes.isEmpty() ? 1 : existentes.get(existentes.size() - 1) + 1;
+        this.atual = abrirSegmento(proximo);
+        this.aguardandoForce.add(atual);
+        this.gravador = Thread.ofPlatform().daemon().name("wal-gravador").start(this::gravarEmGrupo);
+    }
+
+    // Registra a gravação (criação ou atualização) de um link; retorna o LSN do fim do registro
+    public long gravar(Link link) {
+        return acrescentar(codificar(link.id(), link.versao(), link));
+    }
+
+    // Registra a remoção de um link, feita na versão "versao"; retorna o LSN do fim do registro
+    public long remover(int id, long versao) {
+        return acrescentar(codificar(id, versao, null));
+    }
+
+    // LSN do fim do último registro escrito
+    public long posicaoAtual() {
+        travaEscrita.lock();
+        try {
+            return lsn(atual.numero, posicao);
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    // Bloqueia até que tudo até "lsn" tenha passado por fsync (commit em grupo)
+    public void aguardarDurabilidade(long lsn) {
+        travaDurabilidade.lock();
+        try {
+            solicitado = Math.max(solicitado, lsn);
+            while (persistido < lsn && !fechado) {
+                pedidoDeForce.signal(); // acorda a thread de gravação
+                forceConcluido.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando o fsync do log", e);
+        } finally {
+            travaDurabilidade.unlock();
+        }
+    }
+
+    // Fecha o segmento atual e começa outro; retorna o número do novo segmento.
+    // Usado pelo snapshot: tudo que for escrito depois estará a partir desse segmento.
+    public long iniciarNovoSegmento() {
+        travaEscrita.lock();
+        try {
+            trocarSegmento();
+            return atual.numero;
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    // Apaga os segmentos anteriores a "numero" (já cobertos por um snapshot)
+    public void apagarSegmentosAntesDe(long numero) {
+        for (long segmento : listarSegmentos(diretorio)) {
+            if (segmento < numero) {
+                try {
+                    Files.deleteIfExists(caminhoSegmento(diretorio, segmento));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        travaDurabilidade.lock();
+        try {
+            fechado = true;
+            pedidoDeForce.signal();
+            forceConcluido.signalAll();
+        } finally {
+            travaDurabilidade.unlock();
+        }
+        try {
+            gravador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        travaEscrita.lock();
+        try {
+            for (Segmento segmento : aguardandoForce) {
+                segmento.forcar();
+                segmento.fechar();
+            }
+            aguardandoForce.clear();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    /**
+     * Lê os registros válidos dos segmentos a partir de "primeiroSegmento", em ordem.
+     *
+     * A leitura de um segmento termina no tamanho 0 que marca o fim dos dados
+     * (o arquivo nasce zerado) e segue no segmento seguinte. Um registro
+     * incompleto ou com CRC inválido é o que estava sendo escrito quando o
+     * processo caiu: ele nunca foi confirmado ao cliente, porque a confirmação
+     * só acontece depois do fsync. A leitura para nele, em vez de pular para
+     * o segmento seguinte, então o que é reaplicado é sempre um prefixo do log.
+     *
+     * O registro danificado é apagado (o resto do segmento é zerado e passa a
+     * ser um fim de dados normal) e os segmentos seguintes são renomeados para
+     * ".descartado": o log que o WriteAheadLog reabre depois da recuperação
+     * continua sendo um prefixo, e uma próxima leitura segue para os segmentos
+     * novos sem esbarrar no mesmo registro.
+     *
+     * @param consumidor recebe cada registro: link gravado, ou só o ID quando removido
+     * @return quantidade de registros lidos
+     */
+    public static long ler(Path diretorio, long primeiroSegmento, Consumer<Registro> consumidor) {
+        long lidos = 0;
+        List<Long> segmentos = listarSegmentos(diretorio);
+        for (int i = 0; i < segmentos.size(); i++) {
+            long numero = segmentos.get(i);
+            if (numero < primeiroSegmento) {
+                continue;
+            }
+            int danificadoEm = -1;
+            try (FileChannel canal = FileChannel.open(caminhoSegmento(diretorio, numero), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                int posicao = 0;
+                while (true) {
+                    if (posicao + CABECALHO > buffer.limit()) {
+                        // sobra menor que um cabeçalho: só é o fim do segmento se nada foi escrito nela
+                        danificadoEm = zerado(buffer, posicao) ? -1 : posicao;
+                        break;
+                    }
+                    int tamanho = buffer.getInt(posicao);
+                    if (tamanho == 0) {
+                        break; // fim dos dados do segmento
+                    }
+                    if (tamanho < 0 || posicao + CABECALHO + tamanho > buffer.limit()) {
+                        danificadoEm = posicao; // registro truncado
+                        break;
+                    }
+                    byte[] conteudo = new byte[tamanho];
+                    buffer.get(posicao + CABECALHO, conteudo);
+                    if (crc(conteudo) != buffer.getInt(posicao + 4)) {
+                        danificadoEm = posicao; // registro escrito pela metade
+                        break;
+                    }
+                    consumidor.accept(decodificar(conteudo));
+                    lidos++;
+                    posicao += CABECALHO + tamanho;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (danificadoEm >= 0) {
+                descartarDepois(diretorio, numero, danificadoEm, segmentos.subList(i + 1, segmentos.size()));
+                break;
+            }
+        }
+        return lidos;
+    }
+
+    /**
+     * Um registro lido do log.
+     *
+     * @param id ID do link
+     * @param versao versão da alteração
+     * @param link link gravado, ou null se o registro for uma remoção
+     */
+    public record Registro(int id, long versao, Link link) {
+    }
+
+    // copia o registro para o segmento atual e avisa a thread de gravação
+    private long acrescentar(byte[] conteudo) {
+        if (CABECALHO + conteudo.length > tamanhoSegmento) {
+            throw new IllegalArgumentException("Registro maior que o segmento do log: " + conteudo.length + " bytes");
+        }
+        int crc = crc(conteudo);
+        long fim;
+        // a cópia é curta e serializada, então os registros nunca se intercalam
+        // e um registro confirmado nunca fica depois de um buraco no arquivo
+        travaEscrita.lock();
+        try {
+            if (posicao + CABECALHO + conteudo.length > tamanhoSegmento) {
+                trocarSegmento();
+            }
+            // o conteúdo e o CRC são escritos antes do tamanho, que é o que torna o registro visível
+            atual.buffer.putInt(posicao + 4, crc);
+            atual.buffer.put(posicao + CABECALHO, conteudo);
+            atual.buffer.putInt(posicao, conteudo.length);
+            posicao += CABECALHO + conteudo.length;
+            fim = lsn(atual.numero, posicao);
+        } finally {
+            travaEscrita.unlock();
+        }
+        return fim;
+    }
+
+    // chamado com "travaEscrita" segura; pede à thread de gravação o force() do segmento
+    // que acabou de encher, para ela fechá-lo sem esperar uma escrita com fsync
+    private void trocarSegmento() {
+        long fimAnterior = lsn(atual.numero, posicao);
+        atual = abrirSegmento(atual.numero + 1);
+        posicao = 0;
+        aguardandoForce.add(atual);
+        // ordem das travas: travaEscrita e depois travaDurabilidade (ninguém pega as duas ao contrário)
+        travaDurabilidade.lock();
+        try {
+            solicitado = Math.max(solicitado, fimAnterior);
+            pedidoDeForce.signal();
+        } finally {
+            travaDurabilidade.unlock();
+        }
+    }
+
+    // segmentos ainda abertos (o atual e os que esperam o último force())
+    int segmentosAbertos() {
+        travaEscrita.lock();
+        try {
+            return aguardandoForce.size();
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    // laço da thread de gravação: faz um force() para todos os registros pendentes de uma vez.
+    // Só trabalha quando há alguém esperando ou um segmento cheio para fechar; no resto do
+    // tempo o próprio sistema operacional grava as páginas do mapeamento no disco.
+    private void gravarEmGrupo() {
+        while (true) {
+            travaDurabilidade.lock();
+            try {
+                while (!fechado && persistido >= solicitado) {
+                    pedidoDeForce.await();
+                }
+                if (fechado) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                travaDurabilidade.unlock();
+            }
+            long alvo;
+            List<Segmento> segmentos;
+            travaEscrita.lock();
+            try {
+                alvo = lsn(atual.numero, posicao);
+                segmentos = new ArrayList<>(aguardandoForce);
+                // segmentos antigos só precisam de um último force(); o atual continua pendente
+                aguardandoForce.clear();
+                aguardandoForce.add(atual);
+            } finally {
+                travaEscrita.unlock();
+            }
+            for (Segmento segmento : segmentos) {
+                segmento.forcar();
+                if (segmento != segmentos.get(segmentos.size() - 1)) {
+                    segmento.fechar();
+                }
+            }
+            travaDurabilidade.lock();
+            try {
+                persistido = Math.max(persistido, alvo);
+                forceConcluido.signalAll(); // libera todas as escritas cobertas por este fsync
+            } finally {
+                travaDurabilidade.unlock();
+            }
+        }
+    }
+
+    // zera o segmento "numero" a partir de "posicao" e tira os "seguintes" do log (veja ler)
+    private static void descartarDepois(Path diretorio, long numero, int posicao, List<Long> seguintes) {
+        try (FileChannel canal = FileChannel.open(caminhoSegmento(diretorio, numero), StandardOpenOption.WRITE)) {
+            ByteBuffer zeros = ByteBuffer.allocate(1 << 16);
+            long fim = canal.size();
+            for (long atual = posicao; atual < fim;) {
+                zeros.clear().limit((int) Math.min(zeros.capacity(), fim - atual));
+                atual += canal.write(zeros, atual);
+            }
+            canal.force(true);
+            for (long seguinte : seguintes) {
+                Path arquivo = caminhoSegmento(diretorio, seguinte);
+                Files.move(arquivo, arquivo.resolveSibling(arquivo.getFileName() + ".descartado"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean zerado(ByteBuffer buffer, int posicao) {
+        for (int i = posicao; i < buffer.limit(); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Segmento abrirSegmento(long numero) {
+        try {
+            FileChannel canal = FileChannel.open(caminhoSegmento(diretorio, numero),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // mapear além do tamanho do arquivo o estende com zeros
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+            return new Segmento(numero, canal, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Path caminhoSegmento(Path diretorio, long numero) {
+        return diretorio.resolve(String.format("wal-%016d.log", numero));
+    }
+
+    // números dos segmentos existentes, em ordem crescente
+    static List<Long> listarSegmentos(Path diretorio) {
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.map(arquivo -> arquivo.getFileName().toString())
+                    .filter(nome -> nome.startsWith("wal-") && nome.endsWith(".log"))
+                    .map(nome -> Long.parseLong(nome.substring(4, nome.length() - 4)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long lsn(long segmento, int posicao) {
+        return (segmento << 32) | posicao;
+    }
+
+    private static int crc(byte[] conteudo) {
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] codificar(int id, long versao, Link link) {
+        byte[] titulo = link == null ? null : Textos.utf8(link.titulo());
+        byte[] url = link == null ? null : Textos.utf8(link.url());
+        int tamanho = 4 + 8 + 1 + (link == null ? 0 : Textos.tamanho(titulo) + Textos.tamanho(url));
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        buffer.putInt(id);
+        buffer.putLong(versao);
+        buffer.put(link == null ? REMOCAO : GRAVACAO);
+        if (link != null) {
+            Textos.escrever(buffer, titulo);
+            Textos.escrever(buffer, url);
+        }
+        return buffer.array();
+    }
+
+    private static Registro decodificar(byte[] conteudo) {
+        ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+        int id = buffer.getInt();
+        long versao = buffer.getLong();
+        if (buffer.get() == REMOCAO) {
+            return new Registro(id, versao, null);
+        }
+        return new Registro(id, versao, new Link(id, Textos.ler(buffer), Textos.ler(buffer), versao));
+    }
+
+    // um arquivo de segmento aberto e mapeado na memória
+    private record Segmento(long numero, FileChannel canal, MappedByteBuffer buffer) {
+
+        void forcar() {
+            buffer.force();
+        }
+
+        void fechar() {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,266 @@
+package br.com.fatec.api_links_uteis.search;
+
+import java.net.URI;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.LinkChange;
+import br.com.fatec.api_links_uteis.store.LinkChangeListener;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Índice de busca em memória dos links.
+ *
+ * Mantém três estruturas, atualizadas a cada alteração do LinkStore
+ * (o índice é um LinkChangeListener):
+ * - índice invertido: termo do título -> postings (IDs em ordem crescente)
+ * - índice de hosts: host da URL -> postings, num mapa ordenado. Um mapa
+ *   ordenado responde "todos os hosts que começam com X" com uma faixa
+ *   contínua (subMap), o mesmo que uma árvore de prefixos (trie) faria,
+ *   sem um objeto por caractere
+ * - índice de URLs: host e caminho da URL -> postings, também ordenado, para
+ *   consultas com caminho ("github.com/spring") irem direto à faixa das URLs
+ *   com esse prefixo, sem ler os links de todo o host
+ *
+ * Termos e hosts são normalizados: minúsculas, sem acentos e sem "www.".
+ * As buscas não percorrem o catálogo: só os postings dos termos da consulta.
+ */
+@Component // anotação que registra a classe como um componente (bean) do Spring
+public class LinkSearchIndex implements LinkChangeListener {
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESQUEMA = Pattern.compile("^[a-z][a-z0-9+.-]*://");
+    private static final int MAXIMO_CHAVES_POR_PREFIXO = 1000; // prefixos muito curtos param aqui
+
+    private final LinkStore linkStore;
+    private final ConcurrentHashMap<String, Postings> termos = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Postings> hosts = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Postings> urls = new ConcurrentSkipListMap<>();
+
+    // o Spring injeta o LinkStore
+    public LinkSearchIndex(LinkStore linkStore) {
+        this.linkStore = linkStore;
+    }
+
+    /**
+     * Registra o índice no LinkStore e indexa os links que já existem.
+     *
+     * Chamado pelo Spring depois do construtor (o objeto só é entregue ao
+     * LinkStore já construído). O registro e a varredura acontecem com as
+     * escritas pausadas: sem isso, um link removido entre os dois passos
+     * ainda podia aparecer na varredura e ficar no índice para sempre.
+     */
+    @PostConstruct
+    public void registrar() {
+        linkStore.comEscritasPausadas(() -> {
+            linkStore.addListener(this);
+            for (Link link : linkStore.scan(0)) {
+                indexar(link);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Busca links pelo texto da consulta, em ordem de ID.
+     *
+     * Um link é encontrado quando o título contém todos os termos da consulta,
+     * ou quando a URL (sem "https://" e "www.") começa com a consulta: "git"
+     * encontra github.com e "github.com/spring" encontra só as URLs desse caminho.
+     */
+    public List<Link> search(String consulta, int limite) {
+        if (consulta == null || consulta.isBlank()) {
+            return List.of();
+        }
+        TreeSet<Integer> ids = new TreeSet<>();
+        ids.addAll(buscarTermos(tokens(consulta), limite));
+        ids.addAll(buscarPrefixoUrl(consulta, limite));
+
+        List<Link> resultado = new ArrayList<>(limite);
+        for (int id : ids) {
+            // o índice é avisado antes de o LinkStore aplicar a alteração:
+            // um ID que acabou de ser removido pode ainda aparecer aqui e é ignorado
+            Link link = linkStore.findById(id);
+            if (link != null && resultado.size() < limite) {
+                resultado.add(link);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public void onChange(LinkChange alteracao) {
+        // chamado com a trava do ID segura, então as alterações de um mesmo link chegam em ordem
+        if (alteracao.anterior() != null) {
+            desindexar(alteracao.anterior());
+        }
+        if (alteracao.atual() != null) {
+            indexar(alteracao.atual());
+        }
+    }
+
+    // termos: percorre a menor lista de postings e confere os demais termos por busca binária
+    private List<Integer> buscarTermos(Set<String> consulta, int limite) {
+        if (consulta.isEmpty()) {
+            return List.of();
+        }
+        List<Postings> listas = new ArrayList<>();
+        for (String termo : consulta) {
+            Postings postings = termos.get(termo);
+            if (postings == null) {
+                return List.of(); // um termo sem nenhum link: a interseção é vazia
+            }
+            listas.add(postings);
+        }
+        listas.sort(Comparator.comparingInt(Postings::tamanho));
+        Postings menor = listas.get(0);
+
+        List<Integer> encontrados = new ArrayList<>(limite);
+        int depoisDe = Integer.MIN_VALUE;
+        while (encontrados.size() < limite) {
+            int[] bloco = menor.copiar(depoisDe, 256);
+            if (bloco.length == 0) {
+                break;
+            }
+            for (int id : bloco) {
+                if (contidoEmTodas(id, listas) && encontrados.size() < limite) {
+                    encontrados.add(id);
+                }
+            }
+            depoisDe = bloco[bloco.length - 1];
+        }
+        return encontrados;
+    }
+
+    // URL: hosts que começam com a consulta; com caminho, filtra as URLs pelo prefixo completo
+    private List<Integer> buscarPrefixoUrl(String consulta, int limite) {
+        String prefixo = semEsquema(consulta.strip().toLowerCase(Locale.ROOT));
+        int barra = prefixo.indexOf('/');
+        if (prefixo.isEmpty() || barra == 0) {
+            return List.of();
+        }
+        // com caminho, a faixa é a das URLs; sem caminho, a dos hosts
+        return buscarFaixa(barra > 0 ? urls : hosts, prefixo, limite);
+    }
+
+    // os "limite" menores IDs das chaves entre "prefixo" e "prefixo￿" (todas começam com o prefixo)
+    private static List<Integer> buscarFaixa(ConcurrentSkipListMap<String, Postings> mapa, String prefixo, int limite) {
+        TreeSet<Integer> encontrados = new TreeSet<>();
+        int chavesLidas = 0;
+        for (Postings postings : mapa.subMap(prefixo, prefixo + Character.MAX_VALUE).values()) {
+            for (int id : postings.copiar(Integer.MIN_VALUE, limite)) {
+                encontrados.add(id);
+            }
+            // mantém só os "limite" menores IDs
+            while (encontrados.size() > limite) {
+                encontrados.pollLast();
+            }
+            if (++chavesLidas == MAXIMO_CHAVES_POR_PREFIXO) {
+                break;
+            }
+        }
+        return new ArrayList<>(encontrados);
+    }
+
+    private static boolean contidoEmTodas(int id, List<Postings> listas) {
+        for (int i = 1; i < listas.size(); i++) {
+            if (!listas.get(i).contem(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void indexar(Link link) {
+        for (String termo : tokens(link.titulo())) {
+            // compute roda com o bucket do mapa travado, então uma lista não é
+            // descartada por desindexar() enquanto outro link entra nela
+            termos.compute(termo, (chave, postings) -> adicionar(postings, link.id()));
+        }
+        String host = host(link.url());
+        if (host != null) {
+            hosts.compute(host, (chave, postings) -> adicionar(postings, link.id()));
+            urls.compute(url(link.url()), (chave, postings) -> adicionar(postings, link.id()));
+        }
+    }
+
+    private void desindexar(Link link) {
+        for (String termo : tokens(link.titulo())) {
+            termos.computeIfPresent(termo, (chave, postings) -> remover(postings, link.id()));
+        }
+        String host = host(link.url());
+        if (host != null) {
+            hosts.computeIfPresent(host, (chave, postings) -> remover(postings, link.id()));
+            urls.computeIfPresent(url(link.url()), (chave, postings) -> remover(postings, link.id()));
+        }
+    }
+
+    // IDs com o termo no índice invertido (para testes)
+    int[] postings(String termo) {
+        Postings postings = termos.get(termo);
+        return postings == null ? new int[0] : postings.copiar(Integer.MIN_VALUE, postings.tamanho());
+    }
+
+    private static Postings adicionar(Postings postings, int id) {
+        Postings lista = postings == null ? new Postings() : postings;
+        lista.adicionar(id);
+        return lista;
+    }
+
+    // devolver null remove a lista vazia do mapa
+    private static Postings remover(Postings postings, int id) {
+        postings.remover(id);
+        return postings.vazia() ? null : postings;
+    }
+
+    // termos normalizados de um texto: minúsculas, sem acentos, só letras e números
+    static Set<String> tokens(String texto) {
+        if (texto == null) {
+            return Set.of();
+        }
+        String normalizado = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>(Arrays.asList(SEPARADORES.split(normalizado)));
+        tokens.remove("");
+        return tokens;
+    }
+
+    // host normalizado da URL (sem "www."), ou null se a URL não tiver host
+    static String host(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            String host = URI.create(url.strip()).getHost();
+            return host == null ? null : semEsquema(host.toLowerCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null; // URL inválida: fica só no índice de títulos
+        }
+    }
+
+    // URL comparada com as consultas: minúsculas, sem esquema e sem "www."
+    private static String url(String url) {
+        return semEsquema(url.strip().toLowerCase(Locale.ROOT));
+    }
+
+    private static String semEsquema(String url) {
+        String semEsquema = ESQUEMA.matcher(url).replaceFirst("");
+        return semEsquema.startsWith("www.") ? semEsquema.substring(4) : semEsquema;
+    }
+
+}
@@ -0,0 +1,59 @@
+package br.com.fatec.api_links_uteis.search;
+
+import java.util.Arrays;
+
+/**
+ * Lista de postings: os IDs dos links que contêm um termo, em ordem crescente.
+ *
+ * Guarda os IDs num int[] (4 bytes por ID, sem objetos Integer). Como os IDs
+ * novos são sempre maiores que os anteriores, adicionar quase sempre é só
+ * escrever no fim do array. Os métodos são sincronizados porque escritas em
+ * links diferentes podem alterar a mesma lista ao mesmo tempo; as seções
+ * críticas são curtas e não fazem E/S.
+ */
+final class Postings {
+    private int[] ids = new int[4];
+    private int tamanho;
+
+    synchronized void adicionar(int id) {
+        int posicao = tamanho == 0 || ids[tamanho - 1] < id ? -(tamanho + 1) : Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao >= 0) {
+            return; // já está na lista
+        }
+        int insercao = -(posicao + 1);
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, tamanho + (tamanho >> 1) + 1);
+        }
+        System.arraycopy(ids, insercao, ids, insercao + 1, tamanho - insercao);
+        ids[insercao] = id;
+        tamanho++;
+    }
+
+    synchronized void remover(int id) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao >= 0) {
+            System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+            tamanho--;
+        }
+    }
+
+    synchronized boolean contem(int id) {
+        return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+    }
+
+    synchronized boolean vazia() {
+        return tamanho == 0;
+    }
+
+    synchronized int tamanho() {
+        return tamanho;
+    }
+
+    // Copia até "limite" IDs maiores que "depoisDe", sem copiar a lista inteira
+    synchronized int[] copiar(int depoisDe, int limite) {
+        int inicio = Arrays.binarySearch(ids, 0, tamanho, depoisDe);
+        inicio = inicio >= 0 ? inicio + 1 : -(inicio + 1);
+        return Arrays.copyOfRange(ids, inicio, Math.min(tamanho, inicio + limite));
+    }
+
+}
@@ -0,0 +1,47 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.util.Collections;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Links guardados no heap da JVM, num ConcurrentSkipListMap.
+ *
+ * O ConcurrentSkipListMap é lock-free (usa CAS em vez de locks) e mantém as
+ * chaves ordenadas; as leituras nunca esperam por escritas. Cada link ocupa
+ * um record Link, a chave Integer e o nó do mapa: o catálogo inteiro precisa
+ * caber no heap e é percorrido pelo coletor de lixo (GC).
+ */
+public class HeapLinkTable implements LinkTable {
+
+    // mapa ordenado e concorrente: chave é o ID, valor é o link
+    private final ConcurrentSkipListMap<Integer, Link> links = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Link get(int id) {
+        return links.get(id);
+    }
+
+    @Override
+    public void put(Link link) {
+        links.put(link.id(), link);
+    }
+
+    @Override
+    public void remove(int id) {
+        links.remove(id);
+    }
+
+    @Override
+    public Iterable<Link> depoisDe(int id) {
+        // tailMap começa direto no primeiro ID depois de "id", sem percorrer os anteriores
+        return Collections.unmodifiableCollection(links.tailMap(id, false).values());
+    }
+
+    @Override
+    public Iterable<Link> todos() {
+        return Collections.unmodifiableCollection(links.values());
+    }
+
+}
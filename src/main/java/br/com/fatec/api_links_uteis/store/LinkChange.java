@@ -0,0 +1,23 @@
+package br.com.fatec.api_links_uteis.store;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Uma alteração aplicada ao LinkStore (criação, atualização ou remoção).
+ *
+ * É entregue aos LinkChangeListener registrados, que usam o estado anterior
+ * e o novo para manter logs, índices e caches sincronizados com o catálogo.
+ *
+ * @param tipo tipo da alteração
+ * @param id ID do link alterado
+ * @param anterior link antes da alteração, ou null se ele não existia
+ * @param atual link depois da alteração, ou null se ele foi removido
+ * @param versao versão atribuída à alteração (a do link atual, ou a da remoção)
+ */
+public record LinkChange(Tipo tipo, int id, Link anterior, Link atual, long versao) {
+
+    public enum Tipo {
+        CRIACAO, ATUALIZACAO, REMOCAO
+    }
+
+}
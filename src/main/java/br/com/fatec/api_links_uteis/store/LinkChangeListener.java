@@ -0,0 +1,21 @@
+package br.com.fatec.api_links_uteis.store;
+
+/**
+ * Recebe as alterações feitas no LinkStore.
+ *
+ * onChange é chamado antes de a alteração ser aplicada, com a trava do ID
+ * ainda segura: para um mesmo link, as alterações chegam exatamente na ordem
+ * em que são aplicadas. Se o método lançar uma exceção, a alteração é
+ * cancelada e a exceção chega a quem chamou o LinkStore.
+ *
+ * afterChange é chamado depois que a trava foi liberada e pode bloquear
+ * (por exemplo, esperando o fsync do log) sem atrasar outras escritas no mesmo ID.
+ */
+public interface LinkChangeListener {
+
+    void onChange(LinkChange alteracao);
+
+    default void afterChange(LinkChange alteracao) {
+    }
+
+}
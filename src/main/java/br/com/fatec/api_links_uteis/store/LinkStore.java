@@ -0,0 +1,507 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkPage;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+
+/**
+ * Armazenamento em memória dos links úteis, seguro para acesso concorrente.
+ *
+ * Substitui o HashMap que ficava dentro do LinksController: várias requisições
+ * do Tomcat chegam ao mesmo tempo e um HashMap comum perde inserções, gera IDs
+ * repetidos e pode corromper seus buckets.
+ *
+ * Decisões de projeto:
+ * - os links ficam num LinkTable: por padrão o HeapLinkTable, um
+ *   ConcurrentSkipListMap lock-free (usa CAS em vez de locks) e ordenado;
+ *   para catálogos maiores que o heap, o MappedLinkTable guarda os links
+ *   fora do heap, num arquivo mapeado (links.store.engine=mapped). Nos dois,
+ *   as leituras nunca esperam por escritas
+ * - AtomicInteger gera os IDs de forma atômica, sem dois POSTs com o mesmo ID
+ * - cada link é um record imutável; uma escrita troca o valor inteiro em vez de
+ *   alterar um objeto que outra thread pode estar lendo
+ * - escritas no mesmo ID passam por uma trava listrada (uma entre LISTRAS
+ *   travas, escolhida pelo ID), então os LinkChangeListener recebem as
+ *   alterações de cada link na ordem em que foram aplicadas; escritas em IDs
+ *   diferentes quase nunca disputam a mesma trava e não existe trava global
+ * - cada alteração recebe uma versão de um contador global (AtomicLong), com a
+ *   trava do ID segura; a versão de um link só cresce, mesmo se ele for
+ *   removido e criado de novo. O catálogo tem a sua própria versão, que muda
+ *   depois de cada alteração aplicada (veja versao())
+ * - num cluster (veja o pacote cluster), cada nó só entrega em create() os IDs
+ *   que o anel de hash consistente atribui a ele; assim os IDs não se repetem
+ *   entre os nós sem nenhuma coordenação entre eles
+ * - emLote() executa várias escritas e só as conclui no fim (veja
+ *   LinkWriteBatcher): os listeners recebem todos os onChange do lote antes
+ *   dos afterChange, então o lote inteiro espera um único fsync do log
+ * - um índice secundário (UrlIndex) leva cada URL normalizada aos IDs que a
+ *   usam: findByUrl() e a verificação de URLs repetidas não percorrem o
+ *   catálogo. O índice é atualizado com a trava do ID segura, antes dos
+ *   listeners: uma URL recusada (veja UrlsDuplicadas) não chega ao log
+ *
+ * O bean do Spring é criado em LinkStoreConfig, que recupera os dados
+ * persistidos (quando a persistência está habilitada) antes de entregá-lo.
+ */
+public class LinkStore {
+    private static final int LISTRAS = 64; // quantidade de travas de escrita
+    private static final Predicate<Link> SEM_CONDICAO = link -> true;
+
+    // o que fazer quando uma escrita traz uma URL que outro link já tem (links.urls.duplicates)
+    public enum UrlsDuplicadas {
+        PERMITIR, // allow: links diferentes podem ter a mesma URL
+        REJEITAR, // reject: a escrita falha com UrlDuplicadaException
+        ATUALIZAR // upsert: create() substitui o link que já tem a URL; update e patch falham como em REJEITAR
+    }
+
+    // links por ID, no heap ou fora dele (veja LinkTable)
+    private final LinkTable links;
+    // URL normalizada -> IDs, sempre no heap (só hashes de 64 bits, sem as URLs)
+    private final UrlIndex urls;
+    // política para URLs repetidas
+    private final UrlsDuplicadas urlsDuplicadas;
+    // próximo ID a ser entregue por create()
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    // IDs entregues por create() e createAll(); num cluster, nextId também pula os IDs dos outros nós
+    private final LongAdder idsEntregues = new LongAdder();
+    // última versão atribuída a uma alteração
+    private final AtomicLong ultimaVersao = new AtomicLong();
+    // versão do catálogo inteiro: muda sempre depois que uma alteração é aplicada
+    private final AtomicLong versaoCatalogo = new AtomicLong();
+    // travas de escrita; o ID escolhe qual delas usar
+    private final ReentrantLock[] travas = new ReentrantLock[LISTRAS];
+    // interessados nas alterações (log de persistência, índices, caches...)
+    private final List<LinkChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // IDs que create() pode entregar; null quando todos podem (um único nó)
+    private final IntPredicate idsLocais;
+    // quantidade de links; ConcurrentSkipListMap.size() percorreria o mapa inteiro
+    private final AtomicInteger quantidade = new AtomicInteger();
+    // escritas que encontraram a trava do ID ocupada, e o tempo total esperando por ela;
+    // LongAdder espalha as somas entre células, sem as threads disputarem um contador só
+    private final LongAdder esperasPorTrava = new LongAdder();
+    private final LongAdder nanosEsperandoTrava = new LongAdder();
+    // alterações aplicadas pelo lote em andamento nesta thread e ainda não concluídas (veja emLote)
+    private final ThreadLocal<List<LinkChange>> loteAtual = new ThreadLocal<>();
+
+    public LinkStore() {
+        this(null);
+    }
+
+    // idsLocais: IDs que este nó pode criar (os que pertencem a ele no cluster)
+    public LinkStore(IntPredicate idsLocais) {
+        this(idsLocais, new HeapLinkTable());
+    }
+
+    // links: onde os links ficam guardados (no heap ou num arquivo mapeado)
+    public LinkStore(IntPredicate idsLocais, LinkTable links) {
+        this(idsLocais, links, UrlsDuplicadas.PERMITIR);
+    }
+
+    // urlsDuplicadas: se create(), update() e patch() aceitam uma URL que outro link já tem
+    public LinkStore(IntPredicate idsLocais, LinkTable links, UrlsDuplicadas urlsDuplicadas) {
+        this.idsLocais = idsLocais;
+        this.links = links;
+        this.urls = new UrlIndex(links);
+        this.urlsDuplicadas = urlsDuplicadas;
+        for (int i = 0; i < LISTRAS; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    // Registra um interessado nas alterações do catálogo
+    public void addListener(LinkChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    // Lista todos os links em ordem de ID
+    public List<Link> findAll() {
+        List<Link> todos = new ArrayList<>(size());
+        links.todos().forEach(todos::add);
+        return todos;
+    }
+
+    // Busca uma página de até "limite" links com ID maior que "depoisDe"
+    public LinkPage findPage(int depoisDe, int limite) {
+        List<Link> pagina = new ArrayList<>(limite);
+        // a varredura começa direto no primeiro ID depois do cursor, sem percorrer os anteriores
+        for (Link link : links.depoisDe(depoisDe)) {
+            if (pagina.size() == limite) {
+                // ainda há links depois desta página: o último ID vira o cursor
+                return new LinkPage(pagina, pagina.get(limite - 1).id());
+            }
+            pagina.add(link);
+        }
+        return new LinkPage(pagina, null);
+    }
+
+    // Percorre os links com ID maior que "depoisDe", em ordem, sem copiar o catálogo.
+    // O iterador é fracamente consistente: não lança erro se houver escritas
+    // durante a leitura e pode ou não enxergar essas escritas.
+    public Iterable<Link> scan(int depoisDe) {
+        return links.depoisDe(depoisDe);
+    }
+
+    // Busca um link pelo ID, ou null se não existir
+    public Link findById(int id) {
+        return links.get(id);
+    }
+
+    // Busca os links com a URL informada (comparada já normalizada, veja UrlIndex), em ordem de ID
+    public List<Link> findByUrl(String url) {
+        return urls.buscar(url);
+    }
+
+    // Versão do catálogo (ETag da listagem completa).
+    // É incrementada só depois que a alteração entra no mapa: quem lê a versão
+    // e depois os links nunca associa uma versão nova a uma lista antiga.
+    public long versao() {
+        return versaoCatalogo.get();
+    }
+
+    // Cria um link com um ID novo e exclusivo.
+    // Se a URL já pertencer a outro link: lança UrlDuplicadaException (REJEITAR)
+    // ou substitui esse link e o retorna (ATUALIZAR)
+    public Link create(String titulo, String url) {
+        LinkChange criado = inserir(reservarId(), titulo, url);
+        concluirOuAdiar(criado);
+        return criado.atual();
+    }
+
+    // Cria vários links de uma vez, com uma única reserva de uma faixa de IDs.
+    // URLs repetidas seguem a política: REJEITAR deixa o link de fora, ATUALIZAR substitui o existente
+    public List<Link> createAll(List<LinkRequest> dados) {
+        // getAndAdd reserva os IDs [primeiro, primeiro + tamanho) para este lote;
+        // num cluster os IDs do nó não são contíguos e são reservados um a um
+        int primeiro = 0;
+        if (idsLocais == null) {
+            primeiro = nextId.getAndAdd(dados.size());
+            idsEntregues.add(dados.size());
+        }
+        List<LinkChange> alteracoes = new ArrayList<>(dados.size());
+        for (int i = 0; i < dados.size(); i++) {
+            int id = idsLocais == null ? primeiro + i : reservarId();
+            LinkRequest link = dados.get(i);
+            try {
+                alteracoes.add(inserir(id, link.titulo(), link.url()));
+            } catch (UrlDuplicadaException e) {
+                // REJEITAR: o link repetido fica de fora e o resto do lote segue
+            }
+        }
+        // a conclusão fica para o fim: o lote inteiro espera um único fsync do log
+        List<Link> criados = new ArrayList<>(alteracoes.size());
+        for (LinkChange alteracao : alteracoes) {
+            concluir(alteracao);
+            criados.add(alteracao.atual());
+        }
+        return criados;
+    }
+
+    // Substitui (ou cria) o link com o ID informado
+    public Link update(int id, String titulo, String url) {
+        return update(id, titulo, url, SEM_CONDICAO);
+    }
+
+    // Substitui (ou cria) o link só se o estado atual satisfizer "condicao" (ex.: versão esperada);
+    // senão lança VersaoDivergenteException sem alterar nada
+    public Link update(int id, String titulo, String url, Predicate<Link> condicao) {
+        // um PUT em ID ainda não usado não pode colidir com um create() futuro: o próximo ID
+        // avança antes de o link existir, e não só depois do afterChange (ex.: o fsync)
+        avancarProximoId(id + 1);
+        return alterar(id, anterior -> {
+            verificar(id, anterior, condicao);
+            return new Link(id, titulo, url, novaVersao());
+        }).atual();
+    }
+
+    // Atualiza apenas os campos não nulos; retorna null se o link não existir
+    public Link patch(int id, String titulo, String url) {
+        return patch(id, titulo, url, SEM_CONDICAO);
+    }
+
+    // Como patch(), mas só altera se o estado atual satisfizer "condicao";
+    // senão lança VersaoDivergenteException sem alterar nada
+    public Link patch(int id, String titulo, String url, Predicate<Link> condicao) {
+        // a alteração é feita sobre o valor atual com a trava do ID segura,
+        // então dois PATCHs simultâneos em campos diferentes não se sobrescrevem
+        LinkChange alteracao = alterar(id, anterior -> {
+            verificar(id, anterior, condicao);
+            return anterior == null ? null : anterior.comAlteracoes(titulo, url, novaVersao());
+        });
+        return alteracao == null ? null : alteracao.atual();
+    }
+
+    // Grava o link exatamente como veio, com a sua versão (usado na recuperação do log).
+    // A URL não é conferida: o log pode ter URLs repetidas de antes de links.urls.duplicates mudar
+    public void restaurar(Link link) {
+        concluirOuAdiar(aplicar(link.id(), false, anterior -> link));
+        avancarProximoId(link.id() + 1);
+        avancarVersao(link.versao());
+    }
+
+    // Executa as escritas de "escritas" (create, update, patch, delete...) na thread atual,
+    // concluindo todas as alterações só no fim, juntas: cada escrita continua aplicada e
+    // visível assim que retorna, mas os afterChange (ex.: esperar o fsync) rodam uma vez por lote.
+    // As alterações aplicadas são concluídas mesmo se "escritas" lançar uma exceção.
+    public void emLote(Runnable escritas) {
+        List<LinkChange> pendentes = new ArrayList<>();
+        loteAtual.set(pendentes);
+        try {
+            escritas.run();
+        } finally {
+            loteAtual.remove();
+            for (LinkChange mudanca : pendentes) {
+                concluir(mudanca);
+            }
+        }
+    }
+
+    // Executa "acao" sem nenhuma escrita pela metade: segura todas as travas de escrita,
+    // então toda alteração que já avisou os listeners (ex.: já está no log) também já está
+    // no mapa, e nenhuma outra começa até "acao" terminar. Usado pelo snapshot para trocar
+    // o segmento do log; deve ser curta, porque todas as escritas esperam por ela
+    public <T> T comEscritasPausadas(Supplier<T> acao) {
+        // sempre na mesma ordem; as escritas seguram uma trava só, então não há impasse
+        for (ReentrantLock trava : travas) {
+            trava.lock();
+        }
+        try {
+            return acao.get();
+        } finally {
+            for (int i = travas.length - 1; i >= 0; i--) {
+                travas[i].unlock();
+            }
+        }
+    }
+
+    // Remove o link; retorna true se ele existia
+    public boolean delete(int id) {
+        return alterar(id, anterior -> null) != null;
+    }
+
+    // Quantidade de URLs distintas no índice de URLs
+    public int urlsIndexadas() {
+        return urls.tamanho();
+    }
+
+    // Quantidade de links armazenados
+    public int size() {
+        return quantidade.get();
+    }
+
+    // Bytes perdidos no armazenamento (versões antigas e links removidos; veja LinkTable)
+    public long bytesDesperdicados() {
+        return links.bytesDesperdicados();
+    }
+
+    // Próximo ID que create() vai entregar
+    public int proximoId() {
+        return nextId.get();
+    }
+
+    // IDs entregues por create() e createAll() desde que a aplicação subiu
+    // (não conta os IDs descartados por serem de outro nó, nem os criados por PUT ou pela recuperação)
+    public long idsEntregues() {
+        return idsEntregues.sum();
+    }
+
+    // Garante que create() não entregue IDs menores que "minimo" (usado na recuperação do log)
+    public void avancarProximoId(int minimo) {
+        nextId.accumulateAndGet(minimo, Math::max);
+    }
+
+    // Última versão atribuída a uma alteração
+    public long ultimaVersao() {
+        return ultimaVersao.get();
+    }
+
+    // Escritas que precisaram esperar a trava do ID (outra escrita no mesmo ID ou na mesma listra)
+    public long esperasPorTrava() {
+        return esperasPorTrava.sum();
+    }
+
+    // Tempo total, em nanossegundos, que essas escritas esperaram pela trava
+    public long nanosEsperandoTrava() {
+        return nanosEsperandoTrava.sum();
+    }
+
+    // Garante que as próximas versões sejam maiores que "minimo" (usado na recuperação do log)
+    public void avancarVersao(long minimo) {
+        long versao = ultimaVersao.accumulateAndGet(minimo, Math::max);
+        versaoCatalogo.accumulateAndGet(versao, Math::max);
+    }
+
+    // próximo ID livre que pertence a este nó
+    private int reservarId() {
+        // getAndIncrement é atômico: cada thread recebe um ID diferente
+        int id = nextId.getAndIncrement();
+        if (idsLocais != null) {
+            // os IDs de outros nós são descartados; com N nós, cerca de N tentativas por ID
+            while (!idsLocais.test(id)) {
+                id = nextId.getAndIncrement();
+            }
+        }
+        idsEntregues.increment();
+        return id;
+    }
+
+    // chamado dentro de uma alteração, com a trava do ID segura
+    private long novaVersao() {
+        return ultimaVersao.incrementAndGet();
+    }
+
+    private static void verificar(int id, Link anterior, Predicate<Link> condicao) {
+        if (!condicao.test(anterior)) {
+            throw new VersaoDivergenteException(id, anterior);
+        }
+    }
+
+    // aplica a criação do link "id", sem concluir. Com ATUALIZAR, uma URL repetida
+    // substitui o link que já a tem (o ID reservado fica sem uso).
+    // Se o ID já estiver ocupado (um PUT simultâneo o criou depois da reserva), reserva outro
+    private LinkChange inserir(int id, String titulo, String url) {
+        int reservado = id;
+        while (true) {
+            int novo = reservado;
+            try {
+                return aplicar(novo, anterior -> {
+                    if (anterior != null) {
+                        throw IdOcupado.INSTANCIA; // nunca sobrescreve um link existente
+                    }
+                    return new Link(novo, titulo, url, novaVersao());
+                });
+            } catch (IdOcupado e) {
+                idsEntregues.decrement(); // o ID reservado acabou não sendo entregue
+                reservado = reservarId();
+            } catch (UrlDuplicadaException e) {
+                if (urlsDuplicadas != UrlsDuplicadas.ATUALIZAR) {
+                    throw e;
+                }
+                int existente = e.getIdExistente();
+                String normalizada = UrlIndex.normalizar(url);
+                try {
+                    // a URL é conferida de novo com a trava do outro ID segura
+                    return aplicar(existente, anterior -> {
+                        verificar(existente, anterior, link -> link != null && link.url() != null
+                                && UrlIndex.normalizar(link.url()).equals(normalizada));
+                        return new Link(existente, titulo, url, novaVersao());
+                    });
+                } catch (VersaoDivergenteException mudou) {
+                    // o outro link foi removido ou mudou de URL nesse meio tempo: tenta criar de novo
+                }
+            }
+        }
+    }
+
+    // aplica uma alteração e conclui (avisa os listeners depois de liberar a trava);
+    // dentro de emLote a conclusão fica para o fim do lote
+    private LinkChange alterar(int id, UnaryOperator<Link> alteracao) {
+        LinkChange mudanca = aplicar(id, alteracao);
+        concluirOuAdiar(mudanca);
+        return mudanca;
+    }
+
+    private void concluirOuAdiar(LinkChange mudanca) {
+        if (mudanca != null) {
+            List<LinkChange> lote = loteAtual.get();
+            if (lote == null) {
+                concluir(mudanca);
+            } else {
+                lote.add(mudanca);
+            }
+        }
+    }
+
+    private LinkChange aplicar(int id, UnaryOperator<Link> alteracao) {
+        return aplicar(id, urlsDuplicadas != UrlsDuplicadas.PERMITIR, alteracao);
+    }
+
+    // aplica uma alteração no link "id" com a trava do ID segura e avisa os listeners;
+    // retorna null quando nada mudou (ex.: PATCH ou DELETE de um ID inexistente).
+    // Com "urlUnica", uma URL que já pertence a outro link lança UrlDuplicadaException
+    private LinkChange aplicar(int id, boolean urlUnica, UnaryOperator<Link> alteracao) {
+        ReentrantLock trava = travas[Math.floorMod(id, LISTRAS)];
+        // tryLock não espera: só quando a trava está ocupada a espera é medida
+        if (!trava.tryLock()) {
+            long inicio = System.nanoTime();
+            trava.lock();
+            nanosEsperandoTrava.add(System.nanoTime() - inicio);
+            esperasPorTrava.increment();
+        }
+        try {
+            Link anterior = links.get(id);
+            Link atual = alteracao.apply(anterior);
+            if (anterior == null && atual == null) {
+                return null;
+            }
+            LinkChange.Tipo tipo = atual == null ? LinkChange.Tipo.REMOCAO
+                    : anterior == null ? LinkChange.Tipo.CRIACAO : LinkChange.Tipo.ATUALIZACAO;
+            // uma remoção também recebe uma versão, para o log guardar a ordem de tudo
+            long versao = atual == null ? novaVersao() : atual.versao();
+            LinkChange mudanca = new LinkChange(tipo, id, anterior, atual, versao);
+            // a tabela confere o espaço antes de tudo: um link que não cabe (ex.: arquivo mapeado
+            // cheio) é recusado aqui, sem passar pelo índice de URLs nem pelos listeners
+            if (atual != null) {
+                links.reservar(anterior, atual);
+            }
+            try {
+                // o índice de URLs vem antes dos listeners: uma URL recusada não chega ao log
+                urls.trocar(id, anterior, atual, urlUnica);
+                // os listeners são avisados antes de aplicar: se algum falhar, o catálogo não muda
+                try {
+                    for (LinkChangeListener listener : listeners) {
+                        listener.onChange(mudanca);
+                    }
+                } catch (RuntimeException | Error e) {
+                    urls.trocar(id, atual, anterior, false); // desfaz a troca no índice
+                    throw e;
+                }
+                if (atual == null) {
+                    links.remove(id);
+                    quantidade.decrementAndGet();
+                } else {
+                    links.put(atual);
+                    if (anterior == null) {
+                        quantidade.incrementAndGet();
+                    }
+                }
+            } finally {
+                if (atual != null) {
+                    links.liberar(anterior, atual);
+                }
+            }
+            versaoCatalogo.incrementAndGet();
+            return mudanca;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // segunda fase, já sem a trava: pode bloquear (ex.: esperar o fsync do log)
+    private void concluir(LinkChange mudanca) {
+        for (LinkChangeListener listener : listeners) {
+            listener.afterChange(mudanca);
+        }
+    }
+
+    // sinal interno de inserir(): o ID reservado já tem um link. Sem pilha, porque não é um erro
+    private static final class IdOcupado extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final IdOcupado INSTANCIA = new IdOcupado();
+
+        private IdOcupado() {
+            super(null, null, false, false);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.fatec.api_links_uteis.cluster.LinkCluster;
+import br.com.fatec.api_links_uteis.persistence.LinkPersistence;
+
+/**
+ * Configuração do Spring que cria o LinkStore.
+ *
+ * Quando a persistência está habilitada (links.persistence.enabled=true),
+ * os dados do último snapshot e do log são carregados antes de o LinkStore
+ * ser entregue ao LinksController, e toda alteração passa a ser gravada no log.
+ *
+ * Quando o cluster está habilitado (links.cluster.enabled=true), o LinkStore
+ * só cria links com IDs que o anel de hash consistente atribui a este nó.
+ *
+ * links.store.engine escolhe onde os links ficam: "heap" (HeapLinkTable,
+ * padrão) ou "mapped" (MappedLinkTable, fora do heap, num arquivo mapeado em
+ * links.store.mapped.directory).
+ *
+ * links.urls.duplicates decide o que acontece com uma URL que outro link já
+ * tem (comparadas já normalizadas, veja UrlIndex): "allow" (padrão) aceita
+ * links repetidos, como antes do índice de URLs, "reject" recusa a escrita com
+ * 409 e "upsert" faz o POST substituir o link que já tem a URL. Num cluster,
+ * cada nó só confere os seus links.
+ */
+@Configuration // anotação que indica que esta classe declara beans do Spring
+public class LinkStoreConfig {
+
+    @Bean // o objeto retornado vira um bean, injetado onde um LinkStore for pedido
+    public LinkStore linkStore(ObjectProvider<LinkPersistence> persistencia, ObjectProvider<LinkCluster> cluster,
+            @Value("${links.store.engine:heap}") String motor,
+            @Value("${links.store.mapped.directory:data/mapped}") Path diretorioMapeado,
+            @Value("${links.urls.duplicates:allow}") String duplicadas) {
+        LinkTable links = switch (motor) {
+            case "heap" -> new HeapLinkTable();
+            case "mapped" -> new MappedLinkTable(diretorioMapeado);
+            default -> throw new IllegalArgumentException("links.store.engine inválido: " + motor + " (use heap ou mapped)");
+        };
+        LinkStore.UrlsDuplicadas urlsDuplicadas = switch (duplicadas) {
+            case "allow" -> LinkStore.UrlsDuplicadas.PERMITIR;
+            case "reject" -> LinkStore.UrlsDuplicadas.REJEITAR;
+            case "upsert" -> LinkStore.UrlsDuplicadas.ATUALIZAR;
+            default -> throw new IllegalArgumentException(
+                    "links.urls.duplicates inválido: " + duplicadas + " (use allow, reject ou upsert)");
+        };
+        // num cluster, create() só entrega os IDs que pertencem a este nó
+        LinkCluster linkCluster = cluster.getIfAvailable();
+        LinkStore store = new LinkStore(linkCluster == null ? null : linkCluster::local, links, urlsDuplicadas);
+        // getIfAvailable devolve null quando a persistência está desabilitada
+        LinkPersistence linkPersistence = persistencia.getIfAvailable();
+        if (linkPersistence != null) {
+            linkPersistence.recuperar(store);
+        }
+        return store;
+    }
+
+}
@@ -0,0 +1,50 @@
+package br.com.fatec.api_links_uteis.store;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Onde o LinkStore guarda os links (o "motor" de armazenamento).
+ *
+ * - HeapLinkTable: um ConcurrentSkipListMap no heap da JVM (padrão)
+ * - MappedLinkTable: registros fora do heap, num arquivo mapeado na memória,
+ *   para catálogos maiores que o heap
+ *
+ * O LinkStore chama put e remove com a trava do ID segura: escritas no mesmo
+ * ID nunca são simultâneas, mas escritas em IDs diferentes podem ser. As
+ * leituras (get, depoisDe) não usam travas e podem rodar junto com escritas.
+ */
+public interface LinkTable {
+
+    // Busca o link pelo ID, ou null se não existir
+    Link get(int id);
+
+    // Grava (cria ou substitui) o link com o ID dele
+    void put(Link link);
+
+    // Confere, antes de o LinkStore avisar os listeners, que put(atual) vai caber na tabela
+    // ("anterior" é o link que ele substitui, ou null). Se não couber, lança a exceção aqui,
+    // com nada alterado; se couber, o espaço fica reservado até liberar. No heap sempre cabe
+    default void reservar(Link anterior, Link atual) {
+    }
+
+    // Devolve o espaço reservado, depois do put ou quando ele não vai acontecer
+    default void liberar(Link anterior, Link atual) {
+    }
+
+    // Remove o link com o ID informado, se existir
+    void remove(int id);
+
+    // Percorre, em ordem de ID, os links com ID maior que "id".
+    // Fracamente consistente: pode ou não enxergar escritas feitas durante a leitura.
+    Iterable<Link> depoisDe(int id);
+
+    // Percorre todos os links em ordem de ID
+    Iterable<Link> todos();
+
+    // Bytes ocupados por versões antigas e links removidos que ainda não foram liberados.
+    // No heap quem libera é o GC, então o padrão é 0
+    default long bytesDesperdicados() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,721 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Links guardados fora do heap, num arquivo mapeado na memória.
+ *
+ * Com o HeapLinkTable, cada link é um objeto no heap: um catálogo de dezenas
+ * de milhões de links pede um heap enorme e pausas longas do GC, que percorre
+ * todos eles. Aqui os links ficam em memória mapeada (FileChannel.map), que o
+ * GC não percorre; o sistema operacional decide o que fica na RAM e o que
+ * volta para o disco, então o catálogo pode ser maior que o heap.
+ *
+ * Estrutura:
+ * - arquivo de dados (links.dat): registros de tamanho variável, acrescentados
+ *   ao fim e alinhados em 8 bytes:
+ *     long versão | int tamanho do título | título UTF-8 | int tamanho da url | url UTF-8
+ *   (tamanho -1 para null). O arquivo é mapeado em blocos (1 GB por padrão) e
+ *   um registro nunca atravessa dois blocos
+ * - índice ID → posição com endereçamento aberto (sondagem linear), também em
+ *   memória mapeada: cada posição do índice é um long com o ID nos 32 bits
+ *   altos e a posição do registro, em unidades de 8 bytes, nos 32 bits baixos
+ *   (0 = vazia, 0xFFFFFFFF = link removido). Quando passa de 70% de ocupação
+ *   o índice é refeito sem as marcas de removido: no mesmo tamanho, se os
+ *   links atuais couberem com folga, ou com o dobro de posições
+ * - mapa de presença: um bit por ID, em grupos de 65.536 IDs, para percorrer
+ *   os links em ordem de ID (listagem, paginação, streaming e snapshot) sem
+ *   ordenar o índice. Ocupa cerca de 8 KB de heap por 65.536 IDs
+ *
+ * Concorrência: o registro é escrito numa área reservada só para ele (CAS no
+ * fim do arquivo) e só então a posição do índice é publicada com setRelease;
+ * quem lê a posição com getAcquire sempre enxerga o registro completo. As
+ * leituras não usam travas. Posições vazias do índice são ocupadas com CAS,
+ * então escritas em IDs diferentes não se bloqueiam; só o crescimento do
+ * índice para as escritas por um instante.
+ *
+ * Uma alteração grava um registro novo e o anterior vira espaço perdido
+ * (bytesDesperdicados, publicado como links.store.wasted.bytes). Quando o
+ * espaço perdido passa do ocupado pelos links atuais (e de 1/4 de bloco), a
+ * tabela é compactada: os registros atuais são copiados para um arquivo de
+ * dados novo, junto com um índice novo, e o arquivo antigo é descartado. As
+ * escritas param durante a cópia; as leituras continuam no arquivo antigo,
+ * que segue mapeado até ninguém mais usá-lo. Como cada compactação copia no
+ * máximo o que foi perdido desde a anterior, o custo por escrita é constante.
+ *
+ * O arquivo não é durável: é recriado vazio a cada início (a durabilidade
+ * continua com o log de persistência, que o recarrega) e apagado assim que
+ * aberto, então não fica nada no disco depois que o processo termina.
+ *
+ * Limites: 32 GB de registros atuais (posição de 32 bits em unidades de 8
+ * bytes) e 2^27 posições de índice (cerca de 94 milhões de links). Passar
+ * deles lança IllegalStateException na escrita, sem alterar a tabela. O
+ * LinkStore confere o espaço com reservar antes de avisar os listeners (log,
+ * índice de busca): a reserva conta os links e bytes das escritas em
+ * andamento, então um put reservado não falha por falta de espaço e o log
+ * nunca recebe um link que a tabela recusou.
+ */
+public class MappedLinkTable implements LinkTable {
+    private static final int TAMANHO_BLOCO = 1 << 30; // 1 GB por bloco mapeado do arquivo de dados
+    private static final int CAPACIDADE_INICIAL = 1 << 16; // posições do índice
+    private static final int CAPACIDADE_MAXIMA = 1 << 27; // 1 GB de índice, o que cabe num único buffer mapeado
+    private static final long VAZIA = 0;
+    private static final long REMOVIDO = 0xFFFF_FFFFL;
+    private static final long MAXIMO_UNIDADES = REMOVIDO - 1;
+    private static final long MAXIMO_BYTES = MAXIMO_UNIDADES << 3; // registros atuais que cabem no arquivo
+    private static final long CHEIO = 1L << 32; // resposta de gravar quando o índice está cheio (nunca é uma entrada)
+    private static final int BITS_POR_GRUPO = 16; // 65.536 IDs por grupo do mapa de presença
+    // acesso atômico (getAcquire, setRelease, compareAndSet) aos longs do índice mapeado
+    private static final VarHandle POSICOES = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path diretorio;
+    private final int tamanhoBloco;
+    private final int bitsBloco;
+    // espaço perdido a partir do qual a compactação vale a pena
+    private final long desperdicioMinimo;
+
+    // índice atual; ele aponta para o arquivo de dados dos seus registros (veja Dados)
+    private volatile Indice indice;
+    // compartilhada pelas escritas; exclusiva só enquanto o índice é refeito ou os dados compactados
+    private final ReentrantReadWriteLock travaIndice = new ReentrantReadWriteLock();
+    private int geracao; // arquivos de dados já criados; alterado só com a trava exclusiva
+    // mapa de presença: grupo (ID >> 16) → 1.024 longs com um bit por ID
+    private final ConcurrentSkipListMap<Integer, AtomicLongArray> presentes = new ConcurrentSkipListMap<>();
+    // IDs com link, e o espaço reservado pelas escritas em andamento (veja reservar)
+    private final AtomicInteger linksAtuais = new AtomicInteger();
+    private final AtomicInteger idsReservados = new AtomicInteger();
+    private final AtomicLong bytesReservados = new AtomicLong();
+
+    public MappedLinkTable(Path diretorio) {
+        this(diretorio, TAMANHO_BLOCO, CAPACIDADE_INICIAL);
+    }
+
+    // tamanhoBloco e capacidadeInicial precisam ser potências de 2 (os testes usam valores pequenos)
+    public MappedLinkTable(Path diretorio, int tamanhoBloco, int capacidadeInicial) {
+        if (Integer.bitCount(tamanhoBloco) != 1 || Integer.bitCount(capacidadeInicial) != 1) {
+            throw new IllegalArgumentException("Tamanho do bloco e capacidade precisam ser potências de 2");
+        }
+        this.diretorio = diretorio;
+        this.tamanhoBloco = tamanhoBloco;
+        this.bitsBloco = Integer.numberOfTrailingZeros(tamanhoBloco);
+        this.desperdicioMinimo = tamanhoBloco / 4;
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.indice = new Indice(capacidadeInicial, new Dados(diretorio.resolve("links.dat")));
+    }
+
+    @Override
+    public Link get(int id) {
+        Indice atual = indice; // índice e dados da mesma geração, mesmo durante uma compactação
+        long entrada = procurar(atual, id);
+        long unidades = entrada & REMOVIDO;
+        if (unidades == VAZIA || unidades == REMOVIDO) {
+            return null;
+        }
+        return ler(atual.dados, id, unidades << 3);
+    }
+
+    @Override
+    public void reservar(Link anterior, Link atual) {
+        int tamanho = verificarTamanho(atual.id(), tamanhoRegistro(atual));
+        // só um ID novo ocupa mais uma posição do índice
+        if (anterior == null && linksAtuais.get() + idsReservados.incrementAndGet() > limite(CAPACIDADE_MAXIMA)) {
+            idsReservados.decrementAndGet();
+            throw new IllegalStateException("Índice de links cheio (" + limite(CAPACIDADE_MAXIMA) + " links)");
+        }
+        // depois de uma compactação sobram no arquivo só os registros atuais
+        long vivos = indice.dados.vivos.get();
+        if (vivos + bytesReservados.addAndGet(tamanho) > MAXIMO_BYTES) {
+            bytesReservados.addAndGet(-tamanho);
+            if (anterior == null) {
+                idsReservados.decrementAndGet();
+            }
+            throw new IllegalStateException("Arquivo de links cheio (" + vivos + " bytes de links)");
+        }
+    }
+
+    @Override
+    public void liberar(Link anterior, Link atual) {
+        bytesReservados.addAndGet(-tamanhoRegistro(atual));
+        if (anterior == null) {
+            idsReservados.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void put(Link link) {
+        byte[] titulo = utf8(link.titulo());
+        byte[] url = utf8(link.url());
+        int tamanho = verificarTamanho(link.id(), tamanhoRegistro(titulo, url));
+        Dados escrito = null; // arquivo de dados em que o registro já foi escrito
+        long posicao = 0;
+        boolean compactou = false;
+        while (true) {
+            Indice atual;
+            boolean semEspaco;
+            travaIndice.readLock().lock();
+            try {
+                atual = indice;
+                if (escrito != atual.dados) { // primeira tentativa, ou os dados foram compactados
+                    posicao = atual.dados.reservar(tamanho);
+                    if (posicao >= 0) {
+                        escreverRegistro(atual.dados, posicao, link.versao(), titulo, url);
+                        escrito = atual.dados;
+                    }
+                }
+                semEspaco = posicao < 0;
+                if (!semEspaco) {
+                    // só depois do registro completo a posição é publicada no índice
+                    long anterior = gravar(atual, link.id(), ((long) link.id() << 32) | (posicao >>> 3));
+                    if (anterior != CHEIO) {
+                        atual.dados.vivos.addAndGet(tamanho - tamanhoDe(atual.dados, anterior));
+                        if (!viva(anterior)) {
+                            linksAtuais.incrementAndGet();
+                        }
+                        break;
+                    }
+                }
+            } finally {
+                travaIndice.readLock().unlock();
+            }
+            if (semEspaco && compactou) {
+                // nada foi alterado: o link continua como estava
+                throw new IllegalStateException("Arquivo de links cheio (" + atual.dados.vivos.get() + " bytes de links)");
+            }
+            // índice cheio: refaz o índice; arquivo cheio: compacta os dados. Depois tenta de novo
+            reorganizar(atual, semEspaco);
+            compactou |= semEspaco;
+        }
+        marcar(link.id(), true);
+        compactarSeDesperdicar();
+    }
+
+    @Override
+    public void remove(int id) {
+        travaIndice.readLock().lock();
+        try {
+            Indice atual = indice;
+            int i = procurarPosicao(atual, id);
+            if (i >= 0) {
+                long anterior = (long) POSICOES.getAcquire(atual.posicoes, i << 3);
+                // o ID continua na posição (marcado como removido) para não quebrar a sondagem dos outros
+                POSICOES.setRelease(atual.posicoes, i << 3, ((long) id << 32) | REMOVIDO);
+                atual.dados.vivos.addAndGet(-tamanhoDe(atual.dados, anterior));
+                if (viva(anterior)) {
+                    linksAtuais.decrementAndGet();
+                }
+            }
+        } finally {
+            travaIndice.readLock().unlock();
+        }
+        marcar(id, false);
+        compactarSeDesperdicar();
+    }
+
+    @Override
+    public Iterable<Link> depoisDe(int id) {
+        return () -> new Varredura((long) id + 1);
+    }
+
+    @Override
+    public Iterable<Link> todos() {
+        return () -> new Varredura(Integer.MIN_VALUE);
+    }
+
+    // Bytes já ocupados no arquivo de dados (registros atuais e os substituídos)
+    public long bytesOcupados() {
+        return indice.dados.fim.get();
+    }
+
+    // Bytes do arquivo de dados ocupados por versões antigas e links removidos
+    @Override
+    public long bytesDesperdicados() {
+        return indice.dados.desperdicados();
+    }
+
+    // Capacidade do índice (posições), para testes e diagnóstico
+    public int capacidadeIndice() {
+        return indice.capacidade;
+    }
+
+    // entrada do índice com o ID, ou VAZIA se ele nunca foi gravado
+    private static long procurar(Indice atual, int id) {
+        int i = espalhar(id) & atual.mascara;
+        while (true) {
+            long entrada = (long) POSICOES.getAcquire(atual.posicoes, i << 3);
+            if ((entrada & REMOVIDO) == VAZIA) {
+                return VAZIA;
+            }
+            if ((int) (entrada >>> 32) == id) {
+                return entrada;
+            }
+            i = (i + 1) & atual.mascara;
+        }
+    }
+
+    // índice da posição que guarda o ID, ou -1
+    private static int procurarPosicao(Indice atual, int id) {
+        int i = espalhar(id) & atual.mascara;
+        while (true) {
+            long entrada = (long) POSICOES.getAcquire(atual.posicoes, i << 3);
+            if ((entrada & REMOVIDO) == VAZIA) {
+                return -1;
+            }
+            if ((int) (entrada >>> 32) == id) {
+                return i;
+            }
+            i = (i + 1) & atual.mascara;
+        }
+    }
+
+    // grava a entrada do ID e devolve a anterior (VAZIA se não havia);
+    // CHEIO se for preciso ocupar uma posição nova e o índice estiver cheio
+    private static long gravar(Indice atual, int id, long entrada) {
+        boolean reservada = false;
+        int i = espalhar(id) & atual.mascara;
+        while (true) {
+            int deslocamento = i << 3;
+            long existente = (long) POSICOES.getAcquire(atual.posicoes, deslocamento);
+            if ((existente & REMOVIDO) == VAZIA) {
+                // a ocupação é reservada antes do CAS: o índice nunca passa do limite
+                if (!reservada) {
+                    if (atual.ocupadas.incrementAndGet() > atual.limite) {
+                        atual.ocupadas.decrementAndGet();
+                        return CHEIO;
+                    }
+                    reservada = true;
+                }
+                if (POSICOES.compareAndSet(atual.posicoes, deslocamento, VAZIA, entrada)) {
+                    return VAZIA;
+                }
+                continue; // outra escrita ocupou a posição: relê a mesma posição
+            }
+            if ((int) (existente >>> 32) == id) {
+                // a trava do ID está com quem chamou: ninguém mais altera esta posição
+                POSICOES.setRelease(atual.posicoes, deslocamento, entrada);
+                if (reservada) {
+                    atual.ocupadas.decrementAndGet();
+                }
+                return existente;
+            }
+            i = (i + 1) & atual.mascara;
+        }
+    }
+
+    /**
+     * Refaz o índice só com os links atuais (as marcas de removido ficam para
+     * trás) e, com "compactar", copia os registros atuais para um arquivo de
+     * dados novo.
+     *
+     * A capacidade só dobra quando os links atuais passariam da metade do
+     * limite: com muitas criações e remoções o índice é refeito no mesmo
+     * tamanho, em vez de crescer até CAPACIDADE_MAXIMA.
+     */
+    private void reorganizar(Indice anterior, boolean compactar) {
+        travaIndice.writeLock().lock();
+        try {
+            if (indice != anterior) {
+                return; // outra escrita já refez o índice
+            }
+            int vivas = 0;
+            for (int i = 0; i < anterior.capacidade; i++) {
+                if (viva((long) POSICOES.get(anterior.posicoes, i << 3))) {
+                    vivas++;
+                }
+            }
+            int capacidade = anterior.capacidade;
+            while (vivas >= limite(capacidade) / 2 && capacidade < CAPACIDADE_MAXIMA) {
+                capacidade *= 2;
+            }
+            if (vivas >= limite(capacidade)) {
+                throw new IllegalStateException("Índice de links cheio (" + limite(capacidade) + " links)");
+            }
+            Dados dados = compactar ? new Dados(diretorio.resolve("links-" + ++geracao + ".dat")) : anterior.dados;
+            Indice novo = new Indice(capacidade, dados);
+            for (int i = 0; i < anterior.capacidade; i++) {
+                long entrada = (long) POSICOES.get(anterior.posicoes, i << 3);
+                if (!viva(entrada)) {
+                    continue;
+                }
+                if (compactar) {
+                    entrada = (entrada & ~REMOVIDO) | (copiar(anterior.dados, (entrada & REMOVIDO) << 3, dados) >>> 3);
+                }
+                int j = espalhar((int) (entrada >>> 32)) & novo.mascara;
+                while ((long) POSICOES.get(novo.posicoes, j << 3) != VAZIA) {
+                    j = (j + 1) & novo.mascara;
+                }
+                POSICOES.set(novo.posicoes, j << 3, entrada);
+                novo.ocupadas.incrementAndGet();
+            }
+            indice = novo; // volatile: publica o índice completo
+            if (compactar) {
+                // leituras em andamento continuam no mapeamento, que não depende do canal aberto
+                anterior.dados.fechar();
+            }
+        } finally {
+            travaIndice.writeLock().unlock();
+        }
+    }
+
+    // compacta os dados quando o espaço perdido passa do ocupado pelos links atuais
+    private void compactarSeDesperdicar() {
+        Indice atual = indice;
+        long desperdicados = atual.dados.desperdicados();
+        if (desperdicados > desperdicioMinimo && desperdicados > atual.dados.vivos.get()) {
+            reorganizar(atual, true);
+        }
+    }
+
+    // copia o registro em "posicao" de "origem" para o fim de "destino"; devolve a posição nova
+    private long copiar(Dados origem, long posicao, Dados destino) {
+        int tamanho = tamanhoRegistro(origem, posicao);
+        long novaPosicao = destino.reservar(tamanho);
+        if (novaPosicao < 0) {
+            // não acontece: os registros atuais já cabiam no arquivo anterior
+            throw new IllegalStateException("Arquivo de links cheio durante a compactação");
+        }
+        MappedByteBuffer de = origem.blocos[(int) (posicao >>> bitsBloco)];
+        MappedByteBuffer para = destino.blocos[(int) (novaPosicao >>> bitsBloco)];
+        para.put((int) (novaPosicao & (tamanhoBloco - 1)), de, (int) (posicao & (tamanhoBloco - 1)), tamanho);
+        destino.vivos.addAndGet(tamanho);
+        return novaPosicao;
+    }
+
+    private void escreverRegistro(Dados dados, long posicao, long versao, byte[] titulo, byte[] url) {
+        MappedByteBuffer bloco = dados.blocos[(int) (posicao >>> bitsBloco)];
+        int p = (int) (posicao & (tamanhoBloco - 1));
+        bloco.putLong(p, versao);
+        p = escrever(bloco, p + 8, titulo);
+        escrever(bloco, p, url);
+    }
+
+    // decodifica o registro direto do bloco mapeado, sem copiar o registro inteiro antes
+    private Link ler(Dados dados, int id, long posicao) {
+        MappedByteBuffer bloco = dados.blocos[(int) (posicao >>> bitsBloco)];
+        int p = (int) (posicao & (tamanhoBloco - 1));
+        long versao = bloco.getLong(p);
+        int tamanhoTitulo = bloco.getInt(p + 8);
+        String titulo = texto(bloco, p + 12, tamanhoTitulo);
+        int inicioUrl = p + 12 + Math.max(0, tamanhoTitulo);
+        String url = texto(bloco, inicioUrl + 4, bloco.getInt(inicioUrl));
+        return new Link(id, titulo, url, versao);
+    }
+
+    // bytes do registro apontado pela entrada do índice (0 para posição vazia ou link removido)
+    private int tamanhoDe(Dados dados, long entrada) {
+        return viva(entrada) ? tamanhoRegistro(dados, (entrada & REMOVIDO) << 3) : 0;
+    }
+
+    // bytes do registro de um link, já alinhado
+    private static int tamanhoRegistro(Link link) {
+        return tamanhoRegistro(utf8(link.titulo()), utf8(link.url()));
+    }
+
+    private static int tamanhoRegistro(byte[] titulo, byte[] url) {
+        return alinhar(8 + 4 + comprimento(titulo) + 4 + comprimento(url));
+    }
+
+    // um registro nunca atravessa dois blocos
+    private int verificarTamanho(int id, int tamanho) {
+        if (tamanho > tamanhoBloco) {
+            throw new IllegalArgumentException("Link " + id + " ocupa " + tamanho + " bytes, mais que um bloco");
+        }
+        return tamanho;
+    }
+
+    private int tamanhoRegistro(Dados dados, long posicao) {
+        MappedByteBuffer bloco = dados.blocos[(int) (posicao >>> bitsBloco)];
+        int p = (int) (posicao & (tamanhoBloco - 1));
+        int tamanhoTitulo = Math.max(0, bloco.getInt(p + 8));
+        int tamanhoUrl = Math.max(0, bloco.getInt(p + 12 + tamanhoTitulo));
+        return alinhar(8 + 4 + tamanhoTitulo + 4 + tamanhoUrl);
+    }
+
+    // a entrada aponta para um registro (não é posição vazia nem link removido)?
+    private static boolean viva(long entrada) {
+        long unidades = entrada & REMOVIDO;
+        return unidades != VAZIA && unidades != REMOVIDO;
+    }
+
+    private static int limite(int capacidade) {
+        return (int) (capacidade * 0.7);
+    }
+
+    private void marcar(int id, boolean presente) {
+        int grupo = id >> BITS_POR_GRUPO;
+        int bit = id & ((1 << BITS_POR_GRUPO) - 1);
+        long mascara = 1L << bit; // o deslocamento de um long usa só os 6 bits baixos
+        if (presente) {
+            presentes.computeIfAbsent(grupo, g -> new AtomicLongArray(1 << (BITS_POR_GRUPO - 6)))
+                    .getAndAccumulate(bit >>> 6, mascara, (bits, m) -> bits | m);
+        } else {
+            AtomicLongArray bits = presentes.get(grupo);
+            if (bits != null) {
+                bits.getAndAccumulate(bit >>> 6, mascara, (atuais, m) -> atuais & ~m);
+            }
+        }
+    }
+
+    // mistura os bits do ID (IDs seguidos não ficam em posições seguidas do índice)
+    private static int espalhar(int id) {
+        int h = id;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int alinhar(int tamanho) {
+        return (tamanho + 7) & ~7;
+    }
+
+    private static byte[] utf8(String texto) {
+        return texto == null ? null : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int comprimento(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    // escreve int tamanho (-1 para null) e os bytes; retorna a posição seguinte
+    private static int escrever(MappedByteBuffer bloco, int p, byte[] bytes) {
+        bloco.putInt(p, bytes == null ? -1 : bytes.length);
+        if (bytes == null) {
+            return p + 4;
+        }
+        bloco.put(p + 4, bytes);
+        return p + 4 + bytes.length;
+    }
+
+    // os métodos absolutos (get(posição, ...)) não mexem na posição do buffer,
+    // então várias threads leem o mesmo bloco ao mesmo tempo
+    private static String texto(MappedByteBuffer bloco, int p, int tamanho) {
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        bloco.get(p, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // no Windows um arquivo mapeado não pode ser apagado: fica até o próximo início, que o esvazia
+    private static void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            arquivo.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Arquivo de dados: registros acrescentados ao fim, mapeados em blocos.
+     *
+     * Cada compactação cria um Dados novo; o índice guarda o Dados dos seus
+     * registros, então quem lê um índice sempre lê os registros certos.
+     */
+    private final class Dados {
+        final FileChannel canal;
+        // blocos mapeados; o array é trocado inteiro quando um bloco é acrescentado
+        volatile MappedByteBuffer[] blocos = new MappedByteBuffer[0];
+        final ReentrantLock travaBlocos = new ReentrantLock();
+        // próximo byte livre; a posição 0 fica reservada (índice vazio)
+        final AtomicLong fim = new AtomicLong(8);
+        final AtomicLong vivos = new AtomicLong(); // bytes dos registros para os quais o índice aponta
+
+        Dados(Path arquivo) {
+            try {
+                // TRUNCATE_EXISTING: o arquivo não é durável, cada início começa vazio
+                this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            apagar(arquivo);
+        }
+
+        // reserva "tamanho" bytes no fim, sem atravessar dois blocos; -1 se o arquivo estiver cheio
+        long reservar(int tamanho) {
+            while (true) {
+                long atual = fim.get();
+                long inicio = atual;
+                long noBloco = inicio & (tamanhoBloco - 1);
+                if (noBloco + tamanho > tamanhoBloco) {
+                    inicio += tamanhoBloco - noBloco; // o resto do bloco fica sem uso
+                }
+                if ((inicio + tamanho) >>> 3 > MAXIMO_UNIDADES) {
+                    return -1;
+                }
+                if (fim.compareAndSet(atual, inicio + tamanho)) {
+                    mapearAte((int) (inicio >>> bitsBloco));
+                    return inicio;
+                }
+            }
+        }
+
+        // garante que o bloco "numero" (e os anteriores) estejam mapeados
+        void mapearAte(int numero) {
+            if (numero < blocos.length) {
+                return;
+            }
+            travaBlocos.lock();
+            try {
+                MappedByteBuffer[] atuais = blocos;
+                if (numero < atuais.length) {
+                    return;
+                }
+                MappedByteBuffer[] novos = Arrays.copyOf(atuais, numero + 1);
+                for (int n = atuais.length; n <= numero; n++) {
+                    // mapear além do fim aumenta o arquivo; a parte ainda não escrita não ocupa disco
+                    novos[n] = canal.map(FileChannel.MapMode.READ_WRITE, (long) n * tamanhoBloco, tamanhoBloco);
+                }
+                blocos = novos;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                travaBlocos.unlock();
+            }
+        }
+
+        // versões antigas, links removidos, sobras no fim dos blocos e registros ainda não publicados
+        long desperdicados() {
+            return Math.max(0, fim.get() - 8 - vivos.get());
+        }
+
+        void fechar() {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // índice de endereçamento aberto, mapeado num arquivo temporário
+    private final class Indice {
+        final MappedByteBuffer posicoes;
+        final int capacidade;
+        final int mascara;
+        final int limite; // 70% da capacidade
+        final AtomicInteger ocupadas = new AtomicInteger(); // posições com ID, inclusive removidos
+        final Dados dados; // arquivo com os registros para os quais as posições apontam
+
+        Indice(int capacidade, Dados dados) {
+            this.capacidade = capacidade;
+            this.mascara = capacidade - 1;
+            this.limite = limite(capacidade);
+            this.dados = dados;
+            try {
+                Path arquivo = Files.createTempFile(diretorio, "indice-", ".idx");
+                try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    // o arquivo novo é lido como zeros: todas as posições começam vazias
+                    this.posicoes = canal.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacidade << 3);
+                }
+                // o mapeamento continua válido depois de fechar o canal e apagar o arquivo
+                apagar(arquivo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // percorre o mapa de presença em ordem de ID, a partir de "inicio" (inclusive)
+    private final class Varredura implements Iterator<Link> {
+        private final Iterator<Map.Entry<Integer, AtomicLongArray>> grupos;
+        private int grupo;
+        private AtomicLongArray bits;
+        private int proximoBit;
+        private Link proximo;
+
+        Varredura(long inicio) {
+            if (inicio > Integer.MAX_VALUE) {
+                this.grupos = Collections.emptyIterator();
+                return;
+            }
+            int primeiro = (int) inicio;
+            this.grupos = presentes.tailMap(primeiro >> BITS_POR_GRUPO, true).entrySet().iterator();
+            if (grupos.hasNext()) {
+                Map.Entry<Integer, AtomicLongArray> entrada = grupos.next();
+                grupo = entrada.getKey();
+                bits = entrada.getValue();
+                proximoBit = grupo == primeiro >> BITS_POR_GRUPO ? primeiro & ((1 << BITS_POR_GRUPO) - 1) : 0;
+            }
+            avancar();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return proximo != null;
+        }
+
+        @Override
+        public Link next() {
+            if (proximo == null) {
+                throw new NoSuchElementException();
+            }
+            Link atual = proximo;
+            avancar();
+            return atual;
+        }
+
+        // procura o próximo bit ligado cujo link ainda existe
+        private void avancar() {
+            proximo = null;
+            while (bits != null) {
+                int palavra = proximoBit >>> 6;
+                if (palavra < bits.length()) {
+                    long ligados = bits.get(palavra) & (-1L << (proximoBit & 63));
+                    if (ligados == 0) {
+                        proximoBit = (palavra + 1) << 6;
+                        continue;
+                    }
+                    int bit = (palavra << 6) + Long.numberOfTrailingZeros(ligados);
+                    proximoBit = bit + 1;
+                    // o link pode ter sido removido depois que o bit foi lido
+                    Link link = get((grupo << BITS_POR_GRUPO) | bit);
+                    if (link != null) {
+                        proximo = link;
+                        return;
+                    }
+                    continue;
+                }
+                if (grupos.hasNext()) {
+                    Map.Entry<Integer, AtomicLongArray> entrada = grupos.next();
+                    grupo = entrada.getKey();
+                    bits = entrada.getValue();
+                    proximoBit = 0;
+                } else {
+                    bits = null;
+                }
+            }
+        }
+    }
+
+}
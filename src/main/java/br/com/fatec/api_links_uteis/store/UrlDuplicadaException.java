@@ -0,0 +1,25 @@
+package br.com.fatec.api_links_uteis.store;
+
+/**
+ * Lançada quando uma escrita daria a um link uma URL que outro link já tem
+ * (com links.urls.duplicates=reject ou upsert; veja LinkStore.UrlsDuplicadas).
+ *
+ * Nada é alterado: a URL é conferida no índice de URLs antes de a alteração
+ * ser aplicada e antes de os listeners serem avisados.
+ */
+public class UrlDuplicadaException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int idExistente;
+
+    public UrlDuplicadaException(String url, int idExistente) {
+        super("A URL " + url + " já pertence ao link " + idExistente);
+        this.idExistente = idExistente;
+    }
+
+    // ID do link que já tem a URL
+    public int getIdExistente() {
+        return idExistente;
+    }
+
+}
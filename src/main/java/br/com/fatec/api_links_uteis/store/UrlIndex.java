@@ -0,0 +1,217 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Índice secundário do LinkStore: URL normalizada -> IDs dos links.
+ *
+ * Responde GET /api/links?url= e a verificação de URLs repetidas sem
+ * percorrer o catálogo. Para gastar pouca memória, o índice não guarda as
+ * URLs: a chave é um hash de 64 bits da URL normalizada e o valor são os IDs
+ * com esse hash (quase sempre um só). Dois textos diferentes com o mesmo hash
+ * são separados conferindo a URL do próprio link no LinkTable.
+ *
+ * Normalização (veja normalizar): esquema e host em minúsculas, sem a porta
+ * padrão (80 no http, 443 no https) e sem barras no fim do caminho, então
+ * "HTTPS://GitHub.com/" e "https://github.com" são a mesma URL. O caminho,
+ * a query e o fragmento mantêm as maiúsculas.
+ *
+ * O LinkStore chama trocar com a trava do ID segura, antes de aplicar a
+ * alteração: para um mesmo ID as trocas nunca são simultâneas. Cada hash é
+ * alterado com ConcurrentHashMap.compute, então conferir se a URL já tem
+ * dono e registrar o ID novo é uma operação atômica, mesmo com dois links
+ * (de travas diferentes) disputando a mesma URL.
+ */
+public class UrlIndex {
+    private static final long FNV_INICIAL = 0xCBF29CE484222325L;
+    private static final long FNV_PRIMO = 0x100000001B3L;
+
+    // onde o LinkStore guarda os links; usado para conferir a URL de cada candidato
+    private final LinkTable links;
+    // hash da URL normalizada -> IDs com esse hash, em ordem crescente
+    private final ConcurrentHashMap<Long, int[]> ids = new ConcurrentHashMap<>();
+
+    public UrlIndex(LinkTable links) {
+        this.links = links;
+    }
+
+    /**
+     * Links cuja URL normalizada é igual à de "url", em ordem de ID.
+     *
+     * Uma alteração em andamento (ainda não aplicada ao LinkTable) pode ou
+     * não aparecer, como nas demais leituras do LinkStore.
+     */
+    public List<Link> buscar(String url) {
+        if (url == null || url.isBlank()) {
+            return List.of();
+        }
+        String normalizada = normalizar(url);
+        int[] candidatos = ids.get(hash(normalizada));
+        if (candidatos == null) {
+            return List.of();
+        }
+        List<Link> encontrados = new ArrayList<>(candidatos.length);
+        for (int id : candidatos) {
+            Link link = links.get(id);
+            // confere o texto: outro link pode ter o mesmo hash (colisão) ou estar mudando de URL
+            if (link != null && link.url() != null && normalizar(link.url()).equals(normalizada)) {
+                encontrados.add(link);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * Troca a URL do link "id" no índice: de anterior.url() para atual.url()
+     * (anterior null numa criação, atual null numa remoção).
+     *
+     * Com "unica", lança UrlDuplicadaException se a URL nova já pertencer a
+     * outro link; nesse caso o índice não muda. Chamado pelo LinkStore com a
+     * trava do ID segura.
+     */
+    void trocar(int id, Link anterior, Link atual, boolean unica) {
+        String de = anterior == null ? null : chave(anterior.url());
+        String para = atual == null ? null : chave(atual.url());
+        if (de != null && de.equals(para)) {
+            return; // a URL não mudou (ex.: PATCH só do título)
+        }
+        // a URL nova entra primeiro: se ela tiver dono, nada foi alterado ainda
+        if (para != null) {
+            long hash = hash(para);
+            ids.compute(hash, (chave, existentes) -> {
+                if (unica && existentes != null) {
+                    for (int outro : existentes) {
+                        if (outro != id && ocupa(outro, para, hash)) {
+                            throw new UrlDuplicadaException(atual.url(), outro);
+                        }
+                    }
+                }
+                return adicionar(existentes, id);
+            });
+        }
+        if (de != null) {
+            // devolve null quando o último ID sai: o ConcurrentHashMap apaga a entrada
+            ids.computeIfPresent(hash(de), (chave, existentes) -> remover(existentes, id));
+        }
+    }
+
+    // Quantidade de hashes distintos no índice (quase sempre, de URLs distintas)
+    public int tamanho() {
+        return ids.size();
+    }
+
+    /**
+     * Forma canônica da URL, usada para comparar URLs e calcular o hash.
+     *
+     * Esquema e host (depois de um eventual "usuario@") em minúsculas, sem a
+     * porta padrão do esquema e sem as barras do fim do caminho. Sem "://", o
+     * texto até a primeira "/" é tratado como host ("GitHub.com/x" vira
+     * "github.com/x").
+     */
+    public static String normalizar(String url) {
+        String texto = url.strip();
+        int separador = texto.indexOf("://");
+        String esquema = separador < 0 ? "" : texto.substring(0, separador).toLowerCase(Locale.ROOT);
+        int inicioHost = separador < 0 ? 0 : separador + 3;
+        int fimHost = inicioHost;
+        while (fimHost < texto.length() && "/?#".indexOf(texto.charAt(fimHost)) < 0) {
+            fimHost++;
+        }
+        String autoridade = texto.substring(inicioHost, fimHost);
+        int arroba = autoridade.lastIndexOf('@') + 1; // o usuário diferencia maiúsculas; o host não
+        String host = autoridade.substring(arroba).toLowerCase(Locale.ROOT);
+        if (esquema.equals("http") && host.endsWith(":80")) {
+            host = host.substring(0, host.length() - 3);
+        } else if (esquema.equals("https") && host.endsWith(":443")) {
+            host = host.substring(0, host.length() - 4);
+        }
+        int fimCaminho = fimHost;
+        while (fimCaminho < texto.length() && "?#".indexOf(texto.charAt(fimCaminho)) < 0) {
+            fimCaminho++;
+        }
+        int semBarras = fimCaminho;
+        while (semBarras > fimHost && texto.charAt(semBarras - 1) == '/') {
+            semBarras--;
+        }
+        StringBuilder normalizada = new StringBuilder(texto.length());
+        if (separador >= 0) {
+            normalizada.append(esquema).append("://");
+        }
+        return normalizada.append(autoridade, 0, arroba).append(host)
+                .append(texto, fimHost, semBarras)
+                .append(texto, fimCaminho, texto.length())
+                .toString();
+    }
+
+    // URL normalizada, ou null quando o link não tem URL (não entra no índice)
+    private static String chave(String url) {
+        return url == null || url.isBlank() ? null : normalizar(url);
+    }
+
+    // O link "outro", que está no índice com este hash, tem mesmo a URL "normalizada"?
+    private boolean ocupa(int outro, String normalizada, long hash) {
+        Link link = links.get(outro);
+        if (link == null || link.url() == null) {
+            // criação ainda não aplicada: o outro link entrou no índice e está com a trava dele
+            return true;
+        }
+        String dele = normalizar(link.url());
+        // hash diferente: o LinkTable ainda tem a URL antiga, o outro link está mudando para esta;
+        // hash igual e texto diferente: só uma colisão, a URL não é a mesma
+        return dele.equals(normalizada) || hash(dele) != hash;
+    }
+
+    // FNV-1a de 64 bits dos caracteres, seguido da mistura final do MurmurHash3
+    static long hash(String normalizada) {
+        long h = FNV_INICIAL;
+        for (int i = 0; i < normalizada.length(); i++) {
+            h ^= normalizada.charAt(i);
+            h *= FNV_PRIMO;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    // cópia com "id" incluído (os arrays do mapa nunca são alterados, só substituídos)
+    private static int[] adicionar(int[] existentes, int id) {
+        if (existentes == null) {
+            return new int[] { id };
+        }
+        int posicao = Arrays.binarySearch(existentes, id);
+        if (posicao >= 0) {
+            return existentes;
+        }
+        posicao = -posicao - 1;
+        int[] novos = new int[existentes.length + 1];
+        System.arraycopy(existentes, 0, novos, 0, posicao);
+        novos[posicao] = id;
+        System.arraycopy(existentes, posicao, novos, posicao + 1, existentes.length - posicao);
+        return novos;
+    }
+
+    // cópia sem "id", ou null se não sobrar nenhum
+    private static int[] remover(int[] existentes, int id) {
+        int posicao = Arrays.binarySearch(existentes, id);
+        if (posicao < 0) {
+            return existentes;
+        }
+        if (existentes.length == 1) {
+            return null;
+        }
+        int[] novos = new int[existentes.length - 1];
+        System.arraycopy(existentes, 0, novos, 0, posicao);
+        System.arraycopy(existentes, posicao + 1, novos, posicao, novos.length - posicao);
+        return novos;
+    }
+
+}
@@ -0,0 +1,28 @@
+package br.com.fatec.api_links_uteis.store;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Lançada quando uma alteração condicional encontra o link numa versão
+ * diferente da esperada (outra requisição alterou ou removeu o link antes).
+ *
+ * Nada é alterado: a verificação e a escrita acontecem com a trava do ID segura.
+ */
+public class VersaoDivergenteException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Link atual;
+
+    public VersaoDivergenteException(int id, Link atual) {
+        super(atual == null
+                ? "Link " + id + " não existe"
+                : "Link " + id + " está na versão " + atual.versao());
+        this.atual = atual;
+    }
+
+    // Link no estado atual, ou null se ele não existe
+    public Link getAtual() {
+        return atual;
+    }
+
+}
@@ -0,0 +1,56 @@
+package br.com.fatec.api_links_uteis.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import br.com.fatec.api_links_uteis.batch.LinkWriteBatcher;
+import br.com.fatec.api_links_uteis.cache.LinkResponseCache;
+import br.com.fatec.api_links_uteis.controller.LinksController;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics;
+import br.com.fatec.api_links_uteis.store.LinkStoreConfig;
+
+/**
+ * Testes de integração do AdmissionFilter na frente do LinksController.
+ *
+ * O @WebMvcTest registra os filtros do Servlet junto com o controller; com
+ * links.admission.enabled=true o AdmissionFilter entra na cadeia. Cada
+ * cliente (cabeçalho X-Api-Key) tem uma rajada de 3 requisições e repõe
+ * uma ficha por minuto.
+ */
+@WebMvcTest(controllers = LinksController.class, properties = {
+        "links.admission.enabled=true",
+        "links.admission.client-header=X-Api-Key",
+        "links.admission.rate-per-second=0.0167",
+        "links.admission.burst=3" })
+@Import({ LinkStoreConfig.class, LinkResponseCache.class, LinkMetrics.class, LinkWriteBatcher.class })
+class AdmissionFilterIT {
+
+    @Autowired // injeta a dependência do MockMvc
+    private MockMvc mockMvc;
+
+    // 1. Teste de limite: leituras e escritas gastam as fichas do cliente; sem fichas a resposta é 429
+    @Test
+    void deveResponder429QuandoOClienteEsgotarAsFichas() throws Exception {
+        mockMvc.perform(get("/api/links").header("X-Api-Key", "inundador")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/links/1").header("X-Api-Key", "inundador")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/links").header("X-Api-Key", "inundador")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"titulo\":\"Novo\",\"url\":\"https://novo.com\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/links").header("X-Api-Key", "inundador"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+        // os outros clientes continuam sendo atendidos
+        mockMvc.perform(get("/api/links/1").header("X-Api-Key", "comportado")).andExpect(status().isOk());
+    }
+
+}
@@ -0,0 +1,152 @@
+package br.com.fatec.api_links_uteis.admission;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.cluster.LinkCluster;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Testes unitários para o AdmissionFilter.
+ *
+ * Chamam o filtro direto, com requisições e respostas simuladas do Spring
+ * (MockHttpServletRequest), sem subir o servidor.
+ */
+class AdmissionFilterTest {
+
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry(); // registro de métricas em memória
+
+    // 1. Teste do limite por cliente: a rajada passa, o excesso recebe 429, outro cliente não é afetado
+    @Test
+    void deveLimitarCadaClienteSeparadamente() throws Exception {
+        AdmissionFilter filtro = filtro("X-Api-Key", 1, 3, 64, cluster());
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, executar(filtro, requisicao("GET", "/api/links", "cliente-a")).getStatus());
+        }
+        MockHttpServletResponse recusada = executar(filtro, requisicao("POST", "/api/links", "cliente-a"));
+        assertEquals(429, recusada.getStatus());
+        assertEquals("1", recusada.getHeader("Retry-After"));
+
+        assertEquals(200, executar(filtro, requisicao("GET", "/api/links/1", "cliente-b")).getStatus());
+        // repassada por outro nó do cluster: a ficha já foi gasta lá
+        MockHttpServletRequest repassada = requisicao("GET", "/api/links/1", "cliente-a");
+        repassada.setRemoteAddr("10.0.0.2");
+        repassada.addHeader(LinkCluster.CABECALHO_ENCAMINHADO, "http://10.0.0.2:8080");
+        assertEquals(200, executar(filtro, repassada).getStatus());
+        // fora dos caminhos do LinksController o filtro não atua
+        assertEquals(200, executar(filtro, requisicao("GET", "/api/links/search", "cliente-a")).getStatus());
+
+        assertEquals(5.0, registro.get("links.admission.decisions").tag("decisao", "aceita").counter().count());
+        assertEquals(1.0, registro.get("links.admission.decisions").tag("decisao", "limite_cliente").counter().count());
+        assertEquals(2.0, registro.get("links.admission.clients").gauge().value());
+    }
+
+    // 2. Teste do cabeçalho de repasse: de fora do cluster, ou sem cluster, ele não livra do limite
+    @Test
+    void deveLimitarQuemEnviaOCabecalhoDeRepasseSemSerUmNo() throws Exception {
+        AdmissionFilter comCluster = filtro("X-Api-Key", 1, 1, 64, cluster());
+        AdmissionFilter semCluster = filtro("X-Api-Key", 1, 1, 64, null);
+
+        for (AdmissionFilter filtro : List.of(comCluster, semCluster)) {
+            assertEquals(200, executar(filtro, requisicao("GET", "/api/links", "cliente-a")).getStatus());
+            MockHttpServletRequest forjada = requisicao("GET", "/api/links", "cliente-a");
+            forjada.setRemoteAddr("203.0.113.7"); // não é o endereço de nenhum nó
+            forjada.addHeader(LinkCluster.CABECALHO_ENCAMINHADO, "http://10.0.0.2:8080");
+            assertEquals(429, executar(filtro, forjada).getStatus());
+        }
+    }
+
+    // 3. Teste de sobrecarga: com todas as vagas ocupadas, a próxima requisição recebe 503 sem esperar
+    @Test
+    void deveRecusarQuandoOLimiteDeSimultaneasForAtingido() throws Exception {
+        AdmissionFilter filtro = filtro("", 0, 1, 1, null);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        HttpServlet lento = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                dentro.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<?> ocupada = executor.submit(() -> {
+                filtro.doFilter(requisicao("GET", "/api/links", null), new MockHttpServletResponse(),
+                        new MockFilterChain(lento));
+                return null;
+            });
+            dentro.await();
+            assertEquals(1.0, registro.get("links.admission.inflight").gauge().value());
+
+            MockHttpServletResponse recusada = executar(filtro, requisicao("GET", "/api/links", null));
+            assertEquals(503, recusada.getStatus());
+            assertEquals("1", recusada.getHeader("Retry-After"));
+
+            liberar.countDown();
+            ocupada.get();
+        }
+        assertEquals(200, executar(filtro, requisicao("GET", "/api/links", null)).getStatus());
+        assertEquals(1.0, registro.get("links.admission.decisions").tag("decisao", "sobrecarga").counter().count());
+        assertNull(registro.find("links.admission.clients").gauge()); // taxa 0: sem limite por cliente
+    }
+
+    // filtro com limite de simultâneas fixo (inicial = mínimo = máximo) e latência alvo alta
+    private AdmissionFilter filtro(String cabecalho, double taxa, int capacidade, int simultaneas, LinkCluster cluster) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (cluster != null) {
+            beans.addBean("linkCluster", cluster);
+        }
+        ObjectProvider<LinkCluster> provedor = beans.getBeanProvider(LinkCluster.class);
+        AdmissionFilter filtro = new AdmissionFilter(cabecalho, taxa, capacidade, 1000,
+                simultaneas, simultaneas, simultaneas, 10_000, provedor);
+        filtro.bindTo(registro);
+        return filtro;
+    }
+
+    // cluster de dois nós, sem segredo: vale o IP do outro nó (10.0.0.2)
+    private static LinkCluster cluster() {
+        return new LinkCluster(List.of("http://10.0.0.1:8080", "http://10.0.0.2:8080"), "http://10.0.0.1:8080",
+                16, "", new ObjectMapper());
+    }
+
+    private static MockHttpServletRequest requisicao(String metodo, String caminho, String cliente) {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest(metodo, caminho);
+        if (cliente != null) {
+            requisicao.addHeader("X-Api-Key", cliente);
+        }
+        return requisicao;
+    }
+
+    private static MockHttpServletResponse executar(AdmissionFilter filtro, MockHttpServletRequest requisicao)
+            throws Exception {
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        filtro.doFilter(requisicao, resposta, new MockFilterChain());
+        return resposta;
+    }
+
+}
@@ -0,0 +1,53 @@
+package br.com.fatec.api_links_uteis.admission;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários para o ConcurrencyLimit.
+ *
+ * O tempo é passado explicitamente (em nanos), sem esperas de verdade.
+ */
+class ConcurrencyLimitTest {
+
+    // 1. Teste de ajuste: recusa acima do limite, reduz com lentidão e cresce com respostas rápidas
+    @Test
+    void deveAjustarOLimiteDeSimultaneasPelaLatencia() {
+        long alvo = TimeUnit.MILLISECONDS.toNanos(50);
+        ConcurrencyLimit limite = new ConcurrencyLimit(10, 2, 20, 50);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limite.tentarEntrar());
+        }
+        assertFalse(limite.tentarEntrar());
+
+        // as 10 em andamento terminam lentas ao mesmo tempo: só uma redução (10 -> 9)
+        for (int i = 0; i < 10; i++) {
+            limite.sair(0, 2 * alvo);
+        }
+        assertEquals(9, limite.limite());
+        assertEquals(0, limite.emAndamento());
+
+        // uma requisição que entrou depois da redução e também foi lenta reduz de novo
+        assertTrue(limite.tentarEntrar());
+        limite.sair(3 * alvo, 5 * alvo);
+        assertEquals(8, limite.limite()); // 9 * 0,9 = 8,1
+
+        // respostas rápidas com o limite em uso fazem o limite crescer, até o máximo
+        for (int rodada = 0; rodada < 200; rodada++) {
+            int vagas = limite.limite();
+            for (int i = 0; i < vagas; i++) {
+                limite.tentarEntrar();
+            }
+            for (int i = 0; i < vagas; i++) {
+                limite.sair(10 * alvo, 10 * alvo + 1);
+            }
+        }
+        assertEquals(20, limite.limite());
+    }
+
+}
@@ -0,0 +1,61 @@
+package br.com.fatec.api_links_uteis.admission;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários para o TokenBucket.
+ *
+ * O tempo é passado explicitamente (em nanos), sem esperas de verdade.
+ */
+class TokenBucketTest {
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    // 1. Teste de rajada e reposição: gasta a capacidade, recusa e volta a aceitar na taxa configurada
+    @Test
+    void deveAceitarARajadaEDepoisATaxa() {
+        TokenBucket balde = new TokenBucket(10, 5, 0); // 10 por segundo, rajada de 5
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, balde.tentarConsumir(0));
+        }
+        long falta = balde.tentarConsumir(0);
+        assertEquals(SEGUNDO / 10, falta); // a próxima ficha chega em 100 ms
+        assertEquals(0, balde.fichas(0));
+
+        assertEquals(0, balde.tentarConsumir(falta));
+        assertTrue(balde.tentarConsumir(falta) > 0);
+        // parado por muito tempo, o balde enche até a capacidade e não além dela
+        assertEquals(5, balde.fichas(100 * SEGUNDO));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, balde.tentarConsumir(100 * SEGUNDO));
+        }
+        assertTrue(balde.tentarConsumir(100 * SEGUNDO) > 0);
+    }
+
+    // 2. Teste de concorrência: threads disputando o mesmo balde não gastam mais fichas do que existem
+    @Test
+    void naoDeveEntregarFichasAMaisSobConcorrencia() {
+        TokenBucket balde = new TokenBucket(1, 1_000, 0); // 1 por segundo: no instante 0 só há a rajada
+        AtomicInteger aceitas = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (balde.tentarConsumir(0) == 0) {
+                            aceitas.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        assertEquals(1_000, aceitas.get());
+    }
+
+}
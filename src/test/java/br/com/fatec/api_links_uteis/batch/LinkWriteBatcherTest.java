@@ -0,0 +1,154 @@
+package br.com.fatec.api_links_uteis.batch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.VersaoDivergenteException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes unitários para o LinkWriteBatcher.
+ *
+ * Verificam que escritas simultâneas são aplicadas em lotes, que cada
+ * chamador recebe o seu próprio resultado (ou a sua própria exceção) e que,
+ * desligada, a fila executa a escrita na thread de quem chamou.
+ */
+class LinkWriteBatcherTest {
+
+    private final LinkStore store = new LinkStore();
+    private LinkWriteBatcher escritas;
+
+    @AfterEach
+    void encerrar() {
+        escritas.encerrar();
+    }
+
+    // 1. Teste de lotes: 100 criações simultâneas, cada uma recebe o seu link, em menos de 100 lotes
+    @Test
+    void deveDevolverOResultadoDeCadaEscrita() throws Exception {
+        escritas = new LinkWriteBatcher(store, true, 64, 5_000, 10_000);
+        SimpleMeterRegistry registro = new SimpleMeterRegistry(); // registro de métricas em memória
+        escritas.bindTo(registro);
+
+        List<Future<Link>> futuros = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                String titulo = "Link " + i;
+                futuros.add(executor.submit(() -> escritas.executar(() -> store.create(titulo, "https://exemplo.com"))));
+            }
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < futuros.size(); i++) {
+            Link link = futuros.get(i).get();
+            assertEquals("Link " + i, link.titulo()); // o resultado é o da escrita de quem chamou
+            ids.add(link.id());
+        }
+        assertEquals(100, ids.size());
+        assertEquals(100, store.size());
+        DistributionSummary lotes = registro.get("links.write.batch.size").summary();
+        assertEquals(100.0, lotes.totalAmount());
+        assertTrue(lotes.count() < 100, "lotes: " + lotes.count());
+    }
+
+    // 2. Teste de falha isolada: uma escrita com versão divergente não derruba as outras do lote
+    @Test
+    void deveFalharSoAEscritaComVersaoDivergente() {
+        escritas = new LinkWriteBatcher(store, true, 64, 5_000, 10_000);
+        Link link = store.create("GitHub", "https://github.com");
+
+        CompletableFuture<Link> antes = escritas.enviar(() -> store.patch(link.id(), "Antes", null));
+        CompletableFuture<Link> divergente = escritas.enviar(
+                () -> store.patch(link.id(), "Divergente", null, atual -> atual.versao() == link.versao()));
+        CompletableFuture<Link> depois = escritas.enviar(() -> store.create("Depois", "https://depois.com"));
+
+        assertEquals("Antes", antes.join().titulo());
+        CompletionException erro = assertThrows(CompletionException.class, divergente::join);
+        assertInstanceOf(VersaoDivergenteException.class, erro.getCause());
+        assertEquals("Depois", depois.join().titulo());
+        assertEquals("Antes", store.findById(link.id()).titulo());
+        // executar() entrega a exceção da escrita sem o embrulho do CompletableFuture
+        assertThrows(VersaoDivergenteException.class,
+                () -> escritas.executar(() -> store.update(link.id(), "X", "https://x.com", atual -> false)));
+    }
+
+    // 3. Teste desligado: a escrita roda na própria thread de quem chamou
+    @Test
+    void deveExecutarNaPropriaThreadQuandoDesligado() {
+        escritas = new LinkWriteBatcher(store, false, 64, 5_000, 10_000);
+
+        assertSame(Thread.currentThread(), escritas.executar(Thread::currentThread));
+        assertSame(Thread.currentThread(), escritas.enviar(Thread::currentThread).join());
+    }
+
+    // 4. Teste de Error: a escrita que lança um Error falha sozinha e a thread continua atendendo
+    @Test
+    void deveContinuarDepoisDeUmErrorNaEscrita() {
+        escritas = new LinkWriteBatcher(store, true, 64, 0, 10_000);
+
+        assertThrows(StackOverflowError.class, () -> escritas.executar(() -> {
+            throw new StackOverflowError("simulado");
+        }));
+        CompletableFuture<Link> depois = escritas.enviar(() -> store.create("Depois", "https://depois.com"));
+        assertEquals("Depois", depois.orTimeout(5, TimeUnit.SECONDS).join().titulo());
+    }
+
+    // 5. Teste de encerramento: escritas enviadas enquanto a fila é encerrada sempre recebem resposta
+    @Test
+    void deveResponderTodasAsEscritasEnviadasDuranteOEncerramento() throws Exception {
+        escritas = new LinkWriteBatcher(store, true, 64, 0, 10_000);
+        List<CompletableFuture<Link>> futuros = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<List<CompletableFuture<Link>>>> enviados = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                enviados.add(executor.submit(() -> {
+                    List<CompletableFuture<Link>> meus = new ArrayList<>();
+                    for (int i = 0; i < 5_000; i++) {
+                        meus.add(escritas.enviar(() -> store.create("Link", "https://exemplo.com")));
+                    }
+                    return meus;
+                }));
+            }
+            Thread.sleep(2);
+            escritas.encerrar();
+            for (Future<List<CompletableFuture<Link>>> enviado : enviados) {
+                futuros.addAll(enviado.get());
+            }
+        }
+
+        int aplicadas = 0;
+        for (CompletableFuture<Link> futuro : futuros) {
+            // sem resposta, o orTimeout falharia com TimeoutException em vez de IllegalStateException
+            CompletableFuture<Link> respondido = futuro.orTimeout(5, TimeUnit.SECONDS);
+            try {
+                respondido.join();
+                aplicadas++;
+            } catch (CompletionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+        assertEquals(aplicadas, store.size()); // só as escritas respondidas com sucesso foram aplicadas
+        assertTrue(escritas.enviar(() -> store.create("Tarde", null)).isCompletedExceptionally());
+    }
+
+}
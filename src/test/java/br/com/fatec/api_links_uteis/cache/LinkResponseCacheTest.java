@@ -0,0 +1,108 @@
+package br.com.fatec.api_links_uteis.cache;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes unitários para o LinkResponseCache.
+ *
+ * Verificam que o JSON é gerado uma vez e reaproveitado, que cada alteração
+ * invalida só o que mudou, que a listagem respeita o limite de bytes e que as
+ * métricas chegam ao Micrometer.
+ */
+class LinkResponseCacheTest {
+
+    private final LinkStore store = new LinkStore();
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry(); // registro de métricas em memória
+    private final LinkResponseCache cache = new LinkResponseCache(store, new ObjectMapper(), 1 << 20, 1000);
+
+    @BeforeEach
+    void registrar() {
+        cache.registrar(); // o Spring faria isso no @PostConstruct
+    }
+
+    // 1. Teste de acerto: a segunda leitura devolve os mesmos bytes, sem gerar o JSON de novo
+    @Test
+    void deveReaproveitarOJsonDoLink() {
+        cache.bindTo(registro);
+        Link link = store.create("GitHub", "https://github.com");
+
+        byte[] primeiro = cache.link(link);
+        byte[] segundo = cache.link(store.findById(link.id()));
+
+        assertSame(primeiro, segundo);
+        assertEquals("{\"id\":1,\"titulo\":\"GitHub\",\"url\":\"https://github.com\",\"versao\":1}",
+                new String(primeiro, StandardCharsets.UTF_8));
+        assertEquals(1.0, contador("links.respostas", "hit"));
+        assertEquals(1.0, contador("links.respostas", "miss"));
+    }
+
+    // 2. Teste de invalidação: alterar um link troca o JSON dele e o da listagem, e não o dos outros
+    @Test
+    void deveInvalidarSoOQueMudou() {
+        Link github = store.create("GitHub", "https://github.com");
+        Link stack = store.create("Stack Overflow", "https://stackoverflow.com");
+        byte[] jsonStack = cache.link(stack);
+        cache.link(github);
+        byte[] listagem = cache.listagem(store.versao());
+        assertSame(listagem, cache.listagemEmCache(store.versao()));
+
+        Link alterado = store.patch(github.id(), "GitHub Novo", null);
+        assertNull(cache.listagemEmCache(store.versao())); // só consulta: não gera a listagem nova
+
+        assertTrue(new String(cache.link(alterado), StandardCharsets.UTF_8).contains("GitHub Novo"));
+        assertSame(jsonStack, cache.link(stack));
+        String novaListagem = new String(cache.listagem(store.versao()), StandardCharsets.UTF_8);
+        assertTrue(novaListagem.contains("GitHub Novo"));
+        assertTrue(listagem != cache.listagem(store.versao()));
+    }
+
+    // 3. Teste de despejo: com pouco espaço, o cache descarta entradas e conta os despejos
+    @Test
+    void deveDespejarQuandoPassaDoLimite() {
+        LinkResponseCache pequeno = new LinkResponseCache(store, new ObjectMapper(), 4 * 1024, 1000);
+        pequeno.registrar();
+        pequeno.bindTo(registro);
+        for (int i = 0; i < 500; i++) {
+            pequeno.link(store.create("Link " + i, "https://exemplo.com/" + i));
+        }
+
+        assertTrue(registro.get("cache.evictions").tag("cache", "links.respostas").functionCounter().count() > 0);
+    }
+
+    // 4. Teste do limite único: a listagem pesa o seu JSON no mesmo limite de bytes dos links,
+    //    e acima do limite de links ela nem é guardada
+    @Test
+    void deveContarAListagemNoLimiteDeBytes() {
+        for (int i = 0; i < 100; i++) {
+            store.create("Link " + i, "https://exemplo.com/" + i);
+        }
+        // a listagem de 100 links (uns 6 KB) não cabe em 4 KB: é gerada, mas não fica no cache
+        LinkResponseCache pequeno = new LinkResponseCache(store, new ObjectMapper(), 4 * 1024, 1000);
+        assertTrue(pequeno.listagem(store.versao()).length > 4 * 1024);
+        assertNull(pequeno.listagemEmCache(store.versao()));
+        assertTrue(cache.listagemCabeNoCache());
+
+        LinkResponseCache limitado = new LinkResponseCache(store, new ObjectMapper(), 1 << 20, 99);
+        assertFalse(limitado.listagemCabeNoCache());
+    }
+
+    private double contador(String nome, String resultado) {
+        return registro.get("cache.gets").tag("cache", nome).tag("result", resultado).functionCounter().count();
+    }
+
+}
@@ -0,0 +1,131 @@
+package br.com.fatec.api_links_uteis.changes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkChangeEvent;
+import br.com.fatec.api_links_uteis.model.LinkChanges;
+import br.com.fatec.api_links_uteis.store.LinkChange;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Testes unitários para o LinkChangeFeed.
+ *
+ * Verificam a ordem e a continuidade das seqs, a volta do buffer circular
+ * (que obriga o consumidor atrasado a usar um snapshot) e que um consumidor
+ * que aplica os eventos pela versão termina com o mesmo catálogo.
+ */
+class LinkChangeFeedTest {
+
+    private final LinkStore store = new LinkStore();
+
+    // 1. Teste de leitura incremental: cada alteração vira um evento, em ordem, a partir de "since"
+    @Test
+    void deveEntregarAsAlteracoesDepoisDeSince() {
+        LinkChangeFeed feed = new LinkChangeFeed(store, 16);
+        feed.registrar();
+        Link github = store.create("GitHub", "https://github.com");
+        store.patch(github.id(), "GitHub!", null);
+        store.delete(github.id());
+
+        List<LinkChangeEvent> eventos = feed.ler(0, 100);
+        assertEquals(List.of(1L, 2L, 3L), eventos.stream().map(LinkChangeEvent::seq).toList());
+        assertEquals(List.of(LinkChange.Tipo.CRIACAO, LinkChange.Tipo.ATUALIZACAO, LinkChange.Tipo.REMOCAO),
+                eventos.stream().map(LinkChangeEvent::tipo).toList());
+        assertEquals("GitHub!", eventos.get(1).link().titulo());
+        assertNull(eventos.get(2).link());
+
+        assertEquals(List.of(eventos.get(2)), feed.ler(2, 100));
+        assertEquals(List.of(eventos.get(0)), feed.ler(0, 1)); // limite
+        assertEquals(List.of(), feed.ler(3, 100)); // em dia
+        assertNull(feed.ler(4, 100)); // seq desconhecida (ex.: o servidor reiniciou): snapshot
+    }
+
+    // 2. Teste de atraso: depois que o buffer dá a volta, o consumidor atrasado recebe um snapshot
+    @Test
+    void deveExigirSnapshotQuandoOConsumidorFicarParaTras() {
+        LinkChangeFeed feed = new LinkChangeFeed(store, 4);
+        feed.registrar();
+        for (int i = 0; i < 10; i++) {
+            store.create("Link " + i, "https://exemplo.com/" + i);
+        }
+
+        assertNull(feed.ler(5, 100)); // o evento 6 já saiu do buffer de 4
+        assertEquals(4, feed.ler(6, 100).size()); // 7..10 ainda estão
+        LinkChanges snapshot = feed.snapshot();
+        assertTrue(snapshot.snapshot());
+        assertEquals(10, snapshot.seq());
+        assertEquals(10, snapshot.links().size());
+        assertEquals(List.of(), feed.ler(snapshot.seq(), 100));
+    }
+
+    // 3. Teste de consumidor: escritas simultâneas; snapshot no meio + eventos pela versão = catálogo final
+    @Test
+    void deveReconstruirOCatalogoComSnapshotEEventos() throws Exception {
+        LinkChangeFeed feed = new LinkChangeFeed(store, 1 << 16);
+        feed.registrar();
+        for (int i = 0; i < 100; i++) {
+            store.create("Link " + i, "https://exemplo.com/" + i);
+        }
+        Map<Integer, Link> copia = new HashMap<>();
+        Map<Integer, Long> versoes = new HashMap<>();
+        CompletableFuture<LinkChanges> snapshot;
+        try (ExecutorService executor = Executors.newFixedThreadPool(5)) {
+            for (int t = 0; t < 4; t++) {
+                int inicio = t;
+                executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        int id = 1 + (inicio + i * 4) % 100;
+                        if (i % 7 == 0) {
+                            store.delete(id);
+                        } else if (i % 7 == 1) {
+                            store.update(id, "Recriado " + i, "https://recriado.com/" + i);
+                        } else {
+                            store.patch(id, "Alterado " + i, null);
+                        }
+                    }
+                });
+            }
+            // o snapshot é tirado com as escritas em andamento
+            snapshot = CompletableFuture.supplyAsync(feed::snapshot, executor);
+        }
+
+        LinkChanges inicial = snapshot.get();
+        for (Link link : inicial.links()) {
+            copia.put(link.id(), link);
+            versoes.put(link.id(), link.versao());
+        }
+        long seq = inicial.seq();
+        List<LinkChangeEvent> eventos;
+        while (!(eventos = feed.aguardar(seq, 500, TimeUnit.MILLISECONDS.toNanos(10))).isEmpty()) {
+            for (LinkChangeEvent evento : eventos) {
+                // aplica só eventos mais novos que o que a cópia já tem para o ID
+                if (evento.versao() > versoes.getOrDefault(evento.id(), 0L)) {
+                    versoes.put(evento.id(), evento.versao());
+                    if (evento.link() == null) {
+                        copia.remove(evento.id());
+                    } else {
+                        copia.put(evento.id(), evento.link());
+                    }
+                }
+                seq = evento.seq();
+            }
+        }
+
+        Map<Integer, Link> esperado = new HashMap<>();
+        store.findAll().forEach(link -> esperado.put(link.id(), link));
+        assertEquals(esperado, copia);
+    }
+
+}
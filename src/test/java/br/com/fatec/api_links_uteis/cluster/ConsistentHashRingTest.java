@@ -0,0 +1,71 @@
+package br.com.fatec.api_links_uteis.cluster;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários para o ConsistentHashRing.
+ *
+ * Verificam que os IDs se dividem de forma parecida entre os nós e que a
+ * entrada de um nó novo só muda o dono de uma fração dos IDs.
+ */
+class ConsistentHashRingTest {
+    private static final int IDS = 100_000;
+
+    // 1. Teste de distribuição: cada um dos 4 nós fica com perto de 1/4 dos IDs
+    @Test
+    void deveDividirOsIdsDeFormaParecida() {
+        ConsistentHashRing<String> anel = new ConsistentHashRing<>(nos(4), 128);
+
+        Map<String, Integer> porNo = new HashMap<>();
+        for (int id = 1; id <= IDS; id++) {
+            porNo.merge(anel.dono(id), 1, Integer::sum);
+        }
+
+        assertEquals(4, porNo.size());
+        for (int quantidade : porNo.values()) {
+            // 25% ± 5 pontos percentuais
+            assertTrue(quantidade > IDS * 0.20 && quantidade < IDS * 0.30, "desequilibrado: " + porNo);
+        }
+    }
+
+    // 2. Teste de estabilidade: com um quinto nó, só os IDs que vão para ele mudam de dono
+    @Test
+    void deveMoverPoucosIdsQuandoUmNoEntra() {
+        ConsistentHashRing<String> antes = new ConsistentHashRing<>(nos(4), 128);
+        ConsistentHashRing<String> depois = new ConsistentHashRing<>(nos(5), 128);
+
+        int movidos = 0;
+        for (int id = 1; id <= IDS; id++) {
+            if (!antes.dono(id).equals(depois.dono(id))) {
+                movidos++;
+                assertEquals("http://no-5:8080", depois.dono(id));
+            }
+        }
+
+        // o esperado é 1/5; "id % N" moveria cerca de 4/5
+        assertTrue(movidos > IDS * 0.12 && movidos < IDS * 0.28, "movidos: " + movidos);
+    }
+
+    // 3. Teste de consistência: a ordem da lista de nós não muda o dono
+    @Test
+    void deveIgnorarAOrdemDosNos() {
+        ConsistentHashRing<String> anel = new ConsistentHashRing<>(nos(3), 128);
+        ConsistentHashRing<String> invertido = new ConsistentHashRing<>(nos(3).reversed(), 128);
+
+        for (int id = 1; id <= 1000; id++) {
+            assertEquals(anel.dono(id), invertido.dono(id));
+        }
+    }
+
+    private static List<String> nos(int quantidade) {
+        return IntStream.rangeClosed(1, quantidade).mapToObj(i -> "http://no-" + i + ":8080").toList();
+    }
+
+}
@@ -0,0 +1,142 @@
+package br.com.fatec.api_links_uteis.cluster;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.ApiLinksUteisApplication;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkPage;
+
+/**
+ * Testes de integração do cluster com dois nós.
+ *
+ * Sobe duas instâncias completas da aplicação em portas livres, cada uma
+ * conhecendo a outra em links.cluster.nodes, e faz requisições HTTP de
+ * verdade: os links criados em um nó precisam ser encontrados pelo outro.
+ */
+class LinkClusterIT {
+
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final List<ConfigurableApplicationContext> nos = new ArrayList<>();
+    private static final List<String> enderecos = new ArrayList<>();
+
+    @BeforeAll
+    static void subirNos() throws IOException {
+        List<Integer> portas = List.of(portaLivre(), portaLivre());
+        for (int porta : portas) {
+            enderecos.add("http://127.0.0.1:" + porta);
+        }
+        for (int i = 0; i < portas.size(); i++) {
+            // argumentos de linha de comando têm prioridade sobre o application.properties
+            nos.add(new SpringApplicationBuilder(ApiLinksUteisApplication.class)
+                    .run("--server.port=" + portas.get(i),
+                            "--links.cluster.enabled=true",
+                            "--links.cluster.nodes=" + String.join(",", enderecos),
+                            "--links.cluster.self=" + enderecos.get(i),
+                            "--links.seed.enabled=false",
+                            "--logging.level.root=warn"));
+        }
+    }
+
+    @AfterAll
+    static void derrubarNos() {
+        nos.forEach(ConfigurableApplicationContext::close);
+    }
+
+    // 1. Teste de roteamento: links criados nos dois nós são lidos, alterados e listados por qualquer um
+    @Test
+    void deveEncontrarOsLinksDeQualquerNo() throws Exception {
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            String no = enderecos.get(i % 2);
+            HttpResponse<String> criado = enviar("POST", no + "/api/links", "{\"titulo\":\"Link " + i + "\",\"url\":\"https://exemplo.com/" + i + "\"}");
+            assertEquals(200, criado.statusCode());
+            assertTrue(ids.add(objectMapper.readValue(criado.body(), Link.class).id()), "ID repetido entre os nós");
+        }
+
+        for (int id : ids) {
+            for (String no : enderecos) {
+                HttpResponse<String> lido = enviar("GET", no + "/api/links/" + id, null);
+                assertEquals(200, lido.statusCode());
+                assertEquals(id, objectMapper.readValue(lido.body(), Link.class).id());
+            }
+        }
+
+        // PATCH pelo nó que não é o dono, depois leitura pelo outro
+        int id = ids.iterator().next();
+        assertEquals(200, enviar("PATCH", enderecos.get(0) + "/api/links/" + id, "{\"titulo\":\"Alterado\"}").statusCode());
+        Link alterado = objectMapper.readValue(enviar("GET", enderecos.get(1) + "/api/links/" + id, null).body(), Link.class);
+        assertEquals("Alterado", alterado.titulo());
+
+        List<Integer> porNo0 = listarIds(enderecos.get(0));
+        assertTrue(porNo0.containsAll(ids));
+        assertEquals(porNo0.stream().sorted().toList(), porNo0); // em ordem de ID
+        assertEquals(porNo0, listarIds(enderecos.get(1))); // a mesma listagem pelos dois nós
+    }
+
+    // 2. Teste de paginação: as páginas do cluster percorrem os links dos dois nós sem repetir
+    @Test
+    void devePaginarOsLinksDosDoisNos() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            enviar("POST", enderecos.get(0) + "/api/links", "{\"titulo\":\"Página " + i + "\",\"url\":\"https://pagina.com/" + i + "\"}");
+        }
+        List<Link> todos = objectMapper.readValue(enviar("GET", enderecos.get(1) + "/api/links", null).body(),
+                new TypeReference<List<Link>>() { });
+
+        List<Link> paginados = new ArrayList<>();
+        Integer cursor = 0;
+        while (cursor != null) {
+            LinkPage pagina = objectMapper.readValue(
+                    enviar("GET", enderecos.get(1) + "/api/links?after=" + cursor + "&limit=5", null).body(), LinkPage.class);
+            assertTrue(pagina.links().size() <= 5);
+            paginados.addAll(pagina.links());
+            cursor = pagina.proximo();
+        }
+
+        assertEquals(todos, paginados);
+        assertNull(cursor);
+    }
+
+    private static List<Integer> listarIds(String no) throws Exception {
+        List<Link> todos = objectMapper.readValue(enviar("GET", no + "/api/links", null).body(),
+                new TypeReference<List<Link>>() { });
+        return todos.stream().map(Link::id).toList();
+    }
+
+    private static HttpResponse<String> enviar(String metodo, String uri, String corpo) throws Exception {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(uri))
+                .method(metodo, corpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(corpo));
+        if (corpo != null) {
+            requisicao.header("Content-Type", "application/json");
+        }
+        return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+}
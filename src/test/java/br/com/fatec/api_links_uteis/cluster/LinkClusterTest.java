@@ -0,0 +1,52 @@
+package br.com.fatec.api_links_uteis.cluster;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Testes unitários para o LinkCluster.
+ *
+ * Verificam quando o cabeçalho X-Links-Encaminhado é aceito como vindo de
+ * outro nó, com requisições simuladas do Spring (MockHttpServletRequest).
+ */
+class LinkClusterTest {
+    private static final List<String> NOS = List.of("http://127.0.0.1:8080", "http://10.0.0.1:8080", "http://10.0.0.2:8080/");
+
+    // 1. Teste sem segredo: o cabeçalho só vale vindo do IP de outro nó
+    @Test
+    void deveAceitarOCabecalhoSoDoEnderecoDeOutroNo() {
+        LinkCluster cluster = new LinkCluster(NOS, "http://10.0.0.1:8080", 16, "", new ObjectMapper());
+
+        assertTrue(cluster.encaminhadoPorPar(requisicao("10.0.0.2", "http://10.0.0.2:8080")));
+        assertTrue(cluster.encaminhadoPorPar(requisicao("127.0.0.1", "qualquer valor")));
+        assertFalse(cluster.encaminhadoPorPar(requisicao("203.0.113.7", "http://10.0.0.2:8080"))); // cliente de fora
+        assertFalse(cluster.encaminhadoPorPar(requisicao("10.0.0.1", "http://10.0.0.1:8080"))); // o próprio nó não é par
+        assertFalse(cluster.encaminhadoPorPar(requisicao("10.0.0.2", null))); // sem o cabeçalho
+    }
+
+    // 2. Teste com segredo: vale o valor do cabeçalho, de qualquer endereço
+    @Test
+    void deveAceitarOCabecalhoSoComOSegredoDoCluster() {
+        LinkCluster cluster = new LinkCluster(NOS, "http://10.0.0.1:8080", 16, "s3gr3do", new ObjectMapper());
+
+        assertTrue(cluster.encaminhadoPorPar(requisicao("192.168.0.9", "s3gr3do")));
+        assertFalse(cluster.encaminhadoPorPar(requisicao("10.0.0.2", "http://10.0.0.2:8080"))); // IP de par, segredo errado
+        assertFalse(cluster.encaminhadoPorPar(requisicao("10.0.0.2", "s3gr3d")));
+    }
+
+    private static MockHttpServletRequest requisicao(String enderecoRemoto, String cabecalho) {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/api/links/1");
+        requisicao.setRemoteAddr(enderecoRemoto);
+        if (cabecalho != null) {
+            requisicao.addHeader(LinkCluster.CABECALHO_ENCAMINHADO, cabecalho);
+        }
+        return requisicao;
+    }
+
+}
@@ -0,0 +1,96 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import br.com.fatec.api_links_uteis.changes.LinkChangeFeed;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.LinkStoreConfig;
+
+/**
+ * Testes de integração para o LinkChangesController.
+ *
+ * Usa @WebMvcTest com o LinkStore e o LinkChangeFeed importados. O buffer
+ * do feed guarda só 4 alterações, para o snapshot aparecer com poucos links.
+ */
+@WebMvcTest(controllers = LinkChangesController.class, properties = "links.changes.capacity=4")
+@Import({ LinkStoreConfig.class, LinkChangeFeed.class }) // registra o LinkStore e o feed no contexto de teste
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // garante um contexto limpo após cada teste
+class LinkChangesControllerIT {
+
+    @Autowired // injeta a dependência do MockMvc
+    private MockMvc mockMvc;
+
+    @Autowired // injeta o LinkStore para alterar o catálogo
+    private LinkStore linkStore;
+
+    // 1. Teste incremental: só as alterações depois de "since", e a seq para a próxima consulta
+    @Test
+    void deveRetornarSoAsAlteracoesDepoisDeSince() throws Exception {
+        Link github = linkStore.create("GitHub", "https://github.com");
+        linkStore.patch(github.id(), "GitHub!", null);
+        linkStore.delete(github.id());
+
+        mockMvc.perform(get("/api/links/changes").param("since", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshot").value(false))
+                .andExpect(jsonPath("$.seq").value(3))
+                .andExpect(jsonPath("$.changes.length()").value(2))
+                .andExpect(jsonPath("$.changes[0].tipo").value("ATUALIZACAO"))
+                .andExpect(jsonPath("$.changes[0].link.titulo").value("GitHub!"))
+                .andExpect(jsonPath("$.changes[1].tipo").value("REMOCAO"))
+                .andExpect(jsonPath("$.changes[1].link").doesNotExist());
+
+        mockMvc.perform(get("/api/links/changes").param("since", "3"))
+                .andExpect(jsonPath("$.seq").value(3))
+                .andExpect(jsonPath("$.changes.length()").value(0));
+    }
+
+    // 2. Teste de snapshot: o consumidor atrasado recebe o catálogo inteiro e a seq atual
+    @Test
+    void deveRetornarSnapshotQuandoOConsumidorFicarParaTras() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            linkStore.create("Link " + i, "https://exemplo.com/" + i);
+        }
+
+        mockMvc.perform(get("/api/links/changes").param("since", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshot").value(true))
+                .andExpect(jsonPath("$.seq").value(6))
+                .andExpect(jsonPath("$.links.length()").value(6))
+                .andExpect(jsonPath("$.changes.length()").value(0));
+    }
+
+    // 3. Teste de SSE: a conexão fica aberta e recebe cada alteração como um evento com id = seq
+    @Test
+    void deveEnviarAsAlteracoesPorSse() throws Exception {
+        linkStore.create("GitHub", "https://github.com");
+
+        MvcResult resultado = mockMvc.perform(get("/api/links/changes/stream").header("Last-Event-ID", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        linkStore.create("Stack Overflow", "https://stackoverflow.com");
+
+        // o evento é enviado por outra thread: espera até ele aparecer no corpo da resposta
+        String corpo = "";
+        for (int i = 0; i < 500 && !corpo.contains("Stack Overflow"); i++) {
+            Thread.sleep(10);
+            corpo = resultado.getResponse().getContentAsString();
+        }
+        assertTrue(corpo.contains("id:2\nevent:change\ndata:{\"seq\":2,\"tipo\":\"CRIACAO\""), corpo);
+        assertFalse(corpo.contains("GitHub"), "o evento 1 já tinha sido recebido (Last-Event-ID): " + corpo);
+    }
+
+}
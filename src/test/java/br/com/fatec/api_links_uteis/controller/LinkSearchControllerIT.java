@@ -0,0 +1,59 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import br.com.fatec.api_links_uteis.search.LinkSearchIndex;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.LinkStoreConfig;
+
+/**
+ * Testes de integração para o LinkSearchController.
+ *
+ * Usa @WebMvcTest com o LinkStore e o LinkSearchIndex importados,
+ * simulando requisições HTTP com MockMvc.
+ */
+@WebMvcTest(LinkSearchController.class) // webMvcTest é usado para testar controladores específicos
+@Import({ LinkStoreConfig.class, LinkSearchIndex.class }) // registra o LinkStore e o índice no contexto de teste
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // garante um contexto limpo após cada teste
+class LinkSearchControllerIT {
+
+    @Autowired // injeta a dependência do MockMvc
+    private MockMvc mockMvc;
+
+    @Autowired // injeta o LinkStore para cadastrar os links do teste
+    private LinkStore linkStore;
+
+    // 1. Teste de busca por termo do título via endpoint
+    @Test
+    void deveRetornarLinksQuandoGetSearchEndpointComTermo() throws Exception {
+        linkStore.create("GitHub", "https://github.com");
+        linkStore.create("Stack Overflow", "https://stackoverflow.com");
+
+        // simula uma requisição GET para o endpoint /api/links/search?q=stack
+        mockMvc.perform(get("/api/links/search").param("q", "stack"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].titulo").value("Stack Overflow"));
+    }
+
+    // 2. Teste de busca por prefixo de URL via endpoint
+    @Test
+    void deveRetornarLinksQuandoGetSearchEndpointComPrefixoDeUrl() throws Exception {
+        linkStore.create("GitHub", "https://github.com");
+        linkStore.create("Stack Overflow", "https://stackoverflow.com");
+
+        mockMvc.perform(get("/api/links/search").param("q", "git"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].url").value("https://github.com"));
+    }
+
+}
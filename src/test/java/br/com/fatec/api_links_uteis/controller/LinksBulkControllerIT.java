@@ -0,0 +1,120 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import br.com.fatec.api_links_uteis.bulk.LinkBulkService;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.LinkStoreConfig;
+
+/**
+ * Testes de integração para o LinksBulkController.
+ *
+ * Importa links em NDJSON e CSV e confere a exportação nos dois formatos,
+ * simulando requisições HTTP com MockMvc.
+ */
+@WebMvcTest(LinksBulkController.class) // webMvcTest é usado para testar controladores específicos
+@Import({ LinkStoreConfig.class, LinkBulkService.class }) // registra o LinkStore e o serviço no contexto de teste
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // garante um contexto limpo após cada teste
+class LinksBulkControllerIT {
+
+    @Autowired // injeta a dependência do MockMvc
+    private MockMvc mockMvc;
+
+    @Autowired // injeta o LinkStore para conferir os links importados
+    private LinkStore linkStore;
+
+    // 1. Teste de importação em NDJSON via endpoint
+    @Test
+    void deveImportarLinksQuandoPostBulkEndpointComNdjson() throws Exception {
+        String corpo = """
+                {"titulo": "GitHub", "url": "https://github.com"}
+                {"titulo": "Stack Overflow", "url": "https://stackoverflow.com"}
+                """;
+        mockMvc.perform(post("/api/links/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importados").value(2));
+
+        // verifica que os links foram criados com IDs em sequência
+        assertEquals("Stack Overflow", linkStore.findById(2).titulo());
+    }
+
+    // 2. Teste de importação em CSV via endpoint
+    @Test
+    void deveImportarLinksQuandoPostBulkEndpointComCsv() throws Exception {
+        String corpo = """
+                titulo,url
+                GitHub,https://github.com
+                "Spring, o framework",https://spring.io
+                """;
+        mockMvc.perform(post("/api/links/bulk")
+                        .contentType("text/csv")
+                        .content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importados").value(2));
+
+        // a vírgula dentro das aspas faz parte do título
+        assertEquals("Spring, o framework", linkStore.findById(2).titulo());
+    }
+
+    // 3. Teste de importação com conteúdo inválido via endpoint
+    @Test
+    void deveRetornarBadRequestQuandoPostBulkEndpointComNdjsonInvalido() throws Exception {
+        mockMvc.perform(post("/api/links/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"titulo\": "))
+                .andExpect(status().isBadRequest());
+    }
+
+    // 4. Teste de exportação em CSV via endpoint
+    @Test
+    void deveExportarLinksEmCsvQuandoGetExportEndpoint() throws Exception {
+        linkStore.create("GitHub", "https://github.com");
+
+        // o StreamingResponseBody é processado de forma assíncrona pelo Spring
+        MvcResult resultado = mockMvc.perform(get("/api/links/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string("""
+                        id,titulo,url,versao
+                        1,GitHub,https://github.com,1
+                        """));
+    }
+
+    // 5. Teste de exportação em NDJSON via endpoint
+    @Test
+    void deveExportarLinksEmNdjsonQuandoGetExportEndpoint() throws Exception {
+        linkStore.create("GitHub", "https://github.com");
+
+        MvcResult resultado = mockMvc.perform(get("/api/links/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("""
+                        {"id":1,"titulo":"GitHub","url":"https://github.com","versao":1}
+                        """));
+    }
+
+}
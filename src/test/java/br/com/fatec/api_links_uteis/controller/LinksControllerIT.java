@@ -3,18 +3,29 @@ package br.com.fatec.api_links_uteis.controller;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import br.com.fatec.api_links_uteis.batch.LinkWriteBatcher;
+import br.com.fatec.api_links_uteis.cache.LinkResponseCache;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics;
+import br.com.fatec.api_links_uteis.store.LinkStoreConfig;
+
 /**
  * Testes de integração para o LinksController.
  *
@@ -24,10 +35,16 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Usa @WebMvcTest para testar apenas a camada web do Spring,
  * simulando requisições HTTP com MockMvc.
  *
+ * @WebMvcTest só carrega controllers, então a configuração do LinkStore, o cache
+ * de respostas, as métricas e a fila de escritas são importados com @Import.
+ * Os lotes de escrita ficam ligados: todas as escritas destes testes passam
+ * pelo LinkWriteBatcher.
+ *
  * @DirtiesContext garante que cada teste tenha um contexto Spring limpo,
- * evitando interferência entre testes devido ao estado compartilhado do HashMap.
+ * evitando interferência entre testes devido ao estado compartilhado do LinkStore.
  */
-@WebMvcTest(LinksController.class) // webMvcTest é usado para testar controladores específicos
+@WebMvcTest(controllers = LinksController.class, properties = { "links.batch.enabled=true", "links.urls.duplicates=reject" }) // webMvcTest é usado para testar controladores específicos
+@Import({ LinkStoreConfig.class, LinkResponseCache.class, LinkMetrics.class, LinkWriteBatcher.class }) // registra o LinkStore, o cache, as métricas e a fila de escritas no contexto de teste
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // garante um contexto limpo após cada teste
 class LinksControllerIT {
 
@@ -57,7 +74,7 @@ class LinksControllerIT {
         mockMvc.perform(get("/api/links/1"))
                 .andExpect(status().isOk())
                 // verifica se o conteúdo da resposta tem os atributos corretos
-                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.titulo").value("GitHub"))
                 .andExpect(jsonPath("$.url").value("https://github.com"));
     }
@@ -89,7 +106,7 @@ class LinksControllerIT {
                         .content(novoLink))
                 .andExpect(status().isOk())
                 // verifica se o conteúdo da resposta tem os atributos corretos do link criado
-                .andExpect(jsonPath("$.id").value("3"))
+                .andExpect(jsonPath("$.id").value(3))
                 .andExpect(jsonPath("$.titulo").value("Google"))
                 .andExpect(jsonPath("$.url").value("https://google.com"));
     }
@@ -109,7 +126,7 @@ class LinksControllerIT {
                         .content(linkAtualizado)) // adiciona o corpo da requisição
                 .andExpect(status().isOk())
                 // verifica se o conteúdo da resposta tem os atributos corretos do link atualizado
-                .andExpect(jsonPath("$.id").value("1"))
+                .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.titulo").value("GitHub Atualizado"))
                 .andExpect(jsonPath("$.url").value("https://github.com/novo"));
     }
@@ -128,7 +145,7 @@ class LinksControllerIT {
                         .content(atualizacaoParcial)) // adiciona o corpo da requisição
                 .andExpect(status().isOk())
                 // verifica se o conteúdo da resposta tem os atributos corretos do link atualizado
-                .andExpect(jsonPath("$.id").value("2"))
+                .andExpect(jsonPath("$.id").value(2))
                 .andExpect(jsonPath("$.titulo").value("Só o Título Novo"))
                 .andExpect(jsonPath("$.url").value("https://stackoverflow.com")); // URL original mantida
     }
@@ -159,4 +176,137 @@ class LinksControllerIT {
                 .andExpect(content().string("Link 1 removido"));
     }
 
+    // 9. Teste para listar uma página de links via endpoint
+    @Test
+    void deveRetornarPaginaQuandoGetLinksEndpointComLimit() throws Exception {
+        // simula uma requisição GET para o endpoint /api/links?limit=1
+        mockMvc.perform(get("/api/links").param("limit", "1"))
+                .andExpect(status().isOk())
+                // verifica que a página tem só o primeiro link e o cursor aponta para ele
+                .andExpect(jsonPath("$.links.length()").value(1))
+                .andExpect(jsonPath("$.links[0].titulo").value("GitHub"))
+                .andExpect(jsonPath("$.proximo").value(1));
+
+        // continua a partir do cursor recebido
+        mockMvc.perform(get("/api/links").param("after", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.links[0].titulo").value("Stack Overflow"))
+                .andExpect(jsonPath("$.proximo").doesNotExist());
+    }
+
+    // 10. Teste para transmitir os links em NDJSON via endpoint
+    @Test
+    void deveTransmitirLinksEmNdjsonQuandoGetStreamEndpoint() throws Exception {
+        // o StreamingResponseBody é processado de forma assíncrona pelo Spring
+        MvcResult resultado = mockMvc.perform(get("/api/links/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // espera a escrita terminar e verifica um JSON por linha
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("""
+                        {"id":1,"titulo":"GitHub","url":"https://github.com","versao":1}
+                        {"id":2,"titulo":"Stack Overflow","url":"https://stackoverflow.com","versao":2}
+                        """));
+    }
+
+    // 11. Teste de GET condicional da listagem: 304 enquanto o catálogo não muda
+    @Test
+    void deveRetornar304QuandoCatalogoNaoMudou() throws Exception {
+        // a primeira resposta traz o ETag com a versão do catálogo
+        String etag = mockMvc.perform(get("/api/links"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // com o mesmo ETag em If-None-Match, a resposta é 304 sem corpo
+        mockMvc.perform(get("/api/links").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // depois de uma alteração, o ETag antigo não vale mais
+        mockMvc.perform(delete("/api/links/2"));
+        mockMvc.perform(get("/api/links").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    // 12. Teste de GET condicional de um link: o ETag é a versão do link
+    @Test
+    void deveRetornar304QuandoLinkNaoMudou() throws Exception {
+        mockMvc.perform(get("/api/links/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.versao").value(1));
+
+        mockMvc.perform(get("/api/links/1").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andExpect(status().isNotModified());
+    }
+
+    // 13. Teste de PUT com If-Match desatualizado: 412 e o link não muda
+    @Test
+    void deveRetornar412QuandoIfMatchEstaDesatualizado() throws Exception {
+        String linkAtualizado = """
+                {
+                    "titulo": "GitHub Atualizado",
+                    "url": "https://github.com/novo"
+                }
+                """;
+        // a versão atual do link 1 é 1; a primeira edição com If-Match "1" passa
+        mockMvc.perform(put("/api/links/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(linkAtualizado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versao").value(3));
+
+        // uma segunda edição baseada na mesma versão 1 é recusada
+        mockMvc.perform(put("/api/links/1")
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"Outro\", \"url\": \"https://outro.com\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/links/1"))
+                .andExpect(jsonPath("$.titulo").value("GitHub Atualizado"));
+    }
+
+    // 14. Teste de busca pela URL: a URL é comparada normalizada (host em minúsculas, sem "/" no fim)
+    @Test
+    void deveBuscarLinkPelaUrl() throws Exception {
+        mockMvc.perform(get("/api/links").param("url", "HTTPS://GitHub.com/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].titulo").value("GitHub"));
+
+        mockMvc.perform(get("/api/links").param("url", "https://gitlab.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        // a busca por URL não é paginada: com limit a resposta é 400, não um erro de mapeamento ambíguo
+        mockMvc.perform(get("/api/links").param("url", "https://github.com").param("limit", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // 15. Teste de URL repetida: POST e PATCH com a URL de outro link respondem 409 (links.urls.duplicates=reject)
+    @Test
+    void deveRetornar409QuandoAUrlJaPertenceAOutroLink() throws Exception {
+        mockMvc.perform(post("/api/links")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"titulo\": \"GitHub de novo\", \"url\": \"https://github.com/\"}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(patch("/api/links/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"url\": \"https://GITHUB.com\"}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/links"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].url").value("https://stackoverflow.com"));
+    }
+
 }
\ No newline at end of file
@@ -1,10 +1,29 @@
 package br.com.fatec.api_links_uteis.controller;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.batch.LinkWriteBatcher;
+import br.com.fatec.api_links_uteis.cache.LinkResponseCache;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics;
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkPage;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+import br.com.fatec.api_links_uteis.store.LinkStore;
 
 /**
  * Testes unitários simples para o LinksController.
@@ -16,34 +35,46 @@ import org.junit.jupiter.api.Test;
  */
 class LinksControllerTest {
 
-    private final LinksController controller = new LinksController(); // Instancia o controller diretamente
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LinkStore linkStore = new LinkStore();
+    private final LinkResponseCache cache = new LinkResponseCache(linkStore, objectMapper, 1 << 20, 1000);
+    // Instancia o controller diretamente, com um cache de respostas de 1 MB
+    private final LinksController controller = new LinksController(linkStore, objectMapper,
+            cache, new LinkMetrics(linkStore, 1),
+            new LinkWriteBatcher(linkStore, false, 1, 0, 1_000), true);
+
+    @BeforeEach
+    void registrar() {
+        cache.registrar(); // o Spring faria isso no @PostConstruct
+    }
 
     // 1. Teste para listar todos os links
     @Test
-    void deveRetornarTodosOsLinks() {
-        // uma lista de mapas representando os links
-        List<Map<String, String>> links = controller.getLinks();
+    void deveRetornarTodosOsLinks() throws IOException {
+        // uma lista de records representando os links (a resposta é o JSON em bytes)
+        List<Link> links = objectMapper.readValue(controller.getLinks(requisicao(), new MockHttpServletResponse()), new TypeReference<List<Link>>() {
+        });
         // Verifica se a lista contém os links esperados
         assertEquals(2, links.size());
         // Verifica o conteúdo do primeiro link
-        assertEquals("GitHub", links.get(0).get("titulo"));
+        assertEquals("GitHub", links.get(0).titulo());
     }
 
     // 2. Teste para buscar link por ID existente
     @Test
-    void deveRetornarLinkQuandoIdExiste() {
-        // um mapa representando o link
-        Map<String, String> link = controller.getLinkById(1);
+    void deveRetornarLinkQuandoIdExiste() throws IOException {
+        // um record representando o link
+        Link link = buscar(1);
         // Verifica os atributos do link retornado
-        assertEquals("1", link.get("id"));
-        assertEquals("GitHub", link.get("titulo"));
+        assertEquals(1, link.id());
+        assertEquals("GitHub", link.titulo());
     }
 
     // 3. Teste para buscar link por ID inexistente
     @Test
     void deveRetornarNullQuandoIdNaoExiste() {
-        // um mapa representando o link
-        Map<String, String> link = controller.getLinkById(999);
+        // o JSON do link, que não existe
+        byte[] link = controller.getLinkById(999, requisicao());
         // Verifica que o link retornado é null
         assertEquals(null, link);
     }
@@ -51,50 +82,50 @@ class LinksControllerTest {
     // 4. Teste para criar novo link
     @Test
     void deveCriarNovoLinkComIdGerado() {
-        // um mapa representando os dados do novo link
-        Map<String, String> novoLink = Map.of("titulo", "Google", "url", "https://google.com");
-        // um mapa representando o link criado
-        Map<String, String> resultado = controller.createLink(novoLink);
+        // um record representando os dados do novo link
+        LinkRequest novoLink = new LinkRequest("Google", "https://google.com");
+        // um record representando o link criado
+        Link resultado = controller.createLink(novoLink);
 
         // verifica os atributos do link criado
-        assertEquals("Google", resultado.get("titulo"));
-        assertEquals("https://google.com", resultado.get("url"));
-        assertEquals("3", resultado.get("id")); // Próximo ID
+        assertEquals("Google", resultado.titulo());
+        assertEquals("https://google.com", resultado.url());
+        assertEquals(3, resultado.id()); // Próximo ID
     }
 
     // 5. Teste para atualizar link existente
     @Test
     void deveAtualizarLinkExistenteCompletamente() {
-        // um mapa representando os dados para atualização do link
-        Map<String, String> dadosAtualizacao = Map.of("titulo", "Novo Título", "url", "https://novo.com");
-        // um mapa representando o link atualizado
-        Map<String, String> resultado = controller.updateLink(1, dadosAtualizacao);
+        // um record representando os dados para atualização do link
+        LinkRequest dadosAtualizacao = new LinkRequest("Novo Título", "https://novo.com");
+        // um record representando o link atualizado
+        Link resultado = controller.updateLink(1, null, dadosAtualizacao);
 
         // verifica os atributos do link atualizado
-        assertEquals("Novo Título", resultado.get("titulo"));
-        assertEquals("https://novo.com", resultado.get("url"));
+        assertEquals("Novo Título", resultado.titulo());
+        assertEquals("https://novo.com", resultado.url());
     }
 
     // 6. Teste para atualizar parcialmente (PATCH)
     @Test
     void deveAtualizarLinkParcialmente() {
-        // um mapa representando os dados parciais para atualização do link
-        Map<String, String> dadosParciais = Map.of("titulo", "Título Atualizado");
-        // um mapa representando o link atualizado
-        Map<String, String> resultado = controller.patchLink(2, dadosParciais);
+        // um record representando os dados parciais para atualização do link (url ausente = null)
+        LinkRequest dadosParciais = new LinkRequest("Título Atualizado", null);
+        // um record representando o link atualizado
+        Link resultado = controller.patchLink(2, null, dadosParciais);
 
         // verifica os atributos do link atualizado
-        assertEquals("Título Atualizado", resultado.get("titulo"));
-        assertEquals("https://stackoverflow.com", resultado.get("url")); // URL original mantida
+        assertEquals("Título Atualizado", resultado.titulo());
+        assertEquals("https://stackoverflow.com", resultado.url()); // URL original mantida
     }
 
     // 7. Teste para PATCH com link inexistente
     @Test
     void deveRetornarNullQuandoPatchLinkInexistente() {
-        // um mapa representando os dados parciais para atualização do link
-        Map<String, String> dadosParciais = Map.of("titulo", "Teste");
-        // um mapa representando o link atualizado
-        Map<String, String> resultado = controller.patchLink(999, dadosParciais);
+        // um record representando os dados parciais para atualização do link
+        LinkRequest dadosParciais = new LinkRequest("Teste", null);
+        // um record representando o link atualizado
+        Link resultado = controller.patchLink(999, null, dadosParciais);
 
         // verifica que o resultado é null
         assertEquals(null, resultado);
@@ -109,4 +140,92 @@ class LinksControllerTest {
         assertEquals("Link 1 removido", resultado);
     }
 
+    // 9. Teste para listar a primeira página de links
+    @Test
+    void deveRetornarPrimeiraPaginaComCursor() {
+        controller.createLink(new LinkRequest("Google", "https://google.com"));
+        // página de 2 links começando do início do catálogo
+        LinkPage pagina = controller.getLinksPage(0, 2);
+
+        // verifica os links da página e o cursor para a próxima
+        assertEquals(2, pagina.links().size());
+        assertEquals("GitHub", pagina.links().get(0).titulo());
+        assertEquals(2, pagina.proximo());
+    }
+
+    // 10. Teste para listar a última página de links
+    @Test
+    void deveRetornarUltimaPaginaSemCursor() {
+        controller.createLink(new LinkRequest("Google", "https://google.com"));
+        // continua depois do ID 2, que foi o cursor da primeira página
+        LinkPage pagina = controller.getLinksPage(2, 2);
+
+        // verifica que só sobrou o link 3 e que não há próxima página
+        assertEquals(1, pagina.links().size());
+        assertEquals("Google", pagina.links().get(0).titulo());
+        assertNull(pagina.proximo());
+    }
+
+    // 11. Teste de PUT com If-Match na versão atual do link
+    @Test
+    void deveAtualizarQuandoIfMatchTemAVersaoAtual() throws IOException {
+        long versao = buscar(1).versao();
+
+        Link resultado = controller.updateLink(1, "\"" + versao + "\"", new LinkRequest("GitHub 2", "https://github.com"));
+
+        // cada alteração gera uma versão maior
+        assertEquals("GitHub 2", resultado.titulo());
+        assertEquals(true, resultado.versao() > versao);
+    }
+
+    // 12. Teste de PATCH com If-Match numa versão antiga (outra edição veio antes)
+    @Test
+    void deveRecusarPatchComVersaoDesatualizada() throws IOException {
+        long versao = buscar(2).versao();
+        controller.patchLink(2, null, new LinkRequest("Outra edição", null));
+
+        ResponseStatusException erro = assertThrows(ResponseStatusException.class,
+                () -> controller.patchLink(2, "\"" + versao + "\"", new LinkRequest("Minha edição", null)));
+
+        // 412 e a edição anterior não foi sobrescrita
+        assertEquals(HttpStatus.PRECONDITION_FAILED, erro.getStatusCode());
+        assertEquals("Outra edição", buscar(2).titulo());
+    }
+
+    // 13. Teste do cache: a resposta muda logo depois de uma alteração do link
+    @Test
+    void deveRetornarLinkAtualizadoDepoisDeUmaAlteracao() throws IOException {
+        assertEquals("GitHub", buscar(1).titulo()); // entra no cache
+        controller.patchLink(1, null, new LinkRequest("GitHub Novo", null));
+
+        assertEquals("GitHub Novo", buscar(1).titulo());
+    }
+
+    // 14. Teste da listagem grande: acima do limite de links do cache, o JSON vai em streaming
+    @Test
+    void deveEscreverAListagemGrandeEmStreaming() throws IOException {
+        LinkResponseCache semListagem = new LinkResponseCache(linkStore, objectMapper, 1 << 20, 1);
+        LinksController grande = new LinksController(linkStore, objectMapper, semListagem,
+                new LinkMetrics(linkStore, 1), new LinkWriteBatcher(linkStore, false, 1, 0, 1_000), true);
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+
+        assertNull(grande.getLinks(requisicao(), resposta)); // o corpo foi escrito direto na resposta
+
+        List<Link> links = objectMapper.readValue(resposta.getContentAsByteArray(), new TypeReference<List<Link>>() {
+        });
+        assertEquals(2, links.size());
+        assertEquals("Stack Overflow", links.get(1).titulo());
+        assertNull(semListagem.listagemEmCache(linkStore.versao())); // nada foi guardado
+    }
+
+    // converte o JSON devolvido por getLinkById em um Link
+    private Link buscar(int id) throws IOException {
+        return objectMapper.readValue(controller.getLinkById(id, requisicao()), Link.class);
+    }
+
+    // requisição GET simulada, sem cabeçalhos condicionais
+    private static ServletWebRequest requisicao() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/links"), new MockHttpServletResponse());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package br.com.fatec.api_links_uteis.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.fatec.api_links_uteis.batch.LinkWriteBatcher;
+import br.com.fatec.api_links_uteis.cache.LinkResponseCache;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+import br.com.fatec.api_links_uteis.store.LinkStoreConfig;
+
+/**
+ * Testes de integração para o ReactiveLinksController.
+ *
+ * Usa @WebFluxTest para carregar só a camada web reativa do Spring e o
+ * WebTestClient para simular as requisições HTTP, como o MockMvc faz nos
+ * testes do LinksController.
+ */
+// webFluxTest é usado para testar controladores reativos específicos; com o Tomcat também no
+// classpath, o tipo da aplicação precisa ser informado (senão o Spring Boot escolhe servlet)
+@WebFluxTest(controllers = ReactiveLinksController.class, properties = "spring.main.web-application-type=reactive")
+@Import({ LinkStoreConfig.class, LinkResponseCache.class, LinkWriteBatcher.class }) // registra o LinkStore, o cache e a fila de escritas no contexto de teste
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // garante um contexto limpo após cada teste
+class ReactiveLinksControllerIT {
+
+    @Autowired // injeta o cliente de teste do WebFlux
+    private WebTestClient webTestClient;
+
+    // 1. Teste para listar todos os links
+    @Test
+    void deveRetornarTodosOsLinks() {
+        webTestClient.get().uri("/api/links").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].titulo").isEqualTo("GitHub")
+                .jsonPath("$[1].titulo").isEqualTo("Stack Overflow");
+    }
+
+    // 2. Teste de cache HTTP: com o ETag atual em If-None-Match, a resposta é 304 sem corpo
+    @Test
+    void deveResponder304QuandoOLinkNaoMudou() {
+        String etag = webTestClient.get().uri("/api/links/1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.titulo").isEqualTo("GitHub")
+                .returnResult().getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/links/1").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    // 3. Teste de criação e streaming: o link criado aparece no NDJSON, um JSON por linha
+    @Test
+    void deveCriarLinkETransmitirEmNdjson() {
+        webTestClient.post().uri("/api/links").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"titulo\":\"FATEC\",\"url\":\"https://fatec.sp.gov.br\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(3);
+
+        webTestClient.get().uri("/api/links/stream").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo(
+                        "{\"id\":1,\"titulo\":\"GitHub\",\"url\":\"https://github.com\",\"versao\":1}\n"
+                        + "{\"id\":2,\"titulo\":\"Stack Overflow\",\"url\":\"https://stackoverflow.com\",\"versao\":2}\n"
+                        + "{\"id\":3,\"titulo\":\"FATEC\",\"url\":\"https://fatec.sp.gov.br\",\"versao\":3}\n");
+    }
+
+    // 4. Teste de concorrência otimista: PATCH com uma versão antiga em If-Match é recusado com 412
+    @Test
+    void deveRecusarPatchComVersaoAntiga() {
+        webTestClient.patch().uri("/api/links/1").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .bodyValue("{\"titulo\":\"GitHub Novo\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.versao").isEqualTo(3);
+
+        webTestClient.patch().uri("/api/links/1").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .bodyValue("{\"titulo\":\"Outra edição\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
+    // 5. Teste para remover um link
+    @Test
+    void deveRemoverLink() {
+        webTestClient.delete().uri("/api/links/2").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Link 2 removido");
+
+        webTestClient.get().uri("/api/links").exchange()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+    }
+
+    // 6. Teste da listagem grande: acima do limite de links do cache, o array JSON sai em blocos
+    @Test
+    void deveTransmitirAListagemGrandeEmBlocos() {
+        LinkStore store = new LinkStore();
+        for (int i = 1; i <= 600; i++) { // mais de dois blocos
+            store.create("Link " + i, "https://exemplo.com/" + i);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        LinkResponseCache semListagem = new LinkResponseCache(store, objectMapper, 1 << 20, 1);
+        WebTestClient cliente = WebTestClient.bindToController(new ReactiveLinksController(store, objectMapper,
+                semListagem, new LinkWriteBatcher(store, false, 1, 0, 1_000), false)).build();
+
+        cliente.get().uri("/api/links").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(600)
+                .jsonPath("$[0].titulo").isEqualTo("Link 1")
+                .jsonPath("$[256].titulo").isEqualTo("Link 257")
+                .jsonPath("$[599].titulo").isEqualTo("Link 600");
+    }
+
+}
@@ -0,0 +1,270 @@
+package br.com.fatec.api_links_uteis.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Teste de carga com regressão de latência e vazão.
+ *
+ * Roda só com o profile load-test (mvn -P load-test verify), depois do
+ * package:
+ * 1. sobe o jar de target/ num processo separado, numa porta livre, com a
+ *    persistência ligada (log com fsync numa pasta temporária), como em
+ *    produção. Com -Dload.target=http://host:porta usa uma aplicação já
+ *    no ar em vez disso
+ * 2. completa o catálogo até -Dload.catalogSize links (padrão 1000)
+ * 3. para cada taxa de -Dload.rates (requisições por segundo, padrão
+ *    100,300), gera carga aberta (OpenLoopLoad) com a mistura do
+ *    LinkWorkload: -Dload.warmupSeconds de aquecimento (padrão 10) e
+ *    -Dload.seconds de medição (padrão 20)
+ * 4. compara cada taxa com src/test/resources/load-test/baseline.properties:
+ *    falha se o p99 passar do baseline mais a tolerância, se a vazão ficar
+ *    abaixo do baseline menos a tolerância, ou se mais de 0,1% das
+ *    requisições falharem
+ *
+ * Os histogramas (.hgrm, um por taxa, em milissegundos) e o resultado de
+ * cada taxa (resultado.properties) ficam em target/load-test. Latências
+ * dependem da máquina: o baseline guardado vale para a máquina onde foi
+ * gerado. Para gravar um novo, rode com -Dload.updateBaseline=true.
+ */
+class LinkLoadIT {
+    private static final Logger log = LoggerFactory.getLogger(LinkLoadIT.class);
+    private static final Path SAIDA = Path.of("target", "load-test");
+    private static final Path BASELINE = Path.of("src", "test", "resources", "load-test", "baseline.properties");
+    private static final double TAXA_MAXIMA_DE_ERROS = 0.001;
+    private static final double TOLERANCIA_P99 = 0.5;   // padrão: p99 até 50% acima do baseline
+    private static final double TOLERANCIA_VAZAO = 0.05; // padrão: vazão até 5% abaixo do baseline
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void naoDeveRegredirEmRelacaoAoBaseline() throws Exception {
+        double[] taxas = Arrays.stream(System.getProperty("load.rates", "100,300").split(","))
+                .mapToDouble(Double::parseDouble).toArray();
+        long aquecimento = TimeUnit.SECONDS.toNanos(Long.getLong("load.warmupSeconds", 10));
+        long medicao = TimeUnit.SECONDS.toNanos(Long.getLong("load.seconds", 20));
+        int tamanhoCatalogo = Math.max(1, Integer.getInteger("load.catalogSize", 1000));
+        boolean atualizarBaseline = Boolean.getBoolean("load.updateBaseline");
+        Files.createDirectories(SAIDA);
+
+        Properties baseline = lerBaseline();
+        Properties resultados = new Properties();
+        List<String> regressoes = new ArrayList<>();
+        Aplicacao aplicacao = Aplicacao.iniciar(http, System.getProperty("load.target"));
+        try {
+            LinkWorkload carga = LinkWorkload.preparar(http, aplicacao.base(), tamanhoCatalogo);
+            log.info(String.format("Carga em %s, catálogo com %,d links", aplicacao.base(), carga.tamanhoCatalogo()));
+            for (double taxa : taxas) {
+                OpenLoopLoad.Resultado resultado = OpenLoopLoad.executar(http, carga, taxa, aquecimento, medicao);
+                imprimir(resultado);
+                gravarHistograma(resultado);
+                String chave = "rate." + chave(taxa);
+                // Locale.ROOT: ponto decimal, que Double.parseDouble entende em qualquer idioma
+                resultados.setProperty(chave + ".p99-millis",
+                        String.format(Locale.ROOT, "%.3f", OpenLoopLoad.Resultado.millis(resultado.geral(), 99)));
+                resultados.setProperty(chave + ".throughput", String.format(Locale.ROOT, "%.1f", resultado.vazao()));
+                comparar(resultado, chave, baseline, regressoes);
+            }
+        } finally {
+            aplicacao.encerrar();
+        }
+
+        gravar(resultados, SAIDA.resolve("resultado.properties"), "Resultado do teste de carga (LinkLoadIT)");
+        if (atualizarBaseline) {
+            resultados.setProperty("p99.tolerance", baseline.getProperty("p99.tolerance", String.valueOf(TOLERANCIA_P99)));
+            resultados.setProperty("throughput.tolerance",
+                    baseline.getProperty("throughput.tolerance", String.valueOf(TOLERANCIA_VAZAO)));
+            gravar(resultados, BASELINE, String.format("Baseline do teste de carga (LinkLoadIT), gerado em %s%n"
+                    + "# com -Dload.updateBaseline=true numa máquina com %d CPUs e Java %s",
+                    LocalDate.now(), Runtime.getRuntime().availableProcessors(), Runtime.version()));
+            log.info("Baseline gravado em {}", BASELINE);
+            return;
+        }
+        assertTrue(regressoes.isEmpty(), "Regressões em relação ao baseline:\n" + String.join("\n", regressoes));
+    }
+
+    // compara uma taxa com o baseline; as regressões encontradas vão para "regressoes"
+    private static void comparar(OpenLoopLoad.Resultado resultado, String chave, Properties baseline, List<String> regressoes) {
+        if (resultado.taxaDeErros() > TAXA_MAXIMA_DE_ERROS) {
+            regressoes.add(String.format("%s: %,d de %,d requisições falharam (%.2f%%)", chave, resultado.erros(),
+                    resultado.enviadas(), resultado.taxaDeErros() * 100));
+        }
+        String p99Baseline = baseline.getProperty(chave + ".p99-millis");
+        String vazaoBaseline = baseline.getProperty(chave + ".throughput");
+        if (p99Baseline == null || vazaoBaseline == null) {
+            log.warn("{}: sem baseline para comparar", chave);
+            return;
+        }
+        double toleranciaP99 = Double.parseDouble(baseline.getProperty("p99.tolerance", String.valueOf(TOLERANCIA_P99)));
+        double toleranciaVazao = Double.parseDouble(
+                baseline.getProperty("throughput.tolerance", String.valueOf(TOLERANCIA_VAZAO)));
+        double p99 = OpenLoopLoad.Resultado.millis(resultado.geral(), 99);
+        double limiteP99 = Double.parseDouble(p99Baseline) * (1 + toleranciaP99);
+        if (p99 > limiteP99) {
+            regressoes.add(String.format("%s: p99 %.2f ms acima do limite %.2f ms (baseline %s ms + %.0f%%)",
+                    chave, p99, limiteP99, p99Baseline, toleranciaP99 * 100));
+        }
+        double minimoVazao = Double.parseDouble(vazaoBaseline) * (1 - toleranciaVazao);
+        if (resultado.vazao() < minimoVazao) {
+            regressoes.add(String.format("%s: vazão %.1f req/s abaixo do mínimo %.1f req/s (baseline %s req/s - %.0f%%)",
+                    chave, resultado.vazao(), minimoVazao, vazaoBaseline, toleranciaVazao * 100));
+        }
+    }
+
+    // uma tabela por taxa no log, com uma linha para cada tipo de requisição
+    private static void imprimir(OpenLoopLoad.Resultado resultado) {
+        StringBuilder tabela = new StringBuilder(String.format("%,.0f req/s: vazão %,.1f req/s, %,d erros de %,d%n",
+                resultado.taxa(), resultado.vazao(), resultado.erros(), resultado.enviadas()));
+        tabela.append(String.format("  %-26s %9s %9s %9s %9s %9s", "requisição", "qtde", "p50 ms", "p99 ms", "p99.9 ms", "máx ms"));
+        linha(tabela, "todas", resultado.geral());
+        resultado.porTipo().forEach((tipo, histograma) -> linha(tabela, tipo.descricao, histograma));
+        log.info(tabela.toString());
+    }
+
+    private static void linha(StringBuilder tabela, String nome, Histogram histograma) {
+        tabela.append(String.format("%n  %-26s %,9d %9.2f %9.2f %9.2f %9.2f", nome, histograma.getTotalCount(),
+                OpenLoopLoad.Resultado.millis(histograma, 50), OpenLoopLoad.Resultado.millis(histograma, 99),
+                OpenLoopLoad.Resultado.millis(histograma, 99.9), histograma.getMaxValue() / 1e6));
+    }
+
+    // distribuição completa da latência, no formato do HdrHistogram (plotável), em milissegundos
+    private static void gravarHistograma(OpenLoopLoad.Resultado resultado) throws IOException {
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(
+                SAIDA.resolve("rate-" + chave(resultado.taxa()) + ".hgrm")), false, "UTF-8")) {
+            resultado.geral().outputPercentileDistribution(saida, 1e6);
+        }
+    }
+
+    // 100.0 -> "100"; 12.5 -> "12.5"
+    private static String chave(double taxa) {
+        return taxa == Math.rint(taxa) ? String.valueOf((long) taxa) : String.valueOf(taxa);
+    }
+
+    private static Properties lerBaseline() throws IOException {
+        Properties baseline = new Properties();
+        if (Files.exists(BASELINE)) {
+            try (InputStream entrada = Files.newInputStream(BASELINE)) {
+                baseline.load(entrada);
+            }
+        }
+        return baseline;
+    }
+
+    // grava as chaves em ordem alfabética, para o diff do baseline ficar legível
+    private static void gravar(Properties propriedades, Path arquivo, String comentario) throws IOException {
+        Files.createDirectories(arquivo.getParent());
+        StringBuilder texto = new StringBuilder("# ").append(comentario).append('\n');
+        new TreeMap<>(propriedades).forEach((chave, valor) -> texto.append(chave).append('=').append(valor).append('\n'));
+        Files.writeString(arquivo, texto);
+    }
+
+    /**
+     * A aplicação sob carga: o jar de target/ num processo separado, ou uma
+     * aplicação externa (-Dload.target), que não é encerrada no fim.
+     */
+    private record Aplicacao(String base, Process processo, Path dados) {
+        private static final long LIMITE_SEGUNDOS = 120;
+
+        static Aplicacao iniciar(HttpClient http, String alvo) throws IOException, InterruptedException {
+            if (alvo != null && !alvo.isBlank()) {
+                return new Aplicacao(alvo.replaceAll("/+$", ""), null, null);
+            }
+            Path jar = jar();
+            int porta = portaLivre();
+            Path dados = Files.createTempDirectory("links-carga-");
+            List<String> comando = new ArrayList<>(List.of(
+                    ProcessHandle.current().info().command().orElse("java"), "-jar", jar.toString(),
+                    "--server.port=" + porta,
+                    "--links.persistence.enabled=true",
+                    "--links.persistence.directory=" + dados,
+                    "--logging.level.root=warn"));
+            // ex.: -Dload.appArgs="--links.batch.enabled=true --spring.threads.virtual.enabled=true"
+            String extras = System.getProperty("load.appArgs", "");
+            if (!extras.isBlank()) {
+                comando.addAll(List.of(extras.trim().split("\\s+")));
+            }
+            Process processo = new ProcessBuilder(comando)
+                    .redirectErrorStream(true)
+                    .redirectOutput(SAIDA.resolve("aplicacao.log").toFile())
+                    .start();
+            Aplicacao aplicacao = new Aplicacao("http://127.0.0.1:" + porta, processo, dados);
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(LIMITE_SEGUNDOS);
+            while (status(http, aplicacao.base() + "/api/hello") != 200) {
+                if (!processo.isAlive() || System.nanoTime() > limite) {
+                    aplicacao.encerrar();
+                    throw new IllegalStateException("A aplicação não subiu; veja " + SAIDA.resolve("aplicacao.log"));
+                }
+                Thread.sleep(100);
+            }
+            return aplicacao;
+        }
+
+        // para o processo e apaga a pasta de dados (nada a fazer numa aplicação externa)
+        void encerrar() throws IOException, InterruptedException {
+            if (processo == null) {
+                return;
+            }
+            processo.destroy();
+            if (!processo.waitFor(30, TimeUnit.SECONDS)) {
+                processo.destroyForcibly();
+            }
+            try (Stream<Path> arquivos = Files.walk(dados)) {
+                arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+            }
+        }
+
+        // status HTTP da resposta, ou -1 enquanto o servidor não aceita conexões
+        private static int status(HttpClient http, String uri) throws InterruptedException {
+            try {
+                return http.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+
+        // jar executável gerado pelo spring-boot-maven-plugin no package (não o .jar.original)
+        private static Path jar() throws IOException {
+            try (Stream<Path> arquivos = Files.list(Path.of("target"))) {
+                return arquivos.filter(arquivo -> arquivo.getFileName().toString().matches("api-links-uteis-.*\\.jar"))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalStateException("Jar não encontrado em target/ (rode mvn package)"));
+            }
+        }
+
+        private static int portaLivre() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package br.com.fatec.api_links_uteis.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Mistura de requisições do teste de carga, parecida com o tráfego de produção.
+ *
+ * Cada tipo tem um peso (em %). Os links lidos e alterados (GET, PUT, PATCH)
+ * são sorteados entre os que já existiam antes da carga, e o DELETE só
+ * remove links criados pelos POST da própria carga: assim nenhuma
+ * requisição encontra um link que outra acabou de remover, e qualquer
+ * resposta fora de 2xx é um erro de verdade.
+ *
+ * proxima() é chamado só pela thread que agenda as requisições; concluida()
+ * pode ser chamado por várias threads ao mesmo tempo.
+ */
+final class LinkWorkload {
+
+    enum Tipo {
+        BUSCAR("GET /api/links/{id}", 40),
+        PAGINA("GET /api/links?limit=100", 10),
+        LISTAR("GET /api/links", 5),
+        CRIAR("POST /api/links", 10),
+        SUBSTITUIR("PUT /api/links/{id}", 5),
+        ALTERAR("PATCH /api/links/{id}", 10),
+        REMOVER("DELETE /api/links/{id}", 5),
+        HELLO("GET /api/hello", 15);
+
+        final String descricao;
+        final int peso;
+
+        Tipo(String descricao, int peso) {
+            this.descricao = descricao;
+            this.peso = peso;
+        }
+    }
+
+    // uma requisição sorteada, pronta para enviar
+    record Operacao(Tipo tipo, HttpRequest requisicao) {
+
+        // só o corpo do POST é lido (para guardar o ID criado); o resto é descartado
+        HttpResponse.BodyHandler<String> leitor() {
+            return tipo == Tipo.CRIAR ? HttpResponse.BodyHandlers.ofString() : HttpResponse.BodyHandlers.replacing(null);
+        }
+    }
+
+    private static final Duration TEMPO_LIMITE = Duration.ofSeconds(30);
+    private static final int MAXIMO_IDS = 100_000;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String base;
+    private final int[] ids; // links que já existiam antes da carga
+    private final SplittableRandom aleatorio = new SplittableRandom(42);
+    private final ConcurrentLinkedQueue<Integer> criados = new ConcurrentLinkedQueue<>();
+    // entra nas URLs dos POST: com links.urls.duplicates=reject, outra carga contra a mesma
+    // aplicação (-Dload.target) repetiria as URLs e receberia 409
+    private final String execucao = Long.toString(System.currentTimeMillis(), 36);
+    private final int pesoTotal = Arrays.stream(Tipo.values()).mapToInt(tipo -> tipo.peso).sum();
+    private long sequencia;
+
+    private LinkWorkload(String base, int[] ids) {
+        this.base = base;
+        this.ids = ids;
+    }
+
+    // Completa o catálogo até "tamanho" links (POST /api/links/bulk) e lê os IDs existentes
+    static LinkWorkload preparar(HttpClient http, String base, int tamanho) throws IOException, InterruptedException {
+        int[] existentes = lerIds(http, base);
+        if (existentes.length < tamanho) {
+            StringBuilder ndjson = new StringBuilder();
+            for (int i = existentes.length; i < tamanho; i++) {
+                ndjson.append("{\"titulo\":\"Link de carga ").append(i)
+                        .append("\",\"url\":\"https://exemplo").append(i % 100).append(".com/pagina/").append(i).append("\"}\n");
+            }
+            HttpResponse<String> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/api/links/bulk"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() != 200) {
+                throw new IllegalStateException("Falha ao preencher o catálogo: " + resposta.statusCode() + " " + resposta.body());
+            }
+            existentes = lerIds(http, base);
+        }
+        return new LinkWorkload(base, existentes);
+    }
+
+    Operacao proxima() {
+        Tipo tipo = sortear();
+        Integer criado = tipo == Tipo.REMOVER ? criados.poll() : null;
+        if (tipo == Tipo.REMOVER && criado == null) {
+            tipo = Tipo.BUSCAR; // nenhum link criado pela carga para remover ainda
+        }
+        long n = sequencia++;
+        int id = ids[aleatorio.nextInt(ids.length)];
+        HttpRequest.Builder requisicao = switch (tipo) {
+            case BUSCAR -> HttpRequest.newBuilder(uri("/api/links/" + id)).GET();
+            case PAGINA -> HttpRequest.newBuilder(uri("/api/links?limit=100&after=" + (id - 1))).GET();
+            case LISTAR -> HttpRequest.newBuilder(uri("/api/links")).GET();
+            case CRIAR -> json(HttpRequest.newBuilder(uri("/api/links")), "POST",
+                    "{\"titulo\":\"Carga " + n + "\",\"url\":\"https://carga.com/" + execucao + "/" + n + "\"}");
+            case SUBSTITUIR -> json(HttpRequest.newBuilder(uri("/api/links/" + id)), "PUT",
+                    "{\"titulo\":\"Substituído " + n + "\",\"url\":\"https://exemplo.com/" + id + "\"}");
+            case ALTERAR -> json(HttpRequest.newBuilder(uri("/api/links/" + id)), "PATCH",
+                    "{\"titulo\":\"Alterado " + n + "\"}");
+            case REMOVER -> HttpRequest.newBuilder(uri("/api/links/" + criado)).DELETE();
+            case HELLO -> HttpRequest.newBuilder(uri("/api/hello")).GET();
+        };
+        return new Operacao(tipo, requisicao.timeout(TEMPO_LIMITE).build());
+    }
+
+    // Chamado com a resposta de cada requisição; guarda os IDs criados para os próximos DELETE
+    void concluida(Operacao operacao, HttpResponse<String> resposta) {
+        if (operacao.tipo() == Tipo.CRIAR && resposta.statusCode() == 200) {
+            try {
+                criados.add(objectMapper.readTree(resposta.body()).get("id").asInt());
+            } catch (IOException e) {
+                // corpo inesperado: o link só não será removido
+            }
+        }
+    }
+
+    int tamanhoCatalogo() {
+        return ids.length;
+    }
+
+    private Tipo sortear() {
+        int valor = aleatorio.nextInt(pesoTotal);
+        for (Tipo tipo : Tipo.values()) {
+            valor -= tipo.peso;
+            if (valor < 0) {
+                return tipo;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private URI uri(String caminho) {
+        return URI.create(base + caminho);
+    }
+
+    private static HttpRequest.Builder json(HttpRequest.Builder requisicao, String metodo, String corpo) {
+        return requisicao.header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(corpo));
+    }
+
+    // IDs do catálogo, pela listagem paginada (até MAXIMO_IDS)
+    private static int[] lerIds(HttpClient http, String base) throws IOException, InterruptedException {
+        int[] encontrados = new int[1024];
+        int quantidade = 0;
+        int depoisDe = 0;
+        while (quantidade < MAXIMO_IDS) {
+            HttpResponse<String> resposta = http.send(HttpRequest.newBuilder(
+                    URI.create(base + "/api/links?limit=1000&after=" + depoisDe)).build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode pagina = objectMapper.readTree(resposta.body());
+            for (JsonNode link : pagina.get("links")) {
+                if (quantidade == encontrados.length) {
+                    encontrados = Arrays.copyOf(encontrados, quantidade * 2);
+                }
+                encontrados[quantidade++] = link.get("id").asInt();
+            }
+            JsonNode proximo = pagina.get("proximo");
+            if (proximo == null || proximo.isNull()) {
+                break;
+            }
+            depoisDe = proximo.asInt();
+        }
+        return Arrays.copyOf(encontrados, quantidade);
+    }
+
+}
@@ -0,0 +1,137 @@
+package br.com.fatec.api_links_uteis.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Gerador de carga aberta (open loop): as requisições partem em taxa fixa,
+ * não importa quanto o servidor demore a responder.
+ *
+ * Um gerador fechado (N clientes, cada um manda a próxima requisição só
+ * depois da resposta anterior) desacelera junto com o servidor: quando uma
+ * resposta demora 1 s, as requisições que deveriam ter saído nesse segundo
+ * nunca são enviadas nem medidas, e o p99 parece ótimo ("coordinated
+ * omission"). Aqui a i-ésima requisição tem um horário previsto
+ * (inicio + i / taxa) e a latência é medida a partir dele, não do envio:
+ * se o gerador ou o servidor atrasar, a espera entra na medida.
+ *
+ * Cada requisição roda numa thread virtual. As latências vão para
+ * histogramas HdrHistogram (geral e por tipo de requisição), com 3 dígitos
+ * significativos de 1 µs a 1 min. Só entram as requisições previstas depois
+ * do aquecimento; a vazão conta as respostas 2xx que chegaram dentro da
+ * janela de medição.
+ */
+final class OpenLoopLoad {
+    private static final long MAIOR_LATENCIA = TimeUnit.MINUTES.toNanos(1);
+    // requisições em andamento no máximo; além disso o servidor já parou de responder
+    // e as excedentes contam como erro (esperar por vagas esconderia a demora)
+    private static final int MAXIMO_PENDENTES = 10_000;
+
+    // resultado de uma taxa
+    record Resultado(double taxa, double segundos, long concluidas, long erros, long enviadas,
+            Histogram geral, Map<LinkWorkload.Tipo, Histogram> porTipo) {
+
+        // respostas 2xx por segundo dentro da janela de medição
+        double vazao() {
+            return concluidas / segundos;
+        }
+
+        double taxaDeErros() {
+            return enviadas == 0 ? 0 : erros / (double) enviadas;
+        }
+
+        static double millis(Histogram histograma, double percentil) {
+            return histograma.getValueAtPercentile(percentil) / 1e6;
+        }
+    }
+
+    private OpenLoopLoad() {
+    }
+
+    static Resultado executar(HttpClient http, LinkWorkload carga, double taxa, long aquecimentoNanos,
+            long medicaoNanos) throws InterruptedException {
+        Histogram geral = new ConcurrentHistogram(MAIOR_LATENCIA, 3);
+        Map<LinkWorkload.Tipo, Histogram> porTipo = new EnumMap<>(LinkWorkload.Tipo.class);
+        for (LinkWorkload.Tipo tipo : LinkWorkload.Tipo.values()) {
+            porTipo.put(tipo, new ConcurrentHistogram(MAIOR_LATENCIA, 3));
+        }
+        LongAdder concluidas = new LongAdder();
+        LongAdder erros = new LongAdder();
+        LongAdder enviadas = new LongAdder();
+        Semaphore pendentes = new Semaphore(MAXIMO_PENDENTES);
+
+        double intervalo = TimeUnit.SECONDS.toNanos(1) / taxa;
+        long inicio = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        long inicioMedicao = inicio + aquecimentoNanos;
+        long fim = inicioMedicao + medicaoNanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0;; i++) {
+                long previsto = inicio + (long) (i * intervalo);
+                if (previsto >= fim) {
+                    break;
+                }
+                esperarAte(previsto);
+                LinkWorkload.Operacao operacao = carga.proxima();
+                boolean medir = previsto >= inicioMedicao;
+                if (medir) {
+                    enviadas.increment();
+                }
+                if (!pendentes.tryAcquire()) {
+                    if (medir) {
+                        erros.increment();
+                    }
+                    continue;
+                }
+                executor.submit(() -> {
+                    int status;
+                    try {
+                        HttpResponse<String> resposta = http.send(operacao.requisicao(), operacao.leitor());
+                        status = resposta.statusCode();
+                        carga.concluida(operacao, resposta);
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        status = -1;
+                    } finally {
+                        pendentes.release();
+                    }
+                    long agora = System.nanoTime();
+                    if (medir) {
+                        long latencia = Math.min(agora - previsto, MAIOR_LATENCIA);
+                        geral.recordValue(latencia);
+                        porTipo.get(operacao.tipo()).recordValue(latencia);
+                        if (status < 200 || status >= 300) {
+                            erros.increment();
+                        }
+                    }
+                    if (status >= 200 && status < 300 && agora >= inicioMedicao && agora < fim) {
+                        concluidas.increment();
+                    }
+                });
+            }
+        } // close() espera as requisições que ainda estão em andamento
+        return new Resultado(taxa, medicaoNanos / 1e9, concluidas.sum(), erros.sum(), enviadas.sum(), geral, porTipo);
+    }
+
+    // dorme até o horário previsto; atrasado, segue na hora (a latência já conta o atraso)
+    private static void esperarAte(long previsto) {
+        long falta;
+        while ((falta = previsto - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(falta);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package br.com.fatec.api_links_uteis.metrics;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics.Operacao;
+import br.com.fatec.api_links_uteis.metrics.LinkMetrics.Resposta;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Testes unitários para o LinkMetrics.
+ *
+ * Verificam que as operações e os tamanhos de resposta chegam ao Micrometer,
+ * que a amostragem reduz as medições e que os medidores lidos do LinkStore
+ * (tamanho do catálogo, IDs entregues) acompanham o estado dele.
+ */
+class LinkMetricsTest {
+
+    private final LinkStore store = new LinkStore();
+    private final SimpleMeterRegistry registro = new SimpleMeterRegistry(); // registro de métricas em memória
+
+    // 1. Teste sem amostragem: toda operação e toda resposta são medidas
+    @Test
+    void deveMedirTodasAsOperacoes() {
+        LinkMetrics metricas = new LinkMetrics(store, 1);
+        metricas.bindTo(registro);
+
+        for (int i = 0; i < 10; i++) {
+            metricas.medir(Operacao.CREATE, () -> store.create("Link", "https://exemplo.com"));
+        }
+        metricas.registrarBytes(Resposta.LINK, new byte[100]);
+
+        assertEquals(10, registro.get("links.store").tag("operacao", "create").timer().count());
+        assertEquals(100.0, registro.get("links.response.bytes").tag("endpoint", "link").summary().totalAmount());
+        assertEquals(10.0, registro.get("links.catalog.size").gauge().value());
+        assertEquals(10.0, registro.get("links.ids.allocated").functionCounter().count());
+    }
+
+    // 2. Teste de amostragem: com 1 em 100, só uma fração das operações é medida
+    @Test
+    void deveMedirSoAsOperacoesSorteadas() {
+        LinkMetrics metricas = new LinkMetrics(store, 100);
+        metricas.bindTo(registro);
+
+        for (int i = 0; i < 10_000; i++) {
+            metricas.medir(Operacao.FIND_BY_ID, () -> store.findById(1));
+        }
+
+        long medidas = registro.get("links.store").tag("operacao", "findById").timer().count();
+        assertTrue(medidas > 30 && medidas < 300, "medidas: " + medidas); // esperado: cerca de 100
+    }
+
+    // 3. Teste desligado: com 0 nada é medido, mas a operação continua sendo executada
+    @Test
+    void naoDeveMedirComAmostragemZero() {
+        LinkMetrics metricas = new LinkMetrics(store, 0);
+        metricas.bindTo(registro);
+
+        metricas.medir(Operacao.CREATE, () -> store.create("Link", "https://exemplo.com"));
+
+        assertEquals(0, registro.get("links.store").tag("operacao", "create").timer().count());
+        assertEquals(1, store.size());
+    }
+
+    // 4. Teste de IDs num cluster: o contador soma só os IDs deste nó, não os pulados dos outros
+    @Test
+    void deveContarSoOsIdsEntreguesPorEsteNo() {
+        LinkStore noDoCluster = new LinkStore(id -> id % 3 == 0); // um nó de três
+        new LinkMetrics(noDoCluster, 1).bindTo(registro);
+
+        for (int i = 0; i < 5; i++) {
+            noDoCluster.create("Link " + i, "https://exemplo.com/" + i);
+        }
+        noDoCluster.createAll(List.of(new LinkRequest("A", "https://a.com"), new LinkRequest("B", "https://b.com")));
+        noDoCluster.update(100, "PUT", "https://put.com"); // ID escolhido pelo cliente, não entregue
+
+        assertEquals(7.0, registro.get("links.ids.allocated").functionCounter().count());
+        assertTrue(noDoCluster.proximoId() > 100);
+    }
+
+}
@@ -0,0 +1,200 @@
+package br.com.fatec.api_links_uteis.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Testes de recuperação do catálogo com LinkPersistence (snapshot + log).
+ *
+ * Cada teste grava alterações num LinkStore persistido, "derruba" o processo
+ * fechando o log e recupera um LinkStore novo a partir do mesmo diretório.
+ */
+class LinkPersistenceTest {
+
+    @TempDir // diretório temporário criado e apagado pelo JUnit
+    Path diretorio;
+
+    // 1. Teste de reinício: criações, PUT, PATCH e DELETE voltam do log
+    @Test
+    void deveRecuperarTodasAsAlteracoesDoLog() {
+        LinkPersistence persistencia = novaPersistencia();
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        store.create("GitHub", "https://github.com");
+        store.create("Stack Overflow", "https://stackoverflow.com");
+        store.create("Removido", "https://removido.com");
+        store.update(1, "GitHub Novo", "https://github.com/novo");
+        store.patch(2, null, "https://stackoverflow.com/questions");
+        store.delete(3);
+        persistencia.fechar();
+
+        LinkStore recuperado = recuperar();
+
+        assertEquals(2, recuperado.size());
+        assertEquals("GitHub Novo", recuperado.findById(1).titulo());
+        assertEquals("https://stackoverflow.com/questions", recuperado.findById(2).url());
+        assertNull(recuperado.findById(3));
+        // o ID do link removido não é entregue de novo
+        assertEquals(4, recuperado.create("Novo", "https://novo.com").id());
+    }
+
+    // 2. Teste de recuperação a partir do snapshot mais as alterações posteriores
+    @Test
+    void deveRecuperarDoSnapshotMaisOFimDoLog() {
+        LinkPersistence persistencia = novaPersistencia();
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        for (int i = 1; i <= 100; i++) {
+            store.create("Link " + i, "https://exemplo.com/" + i);
+        }
+        persistencia.snapshot();
+        store.create("Entre os snapshots", "https://entre.com");
+        store.delete(101);
+        persistencia.snapshot();
+        store.delete(50);
+        long versao = store.patch(51, "Depois do snapshot", null).versao();
+        persistencia.fechar();
+
+        // o segundo snapshot apagou o log anterior ao primeiro, que fica como reserva com os seus segmentos
+        assertEquals(2, WriteAheadLog.listarSegmentos(diretorio).size());
+        assertEquals(2, SnapshotFile.doMaisRecente(diretorio).size());
+        LinkStore recuperado = recuperar();
+
+        assertEquals(99, recuperado.size());
+        assertNull(recuperado.findById(50));
+        assertEquals("Depois do snapshot", recuperado.findById(51).titulo());
+        assertEquals("Link 100", recuperado.findById(100).titulo());
+        // as versões (ETags) sobrevivem ao reinício e as próximas continuam maiores
+        assertEquals(versao, recuperado.findById(51).versao());
+        assertEquals(100, recuperado.findById(100).versao());
+        assertTrue(recuperado.create("Novo", "https://novo.com").versao() > versao);
+    }
+
+    // 3. Teste de queda no meio de um registro depois do snapshot
+    @Test
+    void deveDescartarRegistroTruncadoDepoisDoSnapshot() throws IOException {
+        LinkPersistence persistencia = novaPersistencia();
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        store.create("Antes", "https://antes.com");
+        persistencia.snapshot();
+        store.create("Confirmado", "https://confirmado.com");
+        store.create("Pela metade", "https://pela-metade.com");
+        persistencia.fechar();
+
+        // corta o último segmento no meio do último registro
+        List<Long> segmentos = WriteAheadLog.listarSegmentos(diretorio);
+        Path ultimo = WriteAheadLog.caminhoSegmento(diretorio, segmentos.get(segmentos.size() - 1));
+        truncarNoMeioDoUltimoRegistro(ultimo);
+
+        LinkStore recuperado = recuperar();
+
+        assertEquals(2, recuperado.size());
+        assertEquals("Confirmado", recuperado.findById(2).titulo());
+        assertNull(recuperado.findById(3));
+    }
+
+    // 4. Teste de snapshot com escritas simultâneas: nenhuma escrita confirmada fica de fora
+    @Test
+    void naoDevePerderEscritasFeitasDuranteOSnapshot() throws Exception {
+        LinkPersistence persistencia = new LinkPersistence(diretorio, 1 << 16, false, Long.MAX_VALUE);
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        for (int i = 1; i <= 200; i++) {
+            store.create("Link " + i, "https://exemplo.com/" + i);
+        }
+        AtomicBoolean parar = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int t = 0; t < 4; t++) {
+                int inicio = t;
+                executor.submit(() -> {
+                    for (int i = 0; !parar.get(); i++) {
+                        int id = 1 + (inicio + i * 4) % 200;
+                        if (i % 5 == 0) {
+                            store.delete(id);
+                        } else {
+                            store.update(id, "Alterado " + i, "https://alterado.com/" + id);
+                        }
+                    }
+                });
+            }
+            for (int i = 0; i < 30; i++) {
+                persistencia.snapshot();
+            }
+            parar.set(true);
+        }
+        persistencia.fechar();
+
+        assertEquals(store.findAll(), recuperar().findAll());
+    }
+
+    // 5. Teste de snapshot danificado: a recuperação volta ao snapshot anterior e relê mais log
+    @Test
+    void deveUsarOSnapshotAnteriorQuandoOMaisRecenteEstiverDanificado() throws IOException {
+        LinkPersistence persistencia = novaPersistencia();
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        store.create("GitHub", "https://github.com");
+        persistencia.snapshot();
+        store.create("Stack Overflow", "https://stackoverflow.com");
+        store.patch(1, "GitHub Novo", null);
+        persistencia.snapshot();
+        store.delete(2);
+        persistencia.fechar();
+
+        // altera um byte no meio do snapshot mais recente
+        Path maisRecente = SnapshotFile.doMaisRecente(diretorio).get(0);
+        byte[] bytes = Files.readAllBytes(maisRecente);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(maisRecente, bytes);
+
+        LinkStore recuperado = recuperar();
+
+        assertEquals(1, recuperado.size());
+        assertEquals("GitHub Novo", recuperado.findById(1).titulo());
+        assertNull(recuperado.findById(2));
+    }
+
+    private LinkPersistence novaPersistencia() {
+        // fsync ligado como em produção; snapshot automático desligado para o teste controlar
+        return new LinkPersistence(diretorio, 1 << 16, true, Long.MAX_VALUE);
+    }
+
+    private LinkStore recuperar() {
+        LinkPersistence persistencia = novaPersistencia();
+        LinkStore store = new LinkStore();
+        persistencia.recuperar(store);
+        persistencia.fechar();
+        return store;
+    }
+
+    // acha o fim dos dados (primeiro int zero na fronteira de um registro) e corta 5 bytes antes
+    private static void truncarNoMeioDoUltimoRegistro(Path arquivo) throws IOException {
+        byte[] bytes = Files.readAllBytes(arquivo);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int posicao = 0;
+        while (buffer.getInt(posicao) != 0) {
+            posicao += 8 + buffer.getInt(posicao);
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            canal.truncate(posicao - 5);
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package br.com.fatec.api_links_uteis.persistence;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Testes de consistência do WriteAheadLog após uma queda.
+ *
+ * Simulam um processo que caiu no meio da escrita de um registro
+ * (arquivo truncado ou bytes corrompidos) e verificam que a leitura
+ * recupera exatamente os registros completos anteriores.
+ */
+class WriteAheadLogTest {
+    private static final int SEGMENTO = 4096; // segmentos pequenos para testar a troca
+
+    @TempDir // diretório temporário criado e apagado pelo JUnit
+    Path diretorio;
+
+    // 1. Teste de leitura de todos os registros gravados
+    @Test
+    void deveLerTodosOsRegistrosNaOrdemGravada() {
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            wal.gravar(new Link(1, "GitHub", "https://github.com", 1));
+            wal.gravar(new Link(2, null, "https://sem-titulo.com", 2));
+            wal.remover(1, 3);
+            wal.aguardarDurabilidade(wal.posicaoAtual());
+        }
+
+        List<WriteAheadLog.Registro> registros = ler();
+
+        assertEquals(3, registros.size());
+        assertEquals(new Link(1, "GitHub", "https://github.com", 1), registros.get(0).link());
+        assertNull(registros.get(1).link().titulo()); // null sobrevive à codificação
+        assertEquals(1, registros.get(2).id());
+        assertEquals(3, registros.get(2).versao());
+        assertNull(registros.get(2).link()); // remoção
+    }
+
+    // 2. Teste de troca de segmento quando o atual enche
+    @Test
+    void deveContinuarNoProximoSegmentoQuandoOAtualEnche() {
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            for (int id = 1; id <= 200; id++) {
+                wal.gravar(new Link(id, "Link " + id, "https://exemplo.com/" + id, id));
+            }
+        }
+
+        assertEquals(200, ler().size());
+        assertEquals(true, WriteAheadLog.listarSegmentos(diretorio).size() > 1);
+    }
+
+    // 3. Teste de queda no meio de um registro (arquivo truncado)
+    @Test
+    void deveIgnorarRegistroTruncadoNoFimDoLog() throws IOException {
+        long fimDoSegundo;
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            wal.gravar(new Link(1, "Um", "https://um.com", 1));
+            fimDoSegundo = wal.gravar(new Link(2, "Dois", "https://dois.com", 2));
+            wal.gravar(new Link(3, "Três", "https://tres.com", 3));
+        }
+        // corta o arquivo no meio do terceiro registro, como se o processo tivesse caído
+        truncar(WriteAheadLog.caminhoSegmento(diretorio, 1), (int) fimDoSegundo + 10);
+
+        List<WriteAheadLog.Registro> registros = ler();
+
+        assertEquals(2, registros.size());
+        assertEquals("Dois", registros.get(1).link().titulo());
+    }
+
+    // 4. Teste de queda com o registro escrito pela metade (CRC não confere)
+    @Test
+    void deveIgnorarRegistroComCrcInvalido() throws IOException {
+        long fimDoPrimeiro;
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            fimDoPrimeiro = wal.gravar(new Link(1, "Um", "https://um.com", 1));
+            wal.gravar(new Link(2, "Dois", "https://dois.com", 2));
+        }
+        // altera um byte do conteúdo do segundo registro
+        try (RandomAccessFile arquivo = new RandomAccessFile(WriteAheadLog.caminhoSegmento(diretorio, 1).toFile(), "rw")) {
+            arquivo.seek((int) fimDoPrimeiro + 12);
+            arquivo.write(0x7F);
+        }
+
+        assertEquals(1, ler().size());
+    }
+
+    // 5. Teste de reabertura depois de uma queda: a recuperação apaga o registro danificado
+    //    e os novos registros vão para um segmento novo, lido depois do antigo
+    @Test
+    void deveGravarNovosRegistrosDepoisDeRecuperarDeUmaQueda() throws IOException {
+        long fimDoPrimeiro;
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            fimDoPrimeiro = wal.gravar(new Link(1, "Um", "https://um.com", 1));
+            wal.gravar(new Link(2, "Dois", "https://dois.com", 2));
+        }
+        truncar(WriteAheadLog.caminhoSegmento(diretorio, 1), (int) fimDoPrimeiro + 6);
+        assertEquals(1, ler().size()); // a recuperação
+
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            wal.gravar(new Link(3, "Três", "https://tres.com", 3));
+        }
+
+        List<WriteAheadLog.Registro> registros = ler();
+        assertEquals(2, registros.size());
+        assertEquals(1, registros.get(0).id());
+        assertEquals(3, registros.get(1).id());
+    }
+
+    // 6. Teste de commit em grupo com milhares de threads virtuais esperando o fsync ao mesmo tempo
+    @Test
+    void deveLiberarThreadsVirtuaisEsperandoODisco() {
+        int escritas = 5_000;
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, 1 << 20);
+                ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int id = 1; id <= escritas; id++) {
+                int linkId = id;
+                executor.submit(() -> wal.aguardarDurabilidade(wal.gravar(new Link(linkId, "Link", "https://link.com", linkId))));
+            }
+            // o close() do executor espera todas as tarefas terminarem
+        }
+
+        assertEquals(escritas, ler().size());
+    }
+
+    // 7. Teste de prefixo: depois de um registro danificado, os segmentos seguintes não são reaplicados
+    @Test
+    void devePararNoPrimeiroRegistroDanificadoSemPularParaOProximoSegmento() throws IOException {
+        long fimDoPrimeiro;
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            fimDoPrimeiro = wal.gravar(new Link(1, "Um", "https://um.com", 1));
+            wal.gravar(new Link(2, "Dois", "https://dois.com", 2));
+        }
+        try (RandomAccessFile arquivo = new RandomAccessFile(WriteAheadLog.caminhoSegmento(diretorio, 1).toFile(), "rw")) {
+            arquivo.seek((int) fimDoPrimeiro + 12);
+            arquivo.write(0x7F);
+        }
+        // reaberto sem passar pela recuperação: o segmento 2 vem depois de um buraco no log
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            wal.gravar(new Link(3, "Três", "https://tres.com", 3));
+        }
+
+        List<WriteAheadLog.Registro> registros = ler();
+
+        assertEquals(List.of(1), registros.stream().map(WriteAheadLog.Registro::id).toList());
+        assertEquals(List.of(1L), WriteAheadLog.listarSegmentos(diretorio));
+        assertTrue(Files.exists(diretorio.resolve(
+                WriteAheadLog.caminhoSegmento(diretorio, 2).getFileName() + ".descartado")));
+        assertEquals(1, ler().size()); // a releitura chega ao mesmo prefixo
+    }
+
+    // 8. Teste de troca de segmentos sem fsync: ninguém espera o disco, mas os segmentos cheios
+    //    são fechados e, depois de apagados, não ficam abertos ocupando o disco
+    @Test
+    void deveFecharOsSegmentosCheiosMesmoSemNinguemEsperarOFsync() throws InterruptedException {
+        try (WriteAheadLog wal = new WriteAheadLog(diretorio, SEGMENTO)) {
+            for (int id = 1; id <= 5_000; id++) {
+                wal.gravar(new Link(id, "Link " + id, "https://exemplo.com/" + id, id));
+            }
+            List<Long> segmentos = WriteAheadLog.listarSegmentos(diretorio);
+            assertTrue(segmentos.size() > 50);
+
+            // o fechamento é feito pela thread de gravação, em segundo plano
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (wal.segmentosAbertos() > 1 && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, wal.segmentosAbertos()); // só o atual
+
+            wal.apagarSegmentosAntesDe(segmentos.get(segmentos.size() - 1));
+            assertEquals(List.of(segmentos.get(segmentos.size() - 1)), WriteAheadLog.listarSegmentos(diretorio));
+        }
+
+        assertTrue(ler().size() > 0);
+    }
+
+    private List<WriteAheadLog.Registro> ler() {
+        List<WriteAheadLog.Registro> registros = new ArrayList<>();
+        WriteAheadLog.ler(diretorio, 0, registros::add);
+        return registros;
+    }
+
+    private static void truncar(Path arquivo, int tamanho) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanho);
+        }
+    }
+
+}
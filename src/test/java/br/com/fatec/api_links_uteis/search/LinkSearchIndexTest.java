@@ -0,0 +1,118 @@
+package br.com.fatec.api_links_uteis.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.store.LinkStore;
+
+/**
+ * Testes unitários para o LinkSearchIndex.
+ *
+ * Verificam a busca por termos do título e por prefixo de URL, e que o
+ * índice acompanha criações, PUT, PATCH e DELETE feitos no LinkStore.
+ */
+class LinkSearchIndexTest {
+
+    private final LinkStore store = new LinkStore();
+    private final LinkSearchIndex indice = new LinkSearchIndex(store);
+
+    @BeforeEach
+    void registrar() {
+        indice.registrar(); // o Spring chama no @PostConstruct
+    }
+
+    // 1. Teste de busca por termos do título (todos os termos, sem acento e sem caixa)
+    @Test
+    void deveBuscarPorTodosOsTermosDoTitulo() {
+        store.create("Documentação do Spring Boot", "https://spring.io/projects/spring-boot");
+        store.create("Spring Framework", "https://spring.io/projects/spring-framework");
+        store.create("Guia de Java", "https://dev.java/learn");
+
+        assertEquals(List.of(1, 2), ids(indice.search("spring", 10)));
+        assertEquals(List.of(1), ids(indice.search("DOCUMENTACAO spring", 10)));
+        assertTrue(indice.search("spring java", 10).isEmpty());
+    }
+
+    // 2. Teste de busca por prefixo do host e do caminho da URL
+    @Test
+    void deveBuscarPorPrefixoDaUrl() {
+        store.create("GitHub", "https://github.com");
+        store.create("Repositório Spring", "https://www.github.com/spring-projects");
+        store.create("GitLab", "https://gitlab.com");
+
+        assertEquals(List.of(1, 2, 3), ids(indice.search("git", 10)));
+        assertEquals(List.of(1, 2), ids(indice.search("github.com", 10)));
+        assertEquals(List.of(2), ids(indice.search("https://github.com/spring", 10)));
+        assertTrue(indice.search("github.com/spring-boot", 10).isEmpty());
+        assertTrue(indice.search("gitlab.com/spring", 10).isEmpty());
+    }
+
+    // 3. Teste para o índice acompanhar PUT, PATCH e DELETE
+    @Test
+    void deveAcompanharAlteracoesDoCatalogo() {
+        store.create("Stack Overflow", "https://stackoverflow.com");
+        store.create("Removido", "https://removido.com");
+
+        store.patch(1, "Perguntas e Respostas", null);
+        store.update(2, "Outro", "https://outro.com");
+        store.delete(2);
+
+        assertTrue(indice.search("overflow", 10).isEmpty()); // termo do título antigo
+        assertEquals(List.of(1), ids(indice.search("perguntas", 10)));
+        assertEquals(List.of(1), ids(indice.search("stackoverflow", 10))); // a URL não mudou
+        assertTrue(indice.search("outro", 10).isEmpty());
+        assertTrue(indice.search("removido.com", 10).isEmpty());
+    }
+
+    // 4. Teste do limite de resultados
+    @Test
+    void deveRespeitarOLimite() {
+        for (int i = 0; i < 50; i++) {
+            store.create("Link repetido " + i, "https://exemplo.com/" + i);
+        }
+
+        assertEquals(List.of(1, 2, 3), ids(indice.search("repetido", 3)));
+        assertEquals(List.of(1, 2, 3), ids(indice.search("exemplo", 3)));
+    }
+
+    // 5. Teste do registro: links removidos enquanto o índice é registrado não ficam nos postings
+    @Test
+    void naoDeveIndexarLinksRemovidosDuranteORegistro() throws Exception {
+        LinkStore outro = new LinkStore();
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                AtomicBoolean parar = new AtomicBoolean();
+                Future<?> escritas = executor.submit(() -> {
+                    while (!parar.get()) {
+                        outro.delete(outro.create("Temporario", "https://exemplo.com").id());
+                    }
+                });
+                LinkSearchIndex novo = new LinkSearchIndex(outro);
+                try {
+                    novo.registrar();
+                } finally {
+                    parar.set(true);
+                    escritas.get();
+                }
+                // sem escritas em andamento, o índice tem exatamente os links que existem
+                List<Integer> existentes = ids(outro.findAll());
+                assertEquals(existentes, Arrays.stream(novo.postings("temporario")).boxed().toList());
+            }
+        }
+    }
+
+    private static List<Integer> ids(List<Link> links) {
+        return links.stream().map(Link::id).toList();
+    }
+
+}
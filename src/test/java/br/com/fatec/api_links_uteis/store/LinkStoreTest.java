@@ -0,0 +1,391 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import br.com.fatec.api_links_uteis.model.Link;
+import br.com.fatec.api_links_uteis.model.LinkRequest;
+
+/**
+ * Testes unitários e de concorrência para o LinkStore.
+ *
+ * Os testes de estresse disparam criações, atualizações (PUT), atualizações
+ * parciais (PATCH) e remoções ao mesmo tempo, a partir de várias threads,
+ * e verificam que nenhuma escrita foi perdida e nenhum ID foi repetido.
+ */
+class LinkStoreTest {
+
+    private static final int THREADS = 8; // número de threads concorrentes
+    private static final int OPERACOES_POR_THREAD = 2_000; // links criados por thread
+
+    private final LinkStore store = new LinkStore();
+
+    // 1. Teste do ciclo básico de criação, busca e remoção
+    @Test
+    void deveCriarBuscarERemoverLink() {
+        Link criado = store.create("GitHub", "https://github.com");
+
+        assertEquals(1, criado.id());
+        assertEquals(criado, store.findById(1));
+        assertTrue(store.delete(1));
+        assertFalse(store.delete(1)); // segunda remoção não encontra nada
+        assertNull(store.findById(1));
+    }
+
+    // 2. Teste para garantir que um PUT em ID novo não colide com o próximo create()
+    @Test
+    void naoDeveReutilizarIdCriadoPorUpdate() {
+        store.update(10, "Manual", "https://manual.com");
+        Link criado = store.create("Novo", "https://novo.com");
+
+        assertEquals(11, criado.id());
+        assertEquals("Manual", store.findById(10).titulo());
+    }
+
+    // 3. Teste de criação em lote com IDs consecutivos
+    @Test
+    void deveCriarLoteComFaixaDeIdsConsecutivos() {
+        store.create("Antes", "https://antes.com");
+        List<Link> criados = store.createAll(List.of(
+                new LinkRequest("Um", "https://um.com"),
+                new LinkRequest("Dois", "https://dois.com")));
+
+        assertEquals(2, criados.get(0).id());
+        assertEquals(3, criados.get(1).id());
+        assertEquals("Dois", store.findById(3).titulo());
+        assertEquals(4, store.create("Depois", "https://depois.com").id());
+    }
+
+    // 4. Teste de estresse: POST/PUT/PATCH/DELETE simultâneos sem perda de escritas
+    @Test
+    void naoDevePerderEscritasSobConcorrencia() throws Exception {
+        List<Callable<List<Integer>>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tarefas.add(() -> {
+                List<Integer> sobreviventes = new ArrayList<>();
+                for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                    int id = store.create("t" + thread, "https://t" + thread + ".com/" + i).id();
+                    store.update(id, "put-" + id, "https://put.com/" + id);
+                    store.patch(id, "patch-" + id, null);
+                    // remove metade dos links criados por esta thread
+                    if (i % 2 == 0) {
+                        store.delete(id);
+                    } else {
+                        sobreviventes.add(id);
+                    }
+                }
+                return sobreviventes;
+            });
+        }
+
+        List<List<Integer>> resultados = executarJuntas(tarefas);
+
+        Set<Integer> esperados = new HashSet<>();
+        resultados.forEach(esperados::addAll);
+        // nenhum ID foi entregue para duas threads e nenhuma criação se perdeu
+        assertEquals(THREADS * OPERACOES_POR_THREAD / 2, esperados.size());
+        assertEquals(esperados.size(), store.size());
+        for (int id : esperados) {
+            Link link = store.findById(id);
+            // o PATCH manteve a URL do PUT e trocou apenas o título
+            assertEquals("patch-" + id, link.titulo());
+            assertEquals("https://put.com/" + id, link.url());
+        }
+    }
+
+    // 5. Teste de estresse: PATCHs simultâneos em campos diferentes do mesmo link
+    @Test
+    void patchesSimultaneosNaoDevemSobrescreverUmAoOutro() throws Exception {
+        int id = store.create("inicial", "https://inicial.com").id();
+        // uma thread só altera o título e a outra só altera a URL;
+        // se um PATCH sobrescrevesse o outro, o último valor de algum campo se perderia
+        List<Callable<Integer>> tarefas = List.of(
+                () -> {
+                    for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                        store.patch(id, "titulo-" + i, null);
+                    }
+                    return 0;
+                },
+                () -> {
+                    for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                        store.patch(id, null, "https://url.com/" + i);
+                    }
+                    return 0;
+                });
+
+        executarJuntas(tarefas);
+
+        int ultimo = OPERACOES_POR_THREAD - 1;
+        assertEquals("titulo-" + ultimo, store.findById(id).titulo());
+        assertEquals("https://url.com/" + ultimo, store.findById(id).url());
+    }
+
+    // 6. Teste de estresse: PUTs no próximo ID livre simultâneos a POSTs. O PUT que cria um ID
+    //    nunca é sobrescrito pelo create() que reservou o mesmo ID: o create() pega outro
+    @Test
+    void createNaoDeveSobrescreverLinkCriadoPorPutSimultaneo() throws Exception {
+        // simula a espera pelo fsync depois de cada escrita, o que alarga a janela da corrida
+        store.addListener(new LinkChangeListener() {
+            @Override
+            public void onChange(LinkChange mudanca) {
+            }
+
+            @Override
+            public void afterChange(LinkChange mudanca) {
+                LockSupport.parkNanos(20_000);
+            }
+        });
+        List<Callable<List<Integer>>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean put = t % 2 == 0;
+            tarefas.add(() -> {
+                List<Integer> ids = new ArrayList<>();
+                for (int i = 0; i < OPERACOES_POR_THREAD / 4; i++) {
+                    if (put) {
+                        int id = store.proximoId();
+                        store.update(id, "put-" + id, "https://put.com/" + id);
+                        ids.add(id);
+                    } else {
+                        ids.add(-store.create("post", "https://post.com/" + i).id());
+                    }
+                }
+                return ids;
+            });
+        }
+
+        List<List<Integer>> resultados = executarJuntas(tarefas);
+
+        Set<Integer> criadosPorPut = new HashSet<>();
+        List<Integer> criadosPorPost = new ArrayList<>();
+        for (List<Integer> ids : resultados) {
+            for (int id : ids) {
+                if (id > 0) {
+                    criadosPorPut.add(id);
+                } else {
+                    criadosPorPost.add(-id);
+                }
+            }
+        }
+        // nenhum ID foi entregue a dois POSTs
+        assertEquals(criadosPorPost.size(), new HashSet<>(criadosPorPost).size());
+        // um ID de PUT só pode ter o conteúdo do PUT (que pode ter substituído um POST anterior)
+        for (int id : criadosPorPut) {
+            assertEquals("put-" + id, store.findById(id).titulo());
+        }
+        Set<Integer> todos = new HashSet<>(criadosPorPut);
+        todos.addAll(criadosPorPost);
+        assertEquals(todos.size(), store.size());
+    }
+
+    // 7. Teste de estresse: leitura-alteração-escrita com versão esperada não perde incrementos
+    @Test
+    void alteracoesCondicionaisNaoDevemPerderIncrementos() throws Exception {
+        int id = store.create("0", "https://contador.com").id();
+        // cada thread lê o contador, soma 1 e grava só se a versão lida ainda for a atual;
+        // se outra thread gravou antes, lê de novo e tenta outra vez
+        List<Callable<Integer>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tarefas.add(() -> {
+                int conflitos = 0;
+                for (int i = 0; i < 500; i++) {
+                    while (true) {
+                        Link lido = store.findById(id);
+                        String novoValor = String.valueOf(Integer.parseInt(lido.titulo()) + 1);
+                        try {
+                            store.patch(id, novoValor, null, atual -> atual != null && atual.versao() == lido.versao());
+                            break;
+                        } catch (VersaoDivergenteException e) {
+                            conflitos++;
+                        }
+                    }
+                }
+                return conflitos;
+            });
+        }
+
+        executarJuntas(tarefas);
+
+        assertEquals(String.valueOf(THREADS * 500), store.findById(id).titulo());
+    }
+
+    // 8. Teste de versões: crescem a cada alteração, inclusive depois de remover e recriar
+    @Test
+    void versoesDevemCrescerACadaAlteracao() {
+        Link criado = store.create("GitHub", "https://github.com");
+        long catalogo = store.versao();
+        Link alterado = store.patch(criado.id(), "GitHub 2", null);
+        store.delete(criado.id());
+        Link recriado = store.update(criado.id(), "GitHub 3", "https://github.com");
+
+        assertTrue(alterado.versao() > criado.versao());
+        assertTrue(recriado.versao() > alterado.versao());
+        assertEquals(catalogo + 3, store.versao()); // cada alteração muda a versão do catálogo
+    }
+
+    // 9. Teste de IDs locais: num cluster, create() e createAll() só entregam os IDs deste nó
+    @Test
+    void deveCriarSoIdsLocais() {
+        LinkStore pares = new LinkStore(id -> id % 2 == 0);
+
+        Link criado = pares.create("GitHub", "https://github.com");
+        List<Link> lote = pares.createAll(List.of(
+                new LinkRequest("A", "https://a.com"), new LinkRequest("B", "https://b.com")));
+
+        assertEquals(2, criado.id());
+        assertEquals(List.of(4, 6), lote.stream().map(Link::id).toList());
+    }
+
+    // 10. Teste de lote: os afterChange só rodam depois de todas as escritas do lote
+    @Test
+    void deveConcluirAsEscritasDoLoteNoFim() {
+        List<String> eventos = new ArrayList<>();
+        store.addListener(new LinkChangeListener() {
+            @Override
+            public void onChange(LinkChange alteracao) {
+                eventos.add("aplicada " + alteracao.id());
+            }
+
+            @Override
+            public void afterChange(LinkChange alteracao) {
+                eventos.add("concluída " + alteracao.id());
+            }
+        });
+
+        store.emLote(() -> {
+            store.create("A", "https://a.com");
+            store.patch(1, "A2", null);
+            store.create("B", "https://b.com");
+        });
+        store.delete(2); // fora do lote: concluída na hora
+
+        assertEquals(List.of("aplicada 1", "aplicada 1", "aplicada 2", "concluída 1", "concluída 1", "concluída 2",
+                "aplicada 2", "concluída 2"), eventos);
+        assertEquals("A2", store.findById(1).titulo());
+    }
+
+    // 11. Teste de URL repetida (reject): a escrita é recusada antes dos listeners e nada muda
+    @Test
+    void deveRecusarUrlRepetida() {
+        LinkStore unico = new LinkStore(null, new HeapLinkTable(), LinkStore.UrlsDuplicadas.REJEITAR);
+        List<LinkChange> avisadas = new ArrayList<>();
+        unico.addListener(avisadas::add);
+        Link github = unico.create("GitHub", "https://github.com");
+        Link outro = unico.create("Outro", "https://outro.com");
+
+        UrlDuplicadaException erro = assertThrows(UrlDuplicadaException.class,
+                () -> unico.create("GitHub de novo", "https://GitHub.com/"));
+        assertEquals(github.id(), erro.getIdExistente());
+        assertThrows(UrlDuplicadaException.class, () -> unico.patch(outro.id(), null, "https://github.com"));
+        assertThrows(UrlDuplicadaException.class, () -> unico.update(outro.id(), "X", "https://github.com/"));
+        // o mesmo link pode manter (ou só reescrever) a própria URL
+        unico.update(github.id(), "GitHub!", "https://GITHUB.com");
+
+        List<Link> lote = unico.createAll(List.of(
+                new LinkRequest("A", "https://a.com"), new LinkRequest("Repetido", "https://outro.com/"),
+                new LinkRequest("A de novo", "https://a.com")));
+        assertEquals(List.of("A"), lote.stream().map(Link::titulo).toList());
+
+        assertEquals(3, unico.size());
+        assertEquals("https://outro.com", unico.findById(outro.id()).url());
+        assertEquals(4, avisadas.size()); // 2 criações, a troca do GitHub e o "A"
+    }
+
+    // 12. Teste de upsert: create() com URL repetida substitui o link que já tem a URL
+    @Test
+    void deveSubstituirOLinkComAMesmaUrlNoUpsert() {
+        LinkStore upsert = new LinkStore(null, new HeapLinkTable(), LinkStore.UrlsDuplicadas.ATUALIZAR);
+        Link github = upsert.create("GitHub", "https://github.com");
+
+        Link substituido = upsert.create("GitHub (novo)", "https://github.com/");
+        assertEquals(github.id(), substituido.id());
+        assertEquals("GitHub (novo)", upsert.findById(github.id()).titulo());
+        assertEquals(1, upsert.size());
+
+        List<Link> lote = upsert.createAll(List.of(new LinkRequest("GitHub (lote)", "HTTPS://GITHUB.COM")));
+        assertEquals(List.of(github.id()), lote.stream().map(Link::id).toList());
+        assertEquals(1, upsert.size());
+        // PUT e PATCH não mudam de link: continuam recusando a URL de outro
+        Link outro = upsert.create("Outro", "https://outro.com");
+        assertThrows(UrlDuplicadaException.class, () -> upsert.patch(outro.id(), null, "https://github.com"));
+    }
+
+    // 13. Teste de concorrência: várias threads criando a mesma URL, só uma consegue
+    @Test
+    void soUmaCriacaoSimultaneaDeveFicarComAUrl() throws Exception {
+        LinkStore unico = new LinkStore(null, new HeapLinkTable(), LinkStore.UrlsDuplicadas.REJEITAR);
+        for (int rodada = 0; rodada < 200; rodada++) {
+            String url = "https://exemplo.com/" + rodada;
+            List<Callable<Boolean>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tarefas.add(() -> {
+                    try {
+                        unico.create("Link", url);
+                        return true;
+                    } catch (UrlDuplicadaException e) {
+                        return false;
+                    }
+                });
+            }
+            assertEquals(1, executarJuntas(tarefas).stream().filter(criado -> criado).count());
+            assertEquals(1, unico.findByUrl(url).size());
+        }
+        assertEquals(200, unico.size());
+    }
+
+    // 14. Teste de cancelamento: se um listener recusar a alteração, a URL volta ao dono anterior
+    @Test
+    void deveDesfazerOIndiceQuandoUmListenerRecusarAAlteracao() {
+        LinkStore unico = new LinkStore(null, new HeapLinkTable(), LinkStore.UrlsDuplicadas.REJEITAR);
+        Link github = unico.create("GitHub", "https://github.com");
+        unico.addListener(alteracao -> {
+            throw new IllegalStateException("log indisponível");
+        });
+
+        assertThrows(IllegalStateException.class, () -> unico.patch(github.id(), null, "https://gitlab.com"));
+        assertThrows(IllegalStateException.class, () -> unico.create("GitLab", "https://gitlab.com"));
+
+        assertEquals(List.of(github), unico.findByUrl("https://github.com"));
+        assertEquals(List.of(), unico.findByUrl("https://gitlab.com"));
+        assertEquals(1, unico.urlsIndexadas());
+    }
+
+    // dispara todas as tarefas ao mesmo tempo e espera os resultados
+    private static <T> List<T> executarJuntas(List<Callable<T>> tarefas) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tarefas.size());
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<T>> futuros = new ArrayList<>();
+            for (Callable<T> tarefa : tarefas) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return tarefa.call();
+                }));
+            }
+            largada.countDown(); // libera todas as threads juntas
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
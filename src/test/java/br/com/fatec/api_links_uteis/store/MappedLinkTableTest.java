@@ -0,0 +1,172 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Testes unitários e de concorrência para o MappedLinkTable.
+ *
+ * Usam blocos e índices pequenos para que os registros mudem de bloco e o
+ * índice cresça várias vezes com poucos links.
+ */
+class MappedLinkTableTest {
+
+    @TempDir // pasta temporária criada pelo JUnit e apagada no fim do teste
+    Path diretorio;
+
+    // 1. Teste do ciclo de gravação, leitura, substituição e remoção, com UTF-8 e null
+    @Test
+    void deveGravarLerSubstituirERemover() {
+        MappedLinkTable tabela = new MappedLinkTable(diretorio, 4096, 16);
+
+        tabela.put(new Link(1, "Ação ☕", "https://exemplo.com/ç", 1));
+        tabela.put(new Link(2, null, "https://sem-titulo.com", 2));
+        tabela.put(new Link(1, "Novo título", "https://novo.com", 3));
+
+        assertEquals(new Link(1, "Novo título", "https://novo.com", 3), tabela.get(1));
+        assertEquals(new Link(2, null, "https://sem-titulo.com", 2), tabela.get(2));
+        assertNull(tabela.get(3));
+
+        tabela.remove(1);
+        assertNull(tabela.get(1));
+        tabela.put(new Link(1, "De volta", "https://volta.com", 4)); // o ID removido pode ser gravado de novo
+        assertEquals("De volta", tabela.get(1).titulo());
+    }
+
+    // 2. Teste de crescimento e ordem: índice e blocos crescem, a varredura sai em ordem de ID
+    @Test
+    void deveCrescerEPercorrerEmOrdemDeId() {
+        MappedLinkTable tabela = new MappedLinkTable(diretorio, 4096, 16);
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= 10_000; id++) {
+            ids.add(id);
+        }
+        ids.addAll(List.of(-70_000, -1, 0, 1_000_000, Integer.MAX_VALUE)); // IDs de PUT, fora da sequência
+        Collections.shuffle(ids, new Random(42));
+
+        TreeMap<Integer, Link> esperado = new TreeMap<>();
+        for (int id : ids) {
+            Link link = new Link(id, "Link " + id, "https://exemplo.com/" + id, id);
+            tabela.put(link);
+            esperado.put(id, link);
+        }
+        for (int id : ids) {
+            if (id % 3 == 0) {
+                tabela.remove(id);
+                esperado.remove(id);
+            }
+        }
+
+        for (int id : ids) {
+            assertEquals(esperado.get(id), tabela.get(id));
+        }
+        assertEquals(new ArrayList<>(esperado.values()), listar(tabela.todos()));
+        assertEquals(new ArrayList<>(esperado.tailMap(5_000, false).values()), listar(tabela.depoisDe(5_000)));
+        assertFalse(tabela.depoisDe(Integer.MAX_VALUE).iterator().hasNext());
+    }
+
+    // 3. Teste de estresse: criações e PATCHs simultâneos pelo LinkStore, sem perder escritas
+    @Test
+    void naoDevePerderEscritasSobConcorrencia() throws Exception {
+        LinkStore store = new LinkStore(null, new MappedLinkTable(diretorio, 1 << 16, 16));
+        List<Future<?>> tarefas = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        Link criado = store.create("Link", "https://exemplo.com/" + i);
+                        store.patch(criado.id(), "Alterado " + criado.id(), null);
+                    }
+                }));
+            }
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+
+        assertEquals(16_000, store.size());
+        List<Link> todos = store.findAll();
+        assertEquals(16_000, todos.size());
+        for (int i = 0; i < todos.size(); i++) {
+            Link link = todos.get(i);
+            assertEquals(i + 1, link.id()); // IDs de 1 a 16.000, sem buracos nem repetições
+            assertEquals("Alterado " + link.id(), link.titulo());
+        }
+    }
+
+    // 4. Teste de rotatividade: criar e remover muito mais IDs que a capacidade do índice não o faz crescer
+    // sem parar, e o arquivo de dados é compactado em vez de crescer sem limite
+    @Test
+    void deveReaproveitarIndiceEArquivoComCriacoesERemocoes() {
+        MappedLinkTable tabela = new MappedLinkTable(diretorio, 4096, 16);
+        TreeMap<Integer, Link> esperado = new TreeMap<>();
+        for (int id = 1; id <= 100_000; id++) {
+            Link link = new Link(id, "Link " + id, "https://exemplo.com/" + id, id);
+            tabela.put(link);
+            esperado.put(id, link);
+            if (id % 10 == 0) {
+                // versão nova de um link que continua: o registro anterior vira espaço perdido
+                Link alterado = new Link(id, "Alterado " + id, link.url(), id + 1);
+                tabela.put(alterado);
+                esperado.put(id, alterado);
+            }
+            if (id > 8) {
+                tabela.remove(id - 8); // no máximo 8 links vivos de cada vez
+                esperado.remove(id - 8);
+            }
+        }
+
+        assertTrue(tabela.capacidadeIndice() <= 32, "índice cresceu com marcas de removido: " + tabela.capacidadeIndice());
+        assertTrue(tabela.bytesOcupados() < 16 * 4096, "arquivo sem compactação: " + tabela.bytesOcupados());
+        assertTrue(tabela.bytesDesperdicados() <= Math.max(1024, tabela.bytesOcupados() / 2));
+        for (int id = 99_990; id <= 100_000; id++) {
+            assertEquals(esperado.get(id), tabela.get(id));
+        }
+        assertNull(tabela.get(1));
+        assertEquals(new ArrayList<>(esperado.values()), listar(tabela.todos()));
+    }
+
+    // 5. Teste de link que não cabe na tabela: a escrita é recusada antes dos listeners e do índice de URLs
+    @Test
+    void deveRecusarLinkQueNaoCabeSemAvisarOsListeners() {
+        LinkStore store = new LinkStore(null, new MappedLinkTable(diretorio, 4096, 16));
+        List<LinkChange> avisadas = new ArrayList<>();
+        store.addListener(avisadas::add);
+        Link github = store.create("GitHub", "https://github.com");
+        String urlGrande = "https://exemplo.com/" + "a".repeat(5000); // maior que um bloco de 4 KB
+
+        assertThrows(IllegalArgumentException.class, () -> store.create("Grande", urlGrande));
+        assertThrows(IllegalArgumentException.class, () -> store.patch(github.id(), null, urlGrande));
+
+        assertEquals(1, avisadas.size()); // só a criação do GitHub chegou aos listeners (ex.: o log)
+        assertEquals(1, store.size());
+        assertEquals(github, store.findById(github.id()));
+        assertEquals(List.of(github), store.findByUrl("https://github.com"));
+        assertTrue(store.findByUrl(urlGrande).isEmpty());
+        assertEquals(1, store.urlsIndexadas());
+    }
+
+    private static List<Link> listar(Iterable<Link> links) {
+        List<Link> lista = new ArrayList<>();
+        links.forEach(lista::add);
+        return lista;
+    }
+
+}
@@ -0,0 +1,72 @@
+package br.com.fatec.api_links_uteis.store;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import org.junit.jupiter.api.Test;
+
+import br.com.fatec.api_links_uteis.model.Link;
+
+/**
+ * Testes unitários para o UrlIndex.
+ *
+ * Verificam a normalização das URLs e que o índice acompanha as criações,
+ * trocas de URL e remoções feitas pelo LinkStore.
+ */
+class UrlIndexTest {
+
+    private final LinkStore store = new LinkStore();
+
+    // 1. Teste de normalização: esquema e host sem diferença de maiúsculas, porta padrão e "/" no fim
+    @Test
+    void deveNormalizarEsquemaHostEBarraNoFim() {
+        assertEquals("https://github.com", UrlIndex.normalizar(" HTTPS://GitHub.COM/ "));
+        assertEquals("https://github.com", UrlIndex.normalizar("https://github.com:443"));
+        assertEquals("http://exemplo.com/Docs", UrlIndex.normalizar("http://Exemplo.com:80/Docs//"));
+        assertEquals("https://exemplo.com/a?q=1#Topo", UrlIndex.normalizar("https://EXEMPLO.com/a/?q=1#Topo"));
+        assertEquals("https://Usuario@exemplo.com", UrlIndex.normalizar("https://Usuario@Exemplo.com/"));
+        assertEquals("github.com/spring", UrlIndex.normalizar("GitHub.com/spring/"));
+        // o caminho diferencia maiúsculas, e outra porta é outra URL
+        assertNotEquals(UrlIndex.normalizar("https://exemplo.com/A"), UrlIndex.normalizar("https://exemplo.com/a"));
+        assertNotEquals(UrlIndex.normalizar("https://exemplo.com:8443"), UrlIndex.normalizar("https://exemplo.com"));
+    }
+
+    // 2. Teste de consistência: o índice segue a URL de cada link em PUT, PATCH e DELETE
+    @Test
+    void deveAcompanharAsAlteracoesDoLinkStore() {
+        Link github = store.create("GitHub", "https://github.com");
+        store.create("Sem URL", null);
+
+        assertEquals(List.of(github), store.findByUrl("https://GITHUB.com/"));
+        assertEquals(1, store.urlsIndexadas());
+
+        store.patch(github.id(), "GitHub!", null); // só o título: a URL continua no índice
+        assertEquals("GitHub!", store.findByUrl("https://github.com").get(0).titulo());
+
+        Link movido = store.update(github.id(), "GitLab", "https://gitlab.com");
+        assertEquals(List.of(), store.findByUrl("https://github.com"));
+        assertEquals(List.of(movido), store.findByUrl("https://GitLab.com"));
+
+        store.patch(github.id(), null, "https://codeberg.org/");
+        assertEquals(List.of(), store.findByUrl("https://gitlab.com"));
+        assertEquals(github.id(), store.findByUrl("https://codeberg.org").get(0).id());
+
+        store.delete(github.id());
+        assertEquals(List.of(), store.findByUrl("https://codeberg.org"));
+        assertEquals(0, store.urlsIndexadas());
+    }
+
+    // 3. Teste de duplicatas permitidas: todos os links com a URL, em ordem de ID
+    @Test
+    void deveListarTodosOsLinksComAMesmaUrlQuandoPermitido() {
+        Link a = store.create("A", "https://exemplo.com");
+        Link b = store.create("B", "https://EXEMPLO.com/");
+        store.create("C", "https://outro.com");
+
+        assertEquals(List.of(a, b), store.findByUrl("https://exemplo.com"));
+        store.delete(a.id());
+        assertEquals(List.of(b), store.findByUrl("https://exemplo.com"));
+    }
+
+}